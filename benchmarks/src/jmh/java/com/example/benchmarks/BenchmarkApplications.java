@@ -0,0 +1,32 @@
+package com.example.benchmarks;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots a service without a web server for JMH state setup.
+ *
+ * Both services ship an application.yml, so which one wins on the shared benchmark classpath
+ * is arbitrary. Services are therefore started without any config file and with explicit
+ * settings for their own in-memory database.
+ */
+final class BenchmarkApplications {
+
+    private BenchmarkApplications() {
+    }
+
+    static ConfigurableApplicationContext start(Class<?> application, String database, String... properties) {
+        return new SpringApplicationBuilder(application)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .properties(
+                        "spring.config.name=benchmark",
+                        "spring.datasource.url=jdbc:h2:mem:" + database,
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false")
+                .properties(properties)
+                .run();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.example.common.util.DateUtils;
+import com.example.payment.model.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging done by the payment and processing-request create paths, written the old way
+ * (timestamps formatted and toString built before the call) and with deferred arguments.
+ *
+ * At WARN the create-path messages are disabled, which is where deferred arguments save the
+ * most; at INFO the messages are rendered by an appender that discards them. Compare the
+ * {@code gc.alloc.rate.norm} (bytes/op) results of {@code eager} and {@code deferred}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CreatePathLoggingBenchmark {
+
+    @Param({"WARN", "INFO"})
+    private String level;
+
+    private org.slf4j.Logger log;
+    private Payment payment;
+    private String requestId;
+
+    @Setup
+    public void setUp() {
+        Logger logger = (Logger) LoggerFactory.getLogger("benchmark.create-path." + level);
+        logger.setLevel(Level.toLevel(level));
+        logger.setAdditive(false);
+        RenderingAppender appender = new RenderingAppender();
+        appender.setContext(logger.getLoggerContext());
+        appender.start();
+        logger.addAppender(appender);
+        log = logger;
+
+        payment = Payment.builder()
+                .tenantId("tenant-a")
+                .paymentId(UUID.randomUUID().toString())
+                .amount(new BigDecimal("129.99"))
+                .currency("USD")
+                .customerId("customer-42")
+                .status(Payment.PaymentStatus.PENDING)
+                .build();
+        payment.setCreatedAt(LocalDateTime.now());
+        requestId = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public void eager() {
+        log.info("Creating payment {} at {}",
+                   payment.getPaymentId(),
+                   payment.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        log.debug("Payment details: {}", payment.toString());
+        log.info("Creating processing request {} for payment {} in tenant {} at {}",
+                   requestId, payment.getPaymentId(), payment.getTenantId(),
+                   LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+    }
+
+    @Benchmark
+    public void deferred() {
+        log.info("Creating payment {} at {}",
+                   payment.getPaymentId(),
+                   DateUtils.lazyFormat(payment.getCreatedAt()));
+        log.debug("Payment details: {}", payment);
+        log.info("Creating processing request {} for payment {} in tenant {} at {}",
+                   requestId, payment.getPaymentId(), payment.getTenantId(), DateUtils.lazyNow());
+    }
+
+    /**
+     * Renders every message like a real appender would, then drops it.
+     */
+    private static final class RenderingAppender extends AppenderBase<ILoggingEvent> {
+
+        private int rendered;
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            rendered += event.getFormattedMessage().length();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.benchmarks;
+
+import com.example.payment.PaymentServiceApplication;
+import com.example.payment.model.Payment;
+import com.example.payment.service.PaymentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PaymentService#createPayment(Payment)} end to end: builder, transaction, INSERT into H2
+ * and the cache write-through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CreatePaymentBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private PaymentService paymentService;
+    private Payment request;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplications.start(PaymentServiceApplication.class, "payment-benchmark");
+        paymentService = context.getBean(PaymentService.class);
+        request = Payment.builder()
+                .tenantId("tenant-a")
+                .amount(new BigDecimal("129.99"))
+                .currency("USD")
+                .customerId("customer-42")
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Payment createPayment() {
+        return paymentService.createPayment(request);
+    }
+}
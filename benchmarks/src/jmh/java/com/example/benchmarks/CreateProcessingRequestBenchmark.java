@@ -0,0 +1,47 @@
+package com.example.benchmarks;
+
+import com.example.processor.ProcessorServiceApplication;
+import com.example.processor.model.ProcessingRequest;
+import com.example.processor.service.ProcessingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProcessingService#createProcessingRequest(String, String)} end to end: transaction,
+ * INSERT into H2 and the cache write-through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CreateProcessingRequestBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private ProcessingService processingService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplications.start(ProcessorServiceApplication.class, "processor-benchmark",
+                // Nothing to relay from creates; keep the relay off the network
+                "processing.outbox.transport=local");
+        processingService = context.getBean(ProcessingService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProcessingRequest createProcessingRequest() {
+        return processingService.createProcessingRequest("tenant-a", "payment-42");
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.benchmarks;
+
+import com.example.common.util.DateUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DateUtils calls made while creating and updating payments and processing requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateUtilsBenchmark {
+
+    private final LocalDateTime dateTime = LocalDateTime.of(2024, 5, 17, 13, 45, 12, 345_678_000);
+    private final String isoDateTime = "2024-05-17T13:45:12.345678";
+
+    @Benchmark
+    public String format() {
+        return DateUtils.format(dateTime);
+    }
+
+    @Benchmark
+    public String formatNow() {
+        return DateUtils.formatNow();
+    }
+
+    @Benchmark
+    public LocalDateTime parseIsoDateTime() {
+        return DateUtils.parseIsoDateTime(isoDateTime);
+    }
+}
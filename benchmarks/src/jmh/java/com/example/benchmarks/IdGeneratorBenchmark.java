@@ -0,0 +1,37 @@
+package com.example.benchmarks;
+
+import com.example.common.id.TimeOrderedIds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID generation from 32 threads at once: {@link UUID#randomUUID()}, which all threads draw from
+ * one shared {@code SecureRandom}, against {@link TimeOrderedIds}, which shares one compare-and-set
+ * counter and draws its random bits per thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(32)
+public class IdGeneratorBenchmark {
+
+    @Benchmark
+    public String randomUuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String timeOrderedId() {
+        return TimeOrderedIds.newId();
+    }
+
+    @Benchmark
+    public UUID timeOrderedUuid() {
+        return TimeOrderedIds.newUuid();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.benchmarks;
+
+import com.example.payment.model.Payment;
+import com.example.processor.model.ProcessingRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (de)serialization of the API entities, configured like the services' Spring Boot ObjectMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Payment payment;
+    private ProcessingRequest processingRequest;
+    private byte[] paymentJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        payment = Payment.builder()
+                .tenantId("tenant-a")
+                .paymentId(UUID.randomUUID().toString())
+                .amount(new BigDecimal("129.99"))
+                .currency("USD")
+                .customerId("customer-42")
+                .status(Payment.PaymentStatus.PENDING)
+                .build();
+        payment.setId(1_000L);
+        payment.setCreatedAt(LocalDateTime.now());
+
+        processingRequest = ProcessingRequest.builder()
+                .tenantId("tenant-a")
+                .requestId(UUID.randomUUID().toString())
+                .paymentId(payment.getPaymentId())
+                .build();
+        processingRequest.setId(2_000L);
+        processingRequest.setCreatedAt(LocalDateTime.now());
+
+        paymentJson = objectMapper.writeValueAsBytes(payment);
+    }
+
+    @Benchmark
+    public byte[] serializePayment() throws Exception {
+        return objectMapper.writeValueAsBytes(payment);
+    }
+
+    @Benchmark
+    public byte[] serializeProcessingRequest() throws Exception {
+        return objectMapper.writeValueAsBytes(processingRequest);
+    }
+
+    @Benchmark
+    public Payment deserializePayment() throws Exception {
+        return objectMapper.readValue(paymentJson, Payment.class);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.benchmarks;
+
+import com.example.common.annotation.TenantId;
+import com.example.common.resolver.TenantIdArgumentResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving {@code @TenantId} from the X-Tenant-ID header, paid on every API request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TenantIdResolverBenchmark {
+
+    private final TenantIdArgumentResolver resolver = new TenantIdArgumentResolver();
+    private MethodParameter parameter;
+    private NativeWebRequest request;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        // Spring MVC caches the handler's MethodParameter the same way
+        parameter = new MethodParameter(TenantIdResolverBenchmark.class.getDeclaredMethod("handler", String.class), 0);
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/api/payments/tenant");
+        servletRequest.addHeader("X-Tenant-ID", "tenant-a");
+        request = new ServletWebRequest(servletRequest);
+    }
+
+    @Benchmark
+    public Object resolveArgument() throws Exception {
+        return resolver.resolveArgument(parameter, null, request, null);
+    }
+
+    @SuppressWarnings("unused")
+    private void handler(@TenantId String tenantId) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.benchmarks;
+
+import com.example.common.ratelimit.EndpointClass;
+import com.example.common.ratelimit.RateLimitSettings;
+import com.example.common.ratelimit.TenantRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limit checks from 64 request threads at once, the case where a single shared counter
+ * per tenant would serialise every request. {@code stripes=1} is that single counter;
+ * {@code stripes=0} uses one stripe per CPU. With {@code permitsPerSecond=1000} nearly every
+ * check is rejected, which is the path a throttled tenant hammers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(64)
+public class TenantRateLimiterBenchmark {
+
+    @Param({"1", "0"})
+    public int stripes;
+
+    @Param({"1", "1000"})
+    public int tenants;
+
+    @Param({"1000000000", "1000"})
+    public double permitsPerSecond;
+
+    private TenantRateLimiter limiter;
+    private String[] tenantIds;
+
+    @Setup
+    public void setUp() {
+        RateLimitSettings.Limit limit = new RateLimitSettings.Limit();
+        limit.setPermitsPerSecond(permitsPerSecond);
+        limit.setBurst(1000);
+        RateLimitSettings settings = new RateLimitSettings();
+        settings.setStripes(stripes);
+        settings.getDefaults().put(EndpointClass.WRITE, limit);
+        limiter = new TenantRateLimiter(settings);
+
+        tenantIds = new String[tenants];
+        for (int i = 0; i < tenants; i++) {
+            tenantIds[i] = "tenant-" + i;
+            limiter.tryAcquire(tenantIds[i], EndpointClass.WRITE);
+        }
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        String tenantId = tenantIds[tenants == 1 ? 0 : ThreadLocalRandom.current().nextInt(tenants)];
+        return limiter.tryAcquire(tenantId, EndpointClass.WRITE);
+    }
+}
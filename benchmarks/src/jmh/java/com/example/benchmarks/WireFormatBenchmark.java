@@ -0,0 +1,91 @@
+package com.example.benchmarks;
+
+import com.example.common.web.BinaryFormats;
+import com.example.payment.model.Payment;
+import com.example.payment.model.PaymentResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a page of payment responses in each wire format the services offer: JSON (the default)
+ * and CBOR / Smile (by Accept header). Payload sizes are printed once per format during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"500"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private JavaType pageType;
+    private List<PaymentResponse> page;
+    private byte[] encodedPage;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Configured like the services' Spring Boot ObjectMapper
+        ObjectMapper jsonMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper = switch (format) {
+            case "json" -> jsonMapper;
+            case "cbor" -> BinaryFormats.cborMapper(jsonMapper);
+            case "smile" -> BinaryFormats.smileMapper(jsonMapper);
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        pageType = objectMapper.getTypeFactory().constructCollectionType(List.class, PaymentResponse.class);
+
+        page = new ArrayList<>(pageSize);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < pageSize; i++) {
+            Payment payment = Payment.builder()
+                    .tenantId("tenant-a")
+                    .paymentId(UUID.randomUUID().toString())
+                    .amount(BigDecimal.valueOf(1_000 + i * 37L, 2))
+                    .currency(i % 3 == 0 ? "EUR" : "USD")
+                    .customerId("customer-" + (i % 50))
+                    .status(Payment.PaymentStatus.values()[i % Payment.PaymentStatus.values().length])
+                    .statusSequence((long) i)
+                    .build();
+            payment.setId(1_000L + i);
+            payment.setCreatedAt(now.minusSeconds(i));
+            payment.setUpdatedAt(now);
+            page.add(PaymentResponse.from(payment));
+        }
+
+        encodedPage = objectMapper.writeValueAsBytes(page);
+        System.out.printf("%n%s: %d payments = %d bytes (%.1f bytes/payment)%n",
+                format, pageSize, encodedPage.length, (double) encodedPage.length / pageSize);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<PaymentResponse> deserializePage() throws Exception {
+        return objectMapper.readValue(encodedPage, pageType);
+    }
+}
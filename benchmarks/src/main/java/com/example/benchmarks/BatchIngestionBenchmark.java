@@ -0,0 +1,78 @@
+package com.example.benchmarks;
+
+import com.example.processor.ProcessorServiceApplication;
+import com.example.processor.model.BatchIngestionSummary;
+import com.example.processor.service.ProcessingIngestionService;
+import com.example.processor.service.ProcessingService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares rows/sec for single processing-request creation (one transaction and INSERT per row)
+ * against the bulk ingestion path (streamed body, chunked transactions, JDBC batch inserts).
+ *
+ * Boots processor-service without a web server against its in-memory H2 database.
+ *
+ * Run with: {@code ./gradlew :benchmarks:batchIngestionBenchmark -Dbenchmark.rows=20000}
+ */
+public class BatchIngestionBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 20_000);
+
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ProcessorServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "spring.datasource.url=jdbc:h2:mem:ingestion-benchmark",
+                        "logging.level.com.example=WARN")
+                .run()) {
+            ProcessingService processingService = context.getBean(ProcessingService.class);
+            ProcessingIngestionService ingestionService = context.getBean(ProcessingIngestionService.class);
+
+            // Warm up both paths
+            single(processingService, "warmup-single", ROWS / 10);
+            batch(ingestionService, "warmup-batch", ROWS / 10);
+
+            System.out.printf("rows=%d%n", ROWS);
+            System.out.printf("%-8s %10s %10s %12s%n", "path", "rows", "wall(ms)", "rows/sec");
+            print("single", ROWS, single(processingService, "bench-single", ROWS));
+            print("batch", ROWS, batch(ingestionService, "bench-batch", ROWS));
+        }
+    }
+
+    private static long single(ProcessingService processingService, String tenantId, int rows) {
+        long start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            processingService.createProcessingRequest(tenantId, "payment-" + i);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long batch(ProcessingIngestionService ingestionService, String tenantId, int rows) {
+        StringBuilder body = new StringBuilder(rows * 16).append('[');
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("\"payment-").append(i).append('"');
+        }
+        byte[] bytes = body.append(']').toString().getBytes(StandardCharsets.UTF_8);
+
+        long start = System.nanoTime();
+        BatchIngestionSummary summary = ingestionService.ingest(tenantId, new ByteArrayInputStream(bytes));
+        long elapsed = System.nanoTime() - start;
+        if (summary.getCreated() != rows) {
+            throw new IllegalStateException("Expected " + rows + " rows but created " + summary.getCreated());
+        }
+        return elapsed;
+    }
+
+    private static void print(String path, int rows, long nanos) {
+        System.out.printf("%-8s %10d %10d %12.0f%n", path, rows, nanos / 1_000_000, rows / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.benchmarks;
+
+import com.example.common.cache.TenantScopedCache;
+import com.example.processor.ProcessorServiceApplication;
+import com.example.processor.model.ProcessingRequest;
+import com.example.processor.repository.ProcessingRequestRepository;
+import com.example.processor.service.ProcessingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Hot-key stress test for request coalescing: {@code benchmark.threads} threads look up the same
+ * processing request (by request ID and by payment ID) at the same moment, {@code benchmark.rounds}
+ * times, as during a status-polling burst. Reports the SQL statements issued per request when every
+ * request queries the repository directly, and when the lookups go through the service, where
+ * concurrent identical lookups share one query.
+ *
+ * The request cache is cleared before each round, so every round starts as a burst of misses.
+ * Boots processor-service without a web server against its in-memory H2 database.
+ *
+ * Run with: {@code ./gradlew :benchmarks:hotKeyCoalescingBenchmark -Dbenchmark.threads=64}
+ */
+public class HotKeyCoalescingBenchmark {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 64);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 200);
+    private static final String TENANT = "hot-tenant";
+
+    public static void main(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ProcessorServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "spring.datasource.url=jdbc:h2:mem:coalescing-benchmark",
+                        "logging.level.com.example=WARN",
+                        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN")
+                .run()) {
+            ProcessingService service = context.getBean(ProcessingService.class);
+            ProcessingRequestRepository repository = context.getBean(ProcessingRequestRepository.class);
+            TenantScopedCache<?, ?> cache = context.getBean(TenantScopedCache.class);
+            Statistics statistics = context.getBean(EntityManagerFactory.class)
+                    .unwrap(SessionFactory.class).getStatistics();
+
+            ProcessingRequest hot = service.createProcessingRequest(TENANT, "hot-payment");
+            for (int i = 0; i < 10; i++) {
+                service.createProcessingRequest(TENANT, "hot-payment");
+            }
+            String requestId = hot.getRequestId();
+            String paymentId = hot.getPaymentId();
+
+            List<Workload> workloads = List.of(
+                    new Workload("by-request-id", "direct",
+                            () -> repository.findByTenantIdAndRequestId(TENANT, requestId)),
+                    new Workload("by-request-id", "coalesced",
+                            () -> service.findByRequestId(TENANT, requestId)),
+                    new Workload("by-payment-id", "direct",
+                            () -> repository.findByTenantIdAndPaymentId(TENANT, paymentId)),
+                    new Workload("by-payment-id", "coalesced",
+                            () -> service.findByPaymentId(TENANT, paymentId)));
+
+            ExecutorService threads = Executors.newFixedThreadPool(THREADS, new CustomizableThreadFactory("hot-key-"));
+            try {
+                // Warm up every path
+                for (Workload workload : workloads) {
+                    run(threads, workload, cache, statistics, ROUNDS / 10);
+                }
+
+                System.out.printf("threads=%d rounds=%d%n", THREADS, ROUNDS);
+                System.out.printf("%-14s %-10s %10s %10s %12s %10s%n",
+                        "lookup", "mode", "requests", "queries", "queries/req", "wall(ms)");
+                for (Workload workload : workloads) {
+                    long start = System.nanoTime();
+                    long queries = run(threads, workload, cache, statistics, ROUNDS);
+                    long requests = (long) THREADS * ROUNDS;
+                    System.out.printf("%-14s %-10s %10d %10d %12.3f %10d%n", workload.lookup, workload.mode,
+                            requests, queries, (double) queries / requests, (System.nanoTime() - start) / 1_000_000);
+                }
+            } finally {
+                threads.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * @return SQL statements prepared during the run
+     */
+    private static long run(ExecutorService threads, Workload workload, TenantScopedCache<?, ?> cache,
+                            Statistics statistics, int rounds) throws Exception {
+        statistics.clear();
+        for (int round = 0; round < rounds; round++) {
+            cache.invalidateTenant(TENANT);
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<?>> calls = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                calls.add(threads.submit(() -> {
+                    go.await();
+                    return workload.call.run();
+                }));
+            }
+            go.countDown();
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private record Workload(String lookup, String mode, Lookup call) {
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        Object run();
+    }
+}
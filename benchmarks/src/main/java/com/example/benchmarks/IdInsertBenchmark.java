@@ -0,0 +1,110 @@
+package com.example.benchmarks;
+
+import com.example.common.id.TimeOrderedIds;
+import com.example.common.id.UuidBinaryConverter;
+
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Compares insert throughput and table size (rows plus the {@code (tenant_id, id)} lookup index) of
+ * the old scheme, random UUID strings in a varchar column, against time-ordered UUIDs as strings
+ * and as 16-byte binary values.
+ *
+ * Uses a file-backed H2 database in a temporary directory, so the sizes are on-disk sizes.
+ *
+ * Run with: {@code ./gradlew :benchmarks:idInsertBenchmark -Dbenchmark.rows=200000}
+ */
+public class IdInsertBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+    private static final int TENANTS = 10;
+    private static final int BATCH = 500;
+
+    private static final UuidBinaryConverter CONVERTER = new UuidBinaryConverter();
+
+    public static void main(String[] args) throws Exception {
+        String url = "jdbc:h2:file:" + Files.createTempDirectory("id-benchmark") + "/ids";
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            connection.setAutoCommit(false);
+
+            // Warm up the JIT and H2 on each scheme
+            for (Scheme scheme : Scheme.values()) {
+                run(connection, scheme, ROWS / 10);
+            }
+
+            System.out.printf("rows=%d tenants=%d%n", ROWS, TENANTS);
+            System.out.printf("%-22s %10s %12s %12s %10s%n", "scheme", "wall(ms)", "rows/sec", "size(KiB)", "bytes/row");
+            for (Scheme scheme : Scheme.values()) {
+                long nanos = run(connection, scheme, ROWS);
+                long bytes = diskSpaceUsed(connection, scheme.table());
+                System.out.printf("%-22s %10d %12.0f %12d %10.1f%n", scheme.label, nanos / 1_000_000,
+                        ROWS / (nanos / 1e9), bytes / 1024, (double) bytes / ROWS);
+            }
+        }
+    }
+
+    private static long run(Connection connection, Scheme scheme, int rows) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists " + scheme.table());
+            statement.execute("create table " + scheme.table() + " (pk bigint auto_increment primary key, " +
+                    "tenant_id varchar(100) not null, id " + scheme.columnType + " not null)");
+            statement.execute("create index " + scheme.table() + "_tenant_id on " + scheme.table() + " (tenant_id, id)");
+        }
+        connection.commit();
+
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into " + scheme.table() + " (tenant_id, id) values (?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                insert.setString(1, "tenant-" + (i % TENANTS));
+                insert.setObject(2, scheme.ids.get());
+                insert.addBatch();
+                if ((i + 1) % BATCH == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long diskSpaceUsed(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("checkpoint sync");
+            try (ResultSet result = statement.executeQuery("select disk_space_used('" + table.toUpperCase() + "')")) {
+                result.next();
+                return result.getLong(1);
+            }
+        }
+    }
+
+    private enum Scheme {
+        RANDOM_STRING("random uuid varchar", "varchar(255)", () -> UUID.randomUUID().toString()),
+        ORDERED_STRING("time-ordered varchar", "varchar(255)", TimeOrderedIds::newId),
+        ORDERED_BINARY("time-ordered binary", "varbinary(16)", () -> CONVERTER.convertToDatabaseColumn(TimeOrderedIds.newId()));
+
+        private final String label;
+        private final String columnType;
+        private final Supplier<Object> ids;
+
+        Scheme(String label, String columnType, Supplier<Object> ids) {
+            this.label = label;
+            this.columnType = columnType;
+            this.ids = ids;
+        }
+
+        String table() {
+            return "ids_" + name().toLowerCase();
+        }
+    }
+}
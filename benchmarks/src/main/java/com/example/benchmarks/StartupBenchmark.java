@@ -0,0 +1,131 @@
+package com.example.benchmarks;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from process start to the first successful API request, for each service and startup variant:
+ * <ul>
+ *   <li>{@code boot-jar}: the boot jar with the default profile (schema update, eager beans)</li>
+ *   <li>{@code fast}: the extracted jar with the fast profile (no schema update, lazy beans)</li>
+ *   <li>{@code fast+cds}: the same with the CDS archive from the training run</li>
+ *   <li>{@code fast+cds+aot}: the same with Spring AOT, when built with {@code -Paot}</li>
+ * </ul>
+ * Every run uses the same file-backed H2 database, whose schema is created by an unmeasured first run.
+ * Each variant is started {@code benchmark.runs} times; the median and minimum are reported.
+ *
+ * Run with: {@code ./gradlew :benchmarks:startupBenchmark [-Paot] -Dbenchmark.runs=5}
+ */
+public class StartupBenchmark {
+
+    private static final int RUNS = Integer.getInteger("benchmark.runs", 5);
+    private static final Duration TIMEOUT = Duration.ofSeconds(Long.getLong("benchmark.timeoutSeconds", 120));
+    private static final String JAVA = System.getProperty("benchmark.java", "java");
+    private static final Path ROOT = Path.of(System.getProperty("benchmark.root", ".."));
+    private static final String VERSION = System.getProperty("benchmark.version", "1.0.0");
+    private static final boolean AOT = Boolean.getBoolean("benchmark.aot");
+
+    private static final Map<String, String> FIRST_REQUEST = Map.of(
+            "payment-service", "/api/payments/tenant",
+            "processor-service", "/api/processing/tenant");
+
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("runs=%d aot=%s%n", RUNS, AOT);
+        System.out.printf("%-18s %-14s %12s %12s%n", "service", "variant", "median(ms)", "min(ms)");
+        for (String service : List.of("payment-service", "processor-service")) {
+            Path build = ROOT.resolve(service).resolve("build");
+            Path bootJar = build.resolve("libs").resolve(service + "-" + VERSION + ".jar");
+            Path fastDir = build.resolve("fast-startup");
+            Path fastJar = fastDir.resolve(service + "-" + VERSION + ".jar");
+            Path archive = fastDir.resolve("application.jsa");
+            String database = "jdbc:h2:file:" + Files.createTempDirectory("startup-benchmark").resolve("db");
+
+            List<Variant> variants = new ArrayList<>(List.of(
+                    new Variant("boot-jar", bootJar, List.of()),
+                    new Variant("fast", fastJar, List.of("-Dspring.profiles.active=fast")),
+                    new Variant("fast+cds", fastJar, List.of("-Dspring.profiles.active=fast",
+                            "-XX:SharedArchiveFile=" + archive))));
+            if (AOT) {
+                variants.add(new Variant("fast+cds+aot", fastJar, List.of("-Dspring.profiles.active=fast",
+                        "-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true")));
+            }
+
+            // Creates the schema the fast variants expect, and warms the OS file cache
+            timeToFirstRequest(service, variants.get(0), database);
+
+            for (Variant variant : variants) {
+                long[] millis = new long[RUNS];
+                for (int run = 0; run < RUNS; run++) {
+                    millis[run] = timeToFirstRequest(service, variant, database);
+                }
+                Arrays.sort(millis);
+                System.out.printf("%-18s %-14s %12d %12d%n", service, variant.name, millis[RUNS / 2], millis[0]);
+            }
+        }
+    }
+
+    private static long timeToFirstRequest(String service, Variant variant, String database) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(JAVA);
+        command.addAll(variant.jvmArgs);
+        command.addAll(List.of("-jar", variant.jar.toString(),
+                "--server.port=" + port,
+                "--spring.datasource.url=" + database,
+                "--spring.jpa.show-sql=false"));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + FIRST_REQUEST.get(service)))
+                .header("X-Tenant-ID", "startup-benchmark")
+                .timeout(Duration.ofSeconds(10))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(service + " (" + variant.name + ") exited with " + process.exitValue());
+                }
+                try {
+                    if (HTTP.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(service + " (" + variant.name + ") did not answer within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Variant(String name, Path jar, List<String> jvmArgs) {
+    }
+}
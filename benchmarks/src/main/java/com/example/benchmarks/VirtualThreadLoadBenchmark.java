@@ -0,0 +1,123 @@
+package com.example.benchmarks;
+
+import com.example.common.metrics.TenantMetricTags;
+import com.example.processor.executor.ProcessingExecutorProperties;
+import com.example.processor.executor.TenantFairExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Load benchmark for the processing executor with virtual threads on and off.
+ *
+ * Submits {@code benchmark.jobs} blocking processing jobs at once, spread over
+ * {@code benchmark.tenants} tenants, and reports throughput and submit-to-completion
+ * latency percentiles. Each job blocks for {@code benchmark.jobLatencyMs}, standing in
+ * for the JPA calls and gateway wait of a real processing job.
+ *
+ * Both modes use the processing executor's own limits ({@code processing.executor.*} defaults,
+ * overridable with {@code benchmark.workerThreads}, {@code benchmark.globalConcurrency} and
+ * {@code benchmark.perTenantConcurrency}). In platform mode jobs run on a pool of
+ * {@code workerThreads} threads, as in processor-service; in virtual mode each job gets its own
+ * virtual thread, so up to {@code globalConcurrency} jobs are in flight at once. Tenant queues
+ * are sized to hold every job, since all of them are submitted up front.
+ *
+ * Run with: {@code ./gradlew :benchmarks:virtualThreadBenchmark -Dbenchmark.jobs=10000}
+ */
+public class VirtualThreadLoadBenchmark {
+
+    private static final int JOBS = Integer.getInteger("benchmark.jobs", 10_000);
+    private static final int TENANTS = Integer.getInteger("benchmark.tenants", 10);
+    private static final int JOB_LATENCY_MS = Integer.getInteger("benchmark.jobLatencyMs", 100);
+    private static final ProcessingExecutorProperties DEFAULTS = new ProcessingExecutorProperties();
+    private static final int WORKER_THREADS = Integer.getInteger("benchmark.workerThreads", DEFAULTS.getWorkerThreads());
+    private static final int GLOBAL_CONCURRENCY =
+            Integer.getInteger("benchmark.globalConcurrency", DEFAULTS.getGlobalConcurrency());
+    private static final int PER_TENANT_CONCURRENCY =
+            Integer.getInteger("benchmark.perTenantConcurrency", DEFAULTS.getPerTenantConcurrency());
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("jobs=%d tenants=%d jobLatencyMs=%d workerThreads=%d globalConcurrency=%d perTenantConcurrency=%d%n",
+                JOBS, TENANTS, JOB_LATENCY_MS, WORKER_THREADS, GLOBAL_CONCURRENCY, PER_TENANT_CONCURRENCY);
+
+        // Warm up both paths so class loading and JIT don't land in the measured run
+        run(false, JOBS / 10);
+        run(true, JOBS / 10);
+
+        System.out.printf("%-10s %8s %10s %10s %14s %9s %9s %9s%n",
+                "mode", "jobs", "in-flight", "wall(ms)", "throughput/s", "p50(ms)", "p99(ms)", "max(ms)");
+        print("platform", run(false, JOBS));
+        print("virtual", run(true, JOBS));
+    }
+
+    private static Result run(boolean virtualThreads, int jobs) throws InterruptedException {
+        ProcessingExecutorProperties properties = new ProcessingExecutorProperties();
+        properties.setWorkerThreads(WORKER_THREADS);
+        properties.setGlobalConcurrency(GLOBAL_CONCURRENCY);
+        properties.setPerTenantConcurrency(PER_TENANT_CONCURRENCY);
+        properties.setPerTenantQueueCapacity(jobs);
+        // Blocking jobs hold their worker, so platform mode cannot have more in flight than it has threads
+        int concurrency = Math.min(GLOBAL_CONCURRENCY, PER_TENANT_CONCURRENCY * TENANTS);
+        if (!virtualThreads) {
+            concurrency = Math.min(concurrency, WORKER_THREADS);
+        }
+
+        ExecutorService workers = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bench-vt-", 0).factory())
+                : Executors.newFixedThreadPool(WORKER_THREADS, new CustomizableThreadFactory("bench-"));
+        TenantFairExecutor executor = new TenantFairExecutor(properties, workers,
+                new SimpleMeterRegistry(), new TenantMetricTags(IntStream.range(0, TENANTS).mapToObj(i -> "tenant-" + i).collect(Collectors.toSet())));
+
+        long[] latencies = new long[jobs];
+        CountDownLatch done = new CountDownLatch(jobs);
+        long start = System.nanoTime();
+        for (int i = 0; i < jobs; i++) {
+            int job = i;
+            long submittedAt = System.nanoTime();
+            executor.submit("tenant-" + (i % TENANTS), () -> {
+                try {
+                    Thread.sleep(JOB_LATENCY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                latencies[job] = System.nanoTime() - submittedAt;
+                done.countDown();
+            });
+        }
+        done.await();
+        long wallNanos = System.nanoTime() - start;
+
+        executor.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+        return new Result(jobs, concurrency, wallNanos, latencies);
+    }
+
+    private static void print(String mode, Result result) {
+        long[] sorted = result.latencies().clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-10s %8d %10d %10d %14.0f %9.1f %9.1f %9.1f%n",
+                mode,
+                result.jobs(),
+                result.concurrency(),
+                TimeUnit.NANOSECONDS.toMillis(result.wallNanos()),
+                result.jobs() / (result.wallNanos() / 1e9),
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.99),
+                sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private record Result(int jobs, int concurrency, long wallNanos, long[] latencies) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.common.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the client's idempotency key from the Idempotency-Key header.
+ * Resolved like {@link TenantId}; the parameter is null when the header is absent and not required.
+ * 
+ * Usage:
+ * <pre>
+ * public ResponseEntity<Payment> createPayment(@TenantId String tenantId, @IdempotencyKey String idempotencyKey, ...) {
+ *     // a retried request carries the same key and gets the original payment back
+ * }
+ * </pre>
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface IdempotencyKey {
+    /**
+     * Whether the key is required. If true and no key is provided, an exception will be thrown.
+     */
+    boolean required() default false;
+}
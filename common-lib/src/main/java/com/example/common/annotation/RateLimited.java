@@ -0,0 +1,26 @@
+package com.example.common.annotation;
+
+import com.example.common.ratelimit.EndpointClass;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns a handler method to a rate-limit endpoint class.
+ * Without it, GET and HEAD requests count as {@link EndpointClass#READ} and everything else
+ * as {@link EndpointClass#WRITE}.
+ * 
+ * Usage:
+ * <pre>
+ * &#64;RateLimited(EndpointClass.PROCESS)
+ * &#64;PostMapping("/{requestId}/process")
+ * public ResponseEntity<ProcessingRequest> processPayment(...)
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+    EndpointClass value();
+}
@@ -0,0 +1,29 @@
+package com.example.common.cache;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Size and expiry limits for a {@link TenantScopedCache}.
+ * Services bind this from configuration, e.g. under {@code cache.payments}.
+ */
+@Data
+public class TenantCacheSettings {
+
+    /**
+     * Maximum number of tenants with a cache partition. The least recently used
+     * partition is dropped when a new tenant would exceed this.
+     */
+    private int maxTenants = 1000;
+
+    /**
+     * Maximum number of entries per tenant; the least recently used entry is evicted first.
+     */
+    private int maxEntriesPerTenant = 1000;
+
+    /**
+     * Time after which an entry is treated as absent and reloaded.
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+}
@@ -0,0 +1,312 @@
+package com.example.common.cache;
+
+import com.example.common.metrics.TenantMetricTags;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache partitioned by tenant.
+ *
+ * Every tenant gets its own LRU partition with a fixed maximum size and a time-to-live per entry,
+ * so one tenant's traffic can only evict its own entries. Lookups always go through the caller's
+ * tenant partition, and values are checked against their owning tenant when stored, so a value
+ * can never be served to another tenant.
+ *
+ * Every write ({@link #put}, {@link #invalidate}) takes the next version of the tenant's partition;
+ * an invalidated key keeps a tombstone with its version until it expires or is evicted. A value
+ * loaded on a miss is only stored if no write to its key has happened since the miss, so a slow
+ * read cannot put back a value that a committed write has already replaced. Values are shared
+ * between threads and should be immutable snapshots, not entities.
+ *
+ * Hit, miss and eviction counts are published when the cache is bound to a {@link MeterRegistry},
+ * tagged through {@link TenantMetricTags}: the tenant ID is whatever the client sent, so only the
+ * configured tenants get their own series and all others share one. Series are kept when a tenant's
+ * partition is dropped, so evicting partitions does not churn meters.
+ *
+ * @param <K> key type within a tenant, e.g. a payment ID
+ * @param <V> cached value type
+ */
+@Slf4j
+public class TenantScopedCache<K, V> implements MeterBinder {
+
+    private final String name;
+    private final TenantCacheSettings settings;
+    private final Function<V, String> tenantOf;
+    private final long ttlNanos;
+    private final TenantMetricTags tenantTags;
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    // Keyed by tenant tag value, so bounded by the configured tenants
+    private final Map<String, Counters> countersByTag = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    /**
+     * @param name       cache name, used as the {@code cache} tag on metrics
+     * @param settings   size and expiry limits
+     * @param tenantOf   extracts the owning tenant ID from a value
+     * @param tenantTags tenant tag values for the cache's metrics
+     */
+    public TenantScopedCache(String name, TenantCacheSettings settings, Function<V, String> tenantOf,
+                             TenantMetricTags tenantTags) {
+        this.name = name;
+        this.settings = settings;
+        this.tenantOf = tenantOf;
+        this.tenantTags = tenantTags;
+        this.ttlNanos = settings.getTtl().toNanos();
+    }
+
+    /**
+     * Returns the cached value for the tenant and key, or calls {@code loader} on a miss and
+     * caches what it returns. Empty results are not cached.
+     */
+    public Optional<V> get(String tenantId, K key, Supplier<Optional<V>> loader) {
+        Partition partition = partition(tenantId);
+        V cached = partition.get(key);
+        if (cached != null) {
+            partition.counters.hits.increment();
+            return Optional.of(cached);
+        }
+        partition.counters.misses.increment();
+        long version = partition.version();
+
+        Optional<V> loaded = loader.get();
+        // A partition dropped in the meantime may have missed writes, so the value is not kept
+        if (loaded.isPresent() && partitions.get(tenantId) == partition) {
+            checkOwner(tenantId, key, loaded.get());
+            partition.putIfUnchangedSince(key, loaded.get(), version);
+        }
+        return loaded;
+    }
+
+    /**
+     * Stores a value (write-through).
+     *
+     * @throws IllegalArgumentException if the value belongs to a different tenant
+     */
+    public void put(String tenantId, K key, V value) {
+        checkOwner(tenantId, key, value);
+        partition(tenantId).put(key, value);
+    }
+
+    public void invalidate(String tenantId, K key) {
+        Partition partition = partitions.get(tenantId);
+        if (partition != null) {
+            partition.put(key, null);
+        }
+    }
+
+    public void invalidateTenant(String tenantId) {
+        partitions.remove(tenantId);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Partition partition : partitions.values()) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        Gauge.builder("tenant.cache.size", this, TenantScopedCache::size)
+                .description("Entries held across all tenant partitions")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("tenant.cache.tenants", partitions, Map::size)
+                .description("Tenants with a cache partition")
+                .tag("cache", name)
+                .register(registry);
+        countersByTag.values().forEach(tagged -> tagged.register(registry));
+    }
+
+    private void checkOwner(String tenantId, K key, V value) {
+        String owner = tenantOf.apply(value);
+        if (!tenantId.equals(owner)) {
+            throw new IllegalArgumentException("Refusing to cache " + name + " entry " + key +
+                    " owned by tenant " + owner + " under tenant " + tenantId);
+        }
+    }
+
+    private Partition partition(String tenantId) {
+        Partition partition = partitions.get(tenantId);
+        if (partition == null) {
+            Partition created = new Partition(tenantId);
+            partition = partitions.putIfAbsent(tenantId, created);
+            if (partition == null) {
+                partition = created;
+                if (partitions.size() > settings.getMaxTenants()) {
+                    evictLeastRecentlyUsedPartition(tenantId);
+                }
+            }
+        }
+        partition.lastAccessNanos = System.nanoTime();
+        return partition;
+    }
+
+    private void evictLeastRecentlyUsedPartition(String keep) {
+        Partition oldest = null;
+        for (Partition candidate : partitions.values()) {
+            if (!candidate.tenantId.equals(keep)
+                    && (oldest == null || candidate.lastAccessNanos - oldest.lastAccessNanos < 0)) {
+                oldest = candidate;
+            }
+        }
+        if (oldest != null && partitions.remove(oldest.tenantId, oldest)) {
+            log.debug("Dropped {} cache partition for tenant {} (max tenants {})",
+                        name, oldest.tenantId, settings.getMaxTenants());
+        }
+    }
+
+    /**
+     * @param value null for a tombstone left by {@link #invalidate}
+     */
+    private record Entry<V>(V value, long expiresAtNanos, long version) {
+    }
+
+    private Counters countersFor(String tenantId) {
+        return countersByTag.computeIfAbsent(tenantTags.tagFor(tenantId), tag -> {
+            Counters created = new Counters(tag);
+            MeterRegistry registry = meterRegistry;
+            if (registry != null) {
+                created.register(registry);
+            }
+            return created;
+        });
+    }
+
+    /**
+     * Counts shared by every tenant with the same tag value.
+     */
+    private final class Counters {
+
+        private final String tenantTag;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        private Counters(String tenantTag) {
+            this.tenantTag = tenantTag;
+        }
+
+        private void register(MeterRegistry registry) {
+            FunctionCounter.builder("tenant.cache.gets", hits, LongAdder::sum)
+                    .description("Cache lookups")
+                    .tags("cache", name, TenantMetricTags.TAG, tenantTag, "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("tenant.cache.gets", misses, LongAdder::sum)
+                    .description("Cache lookups")
+                    .tags("cache", name, TenantMetricTags.TAG, tenantTag, "result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("tenant.cache.evictions", evictions, LongAdder::sum)
+                    .description("Entries evicted for size or expired by TTL")
+                    .tags("cache", name, TenantMetricTags.TAG, tenantTag)
+                    .register(registry);
+        }
+    }
+
+    private final class Partition {
+
+        private final String tenantId;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Counters counters;
+        private volatile long lastAccessNanos = System.nanoTime();
+        private long version;
+        // Highest version among entries dropped for size or age; a load older than that may be stale
+        private long droppedVersion;
+
+        // Access-ordered, so the eldest entry is the least recently used one
+        private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > settings.getMaxEntriesPerTenant()) {
+                    droppedVersion = Math.max(droppedVersion, eldest.getValue().version());
+                    if (eldest.getValue().value() != null) {
+                        counters.evictions.increment();
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        private Partition(String tenantId) {
+            this.tenantId = tenantId;
+            this.counters = countersFor(tenantId);
+        }
+
+        private V get(K key) {
+            lock.lock();
+            try {
+                Entry<V> entry = entries.get(key);
+                if (entry == null) {
+                    return null;
+                }
+                if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+                    entries.remove(key);
+                    droppedVersion = Math.max(droppedVersion, entry.version());
+                    if (entry.value() != null) {
+                        counters.evictions.increment();
+                    }
+                    return null;
+                }
+                return entry.value();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long version() {
+            lock.lock();
+            try {
+                return version;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // A null value leaves a tombstone
+        private void put(K key, V value) {
+            lock.lock();
+            try {
+                entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos, ++version));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void putIfUnchangedSince(K key, V value, long since) {
+            lock.lock();
+            try {
+                Entry<V> current = entries.get(key);
+                long lastWrite = current != null ? current.version() : droppedVersion;
+                if (lastWrite <= since) {
+                    entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos, ++version));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
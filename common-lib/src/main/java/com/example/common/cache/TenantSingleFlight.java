@@ -0,0 +1,107 @@
+package com.example.common.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical reads: while a load for a (tenant, key) is in flight, further calls
+ * for the same tenant and key wait for it and get its result instead of running their own.
+ * Nothing is kept once the load finishes; combine with {@link TenantScopedCache} for that.
+ *
+ * A caller that joins a load gets a result read after the load started, which is no older than what
+ * it would have read itself had it arrived a moment earlier. Calls made inside a transaction always
+ * load on their own, because they may see that transaction's uncommitted writes. Every caller gets the
+ * same result instance, so results must be treated as read-only.
+ *
+ * @param <K> key type within a tenant, e.g. a payment ID or a query name and its arguments
+ * @param <V> result type
+ */
+public class TenantSingleFlight<K, V> implements MeterBinder {
+
+    private final String name;
+    private final ConcurrentHashMap<FlightKey<K>, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+
+    /**
+     * @param name flight name, used as the {@code flight} tag on metrics
+     */
+    public TenantSingleFlight(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the result of the load already in flight for the tenant and key, or runs {@code loader}
+     * and hands its result (or exception) to every caller that joined meanwhile.
+     */
+    public V execute(String tenantId, K key, Supplier<V> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            loads.increment();
+            return loader.get();
+        }
+
+        FlightKey<K> flightKey = new FlightKey<>(tenantId, key);
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(flightKey, flight);
+        if (leader != null) {
+            joined.increment();
+            return await(leader);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    /**
+     * Loads currently in flight.
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("single.flight.calls", loads, LongAdder::sum)
+                .description("Lookups that ran their own load or joined a concurrent one")
+                .tags("flight", name, "result", "load")
+                .register(registry);
+        FunctionCounter.builder("single.flight.calls", joined, LongAdder::sum)
+                .description("Lookups that ran their own load or joined a concurrent one")
+                .tags("flight", name, "result", "joined")
+                .register(registry);
+    }
+
+    private static <V> V await(CompletableFuture<V> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record FlightKey<K>(String tenantId, K key) {
+    }
+}
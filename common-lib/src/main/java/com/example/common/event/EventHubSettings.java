@@ -0,0 +1,45 @@
+package com.example.common.event;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Limits for a {@link TenantEventHub}. Services bind this from configuration, e.g. under {@code events}.
+ */
+@Data
+public class EventHubSettings {
+    
+    /**
+     * Events buffered per subscriber while earlier events are still being written.
+     */
+    private int bufferSize = 256;
+    
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    
+    /**
+     * Subscribers whose dropped-event count reaches this are disconnected regardless of policy.
+     * 0 disables the check.
+     */
+    private long maxDroppedEvents = 10_000;
+    
+    /**
+     * Interval between heartbeats on otherwise idle subscriptions.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+    
+    /**
+     * Subscribers still writing a single event, heartbeat or notice after this long are disconnected.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+    
+    /**
+     * Maximum concurrent subscriptions for a single tenant.
+     */
+    private int maxSubscribersPerTenant = 10_000;
+    
+    /**
+     * How long a single subscription may stay open before the client has to reconnect.
+     */
+    private Duration subscriptionTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,23 @@
+package com.example.common.event;
+
+/**
+ * Transport-specific end of a {@link TenantEventHub} subscription, e.g. an SSE connection.
+ * Calls are made from hub dispatcher threads, one at a time per subscription.
+ */
+public interface EventSink<E> {
+    
+    void send(E event) throws Exception;
+    
+    /**
+     * Keeps an idle connection alive and detects clients that have gone away.
+     */
+    void heartbeat() throws Exception;
+    
+    /**
+     * Tells the client that {@code count} events were dropped because it was not keeping up,
+     * so it should re-read current state.
+     */
+    void dropped(long count) throws Exception;
+    
+    void close();
+}
@@ -0,0 +1,13 @@
+package com.example.common.event;
+
+/**
+ * What a {@link TenantEventHub} does when a subscriber's buffer is full.
+ */
+public enum OverflowPolicy {
+    /** Discard the oldest buffered event to make room for the new one. */
+    DROP_OLDEST,
+    /** Discard the new event. */
+    DROP_NEWEST,
+    /** Treat the subscriber as a slow consumer and disconnect it. */
+    DISCONNECT
+}
@@ -0,0 +1,22 @@
+package com.example.common.event;
+
+import java.time.Instant;
+
+/**
+ * Payment status change sent from processor-service to payment-service.
+ *
+ * Updates may be delivered more than once and out of order. The receiver applies an update
+ * only if its {@code sequence} is higher than the last one applied to the payment.
+ *
+ * @param tenantId   owning tenant
+ * @param paymentId  payment the status belongs to
+ * @param status     new payment status, e.g. {@code PROCESSING} or {@code COMPLETED}
+ * @param sequence   ordering of updates for the same payment
+ * @param occurredAt when the underlying transition was made
+ */
+public record PaymentStatusUpdate(String tenantId,
+                                  String paymentId,
+                                  String status,
+                                  long sequence,
+                                  Instant occurredAt) {
+}
@@ -0,0 +1,64 @@
+package com.example.common.event;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Writes hub events to a server-sent events connection.
+ * 
+ * Events are sent as {@code status} events with a JSON body, missed-event notices as
+ * {@code dropped} events carrying the count, and heartbeats as SSE comments.
+ */
+public class SseEventSink<E> implements EventSink<E> {
+    
+    private final SseEmitter emitter;
+    
+    public SseEventSink(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+    
+    /**
+     * Subscribes a new SSE connection to the hub. The subscription is cancelled when the
+     * connection completes, times out or fails.
+     *
+     * @throws IllegalStateException if the tenant already has the maximum number of subscribers
+     */
+    public static <E> SseEmitter subscribe(TenantEventHub<E> hub, String tenantId, Predicate<E> filter, Duration timeout) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        TenantEventHub<E>.Subscription subscription = hub.subscribe(tenantId, filter, new SseEventSink<>(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        try {
+            // Flushes the response headers so clients know the stream is open before the first event
+            emitter.send(SseEmitter.event().comment("connected"));
+        } catch (IOException e) {
+            subscription.cancel();
+        }
+        return emitter;
+    }
+    
+    @Override
+    public void send(E event) throws Exception {
+        emitter.send(SseEmitter.event().name("status").data(event, MediaType.APPLICATION_JSON));
+    }
+    
+    @Override
+    public void heartbeat() throws Exception {
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+    }
+    
+    @Override
+    public void dropped(long count) throws Exception {
+        emitter.send(SseEmitter.event().name("dropped").data(count));
+    }
+    
+    @Override
+    public void close() {
+        emitter.complete();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.common.event;
+
+import java.time.Instant;
+
+/**
+ * A committed status transition of a tenant-owned entity.
+ *
+ * @param tenantId   owning tenant
+ * @param entityType kind of entity, e.g. {@code payment} or {@code processing-request}
+ * @param entityId   business ID of the entity (payment ID, request ID)
+ * @param fromStatus status before the transition, or null for a newly created entity
+ * @param toStatus   status after the transition
+ * @param occurredAt when the transition was made
+ */
+public record StatusChangeEvent(String tenantId,
+                                String entityType,
+                                String entityId,
+                                String fromStatus,
+                                String toStatus,
+                                Instant occurredAt) {
+}
@@ -0,0 +1,328 @@
+package com.example.common.event;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Fans events out to per-tenant subscribers without a thread per idle subscriber.
+ *
+ * Each subscription has a bounded buffer. Publishing only appends to matching buffers; a
+ * subscription with buffered work gets its own virtual thread to drain it, which ends when the
+ * buffer is empty, so idle subscribers cost memory but no threads and a client that stops reading
+ * only blocks its own sender. When a buffer is full the configured {@link OverflowPolicy} applies,
+ * and the subscriber is told how many events it missed. A subscriber whose write takes longer than
+ * {@code sendTimeout} is disconnected. Idle subscriptions get periodic heartbeats, which is also how
+ * dead connections are found and removed.
+ *
+ * @param <E> event type
+ */
+@Slf4j
+public class TenantEventHub<E> implements MeterBinder, AutoCloseable {
+
+    private static final Object HEARTBEAT = new Object();
+    private static final int MAX_EVENTS_PER_DRAIN = 64;
+
+    private final String name;
+    private final EventHubSettings settings;
+    private final Function<E, String> tenantOf;
+    private final Map<String, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder slowConsumerDisconnects = new LongAdder();
+
+    /**
+     * @param name     hub name, used in thread names and as the {@code hub} metrics tag
+     * @param settings buffer, overflow and heartbeat settings
+     * @param tenantOf extracts the owning tenant from an event
+     */
+    public TenantEventHub(String name, EventHubSettings settings, Function<E, String> tenantOf) {
+        this.name = name;
+        this.settings = settings;
+        this.tenantOf = tenantOf;
+        this.senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-send-", 0).factory());
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory(name + "-heartbeat-"));
+        long interval = settings.getHeartbeatInterval().toMillis();
+        this.heartbeats.scheduleAtFixedRate(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+        long checkInterval = Math.max(settings.getSendTimeout().toMillis() / 2, 1);
+        this.heartbeats.scheduleAtFixedRate(this::disconnectStuckSenders, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers a subscriber for one tenant's events.
+     *
+     * @param filter only events matching this predicate are delivered
+     * @throws IllegalStateException if the tenant already has the maximum number of subscribers
+     */
+    public Subscription subscribe(String tenantId, Predicate<E> filter, EventSink<E> sink) {
+        Subscription subscription = new Subscription(tenantId, filter, sink);
+        // Checked and added under the map's lock for the tenant, so concurrent subscribes cannot overshoot the limit
+        subscribers.compute(tenantId, (key, tenantSubscribers) -> {
+            if (tenantSubscribers == null) {
+                tenantSubscribers = ConcurrentHashMap.newKeySet();
+            }
+            if (tenantSubscribers.size() >= settings.getMaxSubscribersPerTenant()) {
+                throw new IllegalStateException("Too many event subscribers for tenant: " + tenantId);
+            }
+            tenantSubscribers.add(subscription);
+            subscriberCount.incrementAndGet();
+            return tenantSubscribers;
+        });
+        log.debug("New {} subscriber for tenant {}", name, tenantId);
+        return subscription;
+    }
+
+    /**
+     * Queues the event for every matching subscriber of its tenant. Never blocks on a subscriber.
+     */
+    public void publish(E event) {
+        Set<Subscription> tenantSubscribers = subscribers.get(tenantOf.apply(event));
+        if (tenantSubscribers == null) {
+            return;
+        }
+        for (Subscription subscription : tenantSubscribers) {
+            if (subscription.filter.test(event)) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open event stream subscriptions")
+                .tag("hub", name)
+                .register(registry);
+        FunctionCounter.builder("events.dropped", droppedEvents, LongAdder::sum)
+                .description("Events dropped because a subscriber's buffer was full")
+                .tag("hub", name)
+                .register(registry);
+        FunctionCounter.builder("events.slow.consumer.disconnects", slowConsumerDisconnects, LongAdder::sum)
+                .description("Subscribers disconnected for not keeping up")
+                .tag("hub", name)
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        heartbeats.shutdownNow();
+        subscribers.values().forEach(tenantSubscribers -> tenantSubscribers.forEach(Subscription::cancel));
+        senders.shutdown();
+    }
+
+    private void sendHeartbeats() {
+        for (Set<Subscription> tenantSubscribers : subscribers.values()) {
+            for (Subscription subscription : tenantSubscribers) {
+                subscription.offerHeartbeat();
+            }
+        }
+    }
+
+    private void disconnectStuckSenders() {
+        long timeout = settings.getSendTimeout().toNanos();
+        long now = System.nanoTime();
+        for (Set<Subscription> tenantSubscribers : subscribers.values()) {
+            for (Subscription subscription : tenantSubscribers) {
+                if (subscription.sending && now - subscription.sendStartedAt > timeout) {
+                    slowConsumerDisconnects.increment();
+                    log.info("Disconnecting {} subscriber for tenant {}: a write has not finished in {}",
+                            name, subscription.tenantId, settings.getSendTimeout());
+                    subscription.cancel();
+                }
+            }
+        }
+    }
+
+    /**
+     * A single subscriber. Buffered events are written by at most one sender thread at a time.
+     */
+    public final class Subscription {
+
+        private final String tenantId;
+        private final Predicate<E> filter;
+        private final EventSink<E> sink;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<Object> buffer = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean closed;
+        private long droppedSinceLastNotice;
+        private long droppedTotal;
+        private volatile boolean sending;
+        private volatile long sendStartedAt;
+
+        private Subscription(String tenantId, Predicate<E> filter, EventSink<E> sink) {
+            this.tenantId = tenantId;
+            this.filter = filter;
+            this.sink = sink;
+        }
+
+        /**
+         * Removes the subscription and closes its sink. Safe to call more than once.
+         */
+        public void cancel() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                buffer.clear();
+            } finally {
+                lock.unlock();
+            }
+            subscribers.computeIfPresent(tenantId, (key, tenantSubscribers) -> {
+                if (tenantSubscribers.remove(this)) {
+                    subscriberCount.decrementAndGet();
+                }
+                return tenantSubscribers.isEmpty() ? null : tenantSubscribers;
+            });
+            try {
+                sink.close();
+            } catch (RuntimeException e) {
+                log.debug("Error closing {} subscriber for tenant {}: {}", name, tenantId, e.getMessage());
+            }
+        }
+
+        private void offer(E event) {
+            boolean disconnect = false;
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() >= settings.getBufferSize()) {
+                    switch (settings.getOverflowPolicy()) {
+                        case DROP_OLDEST -> {
+                            buffer.pollFirst();
+                            buffer.addLast(event);
+                            recordDrop();
+                        }
+                        case DROP_NEWEST -> recordDrop();
+                        case DISCONNECT -> disconnect = true;
+                    }
+                    if (settings.getMaxDroppedEvents() > 0 && droppedTotal >= settings.getMaxDroppedEvents()) {
+                        disconnect = true;
+                    }
+                } else {
+                    buffer.addLast(event);
+                }
+                if (!disconnect) {
+                    schedule();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (disconnect) {
+                slowConsumerDisconnects.increment();
+                log.info("Disconnecting slow {} subscriber for tenant {}", name, tenantId);
+                cancel();
+            }
+        }
+
+        private void offerHeartbeat() {
+            lock.lock();
+            try {
+                // Pending events already prove the connection is alive once written
+                if (!closed && buffer.isEmpty()) {
+                    buffer.addLast(HEARTBEAT);
+                    schedule();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void recordDrop() {
+            droppedSinceLastNotice++;
+            droppedTotal++;
+            droppedEvents.increment();
+        }
+
+        // Called with the lock held
+        private void schedule() {
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled = false;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void drain() {
+            for (int sent = 0; sent < MAX_EVENTS_PER_DRAIN; sent++) {
+                Object item;
+                long dropped;
+                lock.lock();
+                try {
+                    item = buffer.pollFirst();
+                    if (item == null || closed) {
+                        scheduled = false;
+                        return;
+                    }
+                    dropped = droppedSinceLastNotice;
+                    droppedSinceLastNotice = 0;
+                } finally {
+                    lock.unlock();
+                }
+
+                sendStartedAt = System.nanoTime();
+                sending = true;
+                try {
+                    if (dropped > 0) {
+                        sink.dropped(dropped);
+                    }
+                    if (item == HEARTBEAT) {
+                        sink.heartbeat();
+                    } else {
+                        sink.send((E) item);
+                    }
+                } catch (Exception e) {
+                    log.debug("{} subscriber for tenant {} went away: {}", name, tenantId, e.getMessage());
+                    cancel();
+                    return;
+                } finally {
+                    sending = false;
+                }
+            }
+
+            // Give other subscribers a turn before continuing with this one
+            lock.lock();
+            try {
+                scheduled = false;
+                if (!buffer.isEmpty() && !closed) {
+                    schedule();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
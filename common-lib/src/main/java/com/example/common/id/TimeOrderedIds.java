@@ -0,0 +1,63 @@
+package com.example.common.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs (version 7, RFC 9562) for entity keys such as paymentId and requestId.
+ *
+ * The first 48 bits are the Unix time in milliseconds, so IDs created close together sort close
+ * together and inserts land at the end of an index instead of all over it. The next 12 bits are a
+ * counter that starts at a random value each millisecond. Timestamp and counter are advanced together
+ * with one compare-and-set, so IDs from one JVM are strictly increasing whichever thread, platform or
+ * virtual, makes them. The last 62 bits are random, which keeps IDs from different nodes apart.
+ *
+ * Randomness comes from {@link ThreadLocalRandom} instead of the shared {@code SecureRandom} behind
+ * {@link UUID#randomUUID()}, and the shared state needs no lock. The IDs are unique, not secret:
+ * they must not be used as unguessable tokens.
+ */
+public final class TimeOrderedIds {
+
+    private static final int COUNTER_BITS = 12;
+    private static final int COUNTER_MAX = (1 << COUNTER_BITS) - 1;
+
+    // Timestamp of the last ID in the high bits, its counter in the low COUNTER_BITS
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private TimeOrderedIds() {
+    }
+
+    public static UUID newUuid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long next = LAST.updateAndGet(last -> {
+            long now = System.currentTimeMillis();
+            if (now > last >>> COUNTER_BITS) {
+                // Start in the lower half, so a busy millisecond rarely runs out of counter values
+                return (now << COUNTER_BITS) | random.nextInt(COUNTER_MAX / 2);
+            }
+            // Same millisecond, or the clock went back; an exhausted counter carries into the next millisecond
+            return last + 1;
+        });
+        long millis = next >>> COUNTER_BITS;
+        long counter = next & COUNTER_MAX;
+
+        long mostSigBits = (millis << 16) | (0x7L << COUNTER_BITS) | counter;
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * A new ID in the usual 36-character form, e.g. {@code 0190b6e2-5c3a-7d41-9a6f-3c2e1b0d8f77}.
+     */
+    public static String newId() {
+        return newUuid().toString();
+    }
+
+    /**
+     * Creation time of an ID made by {@link #newUuid()}, in Unix milliseconds.
+     */
+    public static long timestampOf(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.common.id;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Stores a UUID-valued string attribute as 16 bytes instead of a 36-character string.
+ * Use with {@code @Convert(converter = UuidBinaryConverter.class)} and {@code @Column(length = 16)}.
+ *
+ * The bytes are in big-endian order, so {@link TimeOrderedIds} keep their creation order in the column.
+ * A query parameter that is not a UUID converts to {@code null} and so matches no row.
+ */
+@Converter
+public class UuidBinaryConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(attribute);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] dbData) {
+        if (dbData == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(dbData);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+}
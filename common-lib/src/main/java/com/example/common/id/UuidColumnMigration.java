@@ -0,0 +1,68 @@
+package com.example.common.id;
+
+import com.example.common.shard.ShardContext;
+import com.example.common.shard.TenantShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Converts an ID column created as varchar, before IDs were stored as 16 bytes, to the binary form
+ * {@link UuidBinaryConverter} reads and writes.
+ *
+ * {@code spring.jpa.hibernate.ddl-auto: update} adds missing columns but never changes the type of an
+ * existing one, so a database from before the change would keep the varchar column and no lookup by
+ * ID would match. The column is converted in place through H2's UUID type, which keeps its indexes.
+ * Runs at startup on every shard; a column that is already binary, or a table that does not exist
+ * yet, is left alone. A value that is not a UUID stops startup, naming the table and column.
+ */
+@Slf4j
+public class UuidColumnMigration implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<TenantShardRouter> shardRouter;
+    private final String table;
+    private final String column;
+
+    public UuidColumnMigration(DataSource dataSource, ObjectProvider<TenantShardRouter> shardRouter,
+                               String table, String column) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.shardRouter = shardRouter;
+        this.table = table;
+        this.column = column;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        TenantShardRouter router = shardRouter.getIfAvailable();
+        if (router == null) {
+            migrate("default");
+            return;
+        }
+        for (String shard : router.getShardNames()) {
+            ShardContext.runIn(shard, () -> migrate(shard));
+        }
+    }
+
+    private void migrate(String shard) {
+        List<String> types = jdbcTemplate.queryForList("select data_type from information_schema.columns " +
+                "where table_schema = current_schema and upper(table_name) = upper(?) and upper(column_name) = upper(?)",
+                String.class, table, column);
+        if (types.isEmpty() || !types.get(0).startsWith("CHARACTER")) {
+            return;
+        }
+        log.info("Converting {}.{} on shard {} from {} to 16-byte UUIDs", table, column, shard, types.get(0));
+        try {
+            jdbcTemplate.execute("alter table " + table + " alter column " + column + " set data type uuid");
+            jdbcTemplate.execute("alter table " + table + " alter column " + column + " set data type varbinary(16)");
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Cannot convert " + table + "." + column + " on shard " + shard +
+                    " to 16-byte UUIDs; every value must be a UUID. Fix or delete the rows, or start from an empty database", e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.common.idempotency;
+
+import com.example.common.cache.TenantCacheSettings;
+import com.example.common.cache.TenantScopedCache;
+import com.example.common.metrics.TenantMetricTags;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Tenant-scoped deduplication of create requests by idempotency key.
+ *
+ * Lookups go through three tiers: an in-memory {@link TenantScopedCache} of recent results,
+ * then the caller's persistent lookup, which must be backed by a unique (tenant, key) index.
+ * Only when both miss is the create run. Concurrent requests for the same key on this node are
+ * collapsed onto a single create; a concurrent create on another node loses on the unique index
+ * and is answered with the row that won.
+ *
+ * @param <V> stored result type
+ */
+@Slf4j
+public class IdempotencyStore<V> implements MeterBinder {
+    
+    private final String name;
+    private final TenantScopedCache<String, V> recent;
+    private final ConcurrentHashMap<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    
+    /**
+     * @param name       store name, used as the {@code store} tag on metrics and as the hot-tier cache name
+     * @param settings   size and expiry limits of the in-memory tier
+     * @param tenantOf   extracts the owning tenant ID from a stored result
+     * @param tenantTags tenant tag values for the hot-tier cache's metrics
+     */
+    public IdempotencyStore(String name, TenantCacheSettings settings, Function<V, String> tenantOf,
+                            TenantMetricTags tenantTags) {
+        this.name = name;
+        this.recent = new TenantScopedCache<>(name, settings, tenantOf, tenantTags);
+    }
+    
+    /**
+     * Returns the result already stored for the key, or runs {@code create} exactly once for it.
+     *
+     * @param lookup finds a stored result for the key; must not take a write transaction
+     * @param create performs the create and stores the key with it
+     */
+    public Result<V> execute(String tenantId, String key, Supplier<Optional<V>> lookup, Supplier<V> create) {
+        Optional<V> cached = recent.get(tenantId, key, Optional::empty);
+        if (cached.isPresent()) {
+            replays.increment();
+            return new Result<>(cached.get(), true);
+        }
+        
+        String flightKey = tenantId + '\n' + key;
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(flightKey, flight);
+        if (leader != null) {
+            collapsed.increment();
+            replays.increment();
+            return new Result<>(await(leader), true);
+        }
+        
+        try {
+            Result<V> result = resolve(tenantId, key, lookup, create);
+            recent.put(tenantId, key, result.value());
+            flight.complete(result.value());
+            return result;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        recent.bindTo(registry);
+        FunctionCounter.builder("idempotency.replays", replays, LongAdder::sum)
+                .description("Requests answered with the result stored for their idempotency key")
+                .tag("store", name)
+                .register(registry);
+        FunctionCounter.builder("idempotency.collapsed", collapsed, LongAdder::sum)
+                .description("Requests that waited for a concurrent request with the same idempotency key")
+                .tag("store", name)
+                .register(registry);
+    }
+    
+    private Result<V> resolve(String tenantId, String key, Supplier<Optional<V>> lookup, Supplier<V> create) {
+        Optional<V> stored = lookup.get();
+        if (stored.isPresent()) {
+            replays.increment();
+            return new Result<>(stored.get(), true);
+        }
+        try {
+            return new Result<>(create.get(), false);
+        } catch (DataIntegrityViolationException e) {
+            // Another node inserted the same key first
+            log.debug("Idempotency key {} in tenant {} was stored concurrently: {}", key, tenantId, e.getMessage());
+            replays.increment();
+            return new Result<>(lookup.get().orElseThrow(() -> e), true);
+        }
+    }
+    
+    private static <V> V await(CompletableFuture<V> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * @param value    the stored result
+     * @param replayed true if the result was created by an earlier request with the same key
+     */
+    public record Result<V>(V value, boolean replayed) {
+    }
+}
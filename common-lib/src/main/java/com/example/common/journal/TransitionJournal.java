@@ -0,0 +1,523 @@
+package com.example.common.journal;
+
+import com.example.common.event.StatusChangeEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of status transitions, kept in memory-mapped segment files.
+ *
+ * {@link #append} encodes the entry on the caller's thread and queues it, never waiting: if the queue
+ * is full the entry is dropped and counted in {@code transition.journal.dropped}. A single writer thread
+ * takes everything queued at once, copies it into the current segment and forces the written range
+ * to disk once for the whole batch (group commit), so a burst of transitions costs one disk flush
+ * rather than one per entry. A segment that is full is left as it is and the next one is started;
+ * only the newest {@code retainedSegments} are kept.
+ *
+ * Every entry has an offset: the segment's base offset (in its file name) plus its position in the
+ * segment. An in-memory index of the offsets of each tenant's entries is rebuilt from the segments
+ * when the journal is opened, so {@link #replay}, {@link #tail} and {@link #statuses} read only that
+ * tenant's entries and never the database. Each entry carries a checksum; recovery stops at the first
+ * entry that was not completely written.
+ *
+ * The journal holds an exclusive lock on {@code <name>.lock} in its directory while it is open, so two
+ * processes started with the same directory do not write over each other's entries: the second one
+ * fails to start.
+ */
+@Slf4j
+public class TransitionJournal implements MeterBinder, AutoCloseable {
+
+    // Entry layout: payload length (int), CRC32C of the payload (int), payload
+    private static final int HEADER_BYTES = 8;
+    private static final String SUFFIX = ".journal";
+
+    private final String name;
+    private final Path directory;
+    private final int segmentSize;
+    private final int retainedSegments;
+    private final int maxBatchSize;
+    private final boolean force;
+    private final BlockingQueue<Append> queue;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Map<String, TenantIndex> index = new ConcurrentHashMap<>();
+    private final LongAdder entries = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder droppedSinceCommit = new LongAdder();
+    private final FileLock lock;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    // Writer thread only, after recovery
+    private Segment current;
+
+    /**
+     * Opens the journal in {@code settings.directory}, recovering the segments already there.
+     *
+     * @param name journal name, used in segment file names and as the {@code journal} tag on metrics
+     * @throws IllegalStateException if another process has the same journal open
+     */
+    public TransitionJournal(String name, TransitionJournalSettings settings) {
+        this.name = name;
+        this.directory = Path.of(settings.getDirectory());
+        this.segmentSize = Math.toIntExact(settings.getSegmentSize().toBytes());
+        this.retainedSegments = settings.getRetainedSegments();
+        this.maxBatchSize = Math.max(1, settings.getMaxBatchSize());
+        this.force = settings.isForce();
+        this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        this.lock = lock();
+        try {
+            recover();
+        } catch (IOException e) {
+            release();
+            throw new UncheckedIOException("Could not open transition journal " + name + " in " + directory, e);
+        } catch (RuntimeException e) {
+            release();
+            throw e;
+        }
+        this.writer = Thread.ofPlatform().name(name + "-journal-writer").daemon().start(this::run);
+    }
+
+    /**
+     * Queues the transition for the next group commit, or drops it if the queue is full.
+     *
+     * @return completes with the entry's offset once it has been written (and forced, if configured),
+     *         or with a {@link RejectedExecutionException} if the entry was dropped
+     * @throws RejectedExecutionException if the journal has been closed
+     */
+    public CompletableFuture<Long> append(StatusChangeEvent event) {
+        byte[] payload = encode(event);
+        if (HEADER_BYTES + payload.length > segmentSize) {
+            throw new IllegalArgumentException("Journal entry of " + payload.length + " bytes does not fit a segment");
+        }
+        if (closed) {
+            throw new RejectedExecutionException("Transition journal " + name + " has been closed");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        Append append = new Append(event.tenantId(), payload, (int) crc.getValue(), new CompletableFuture<>());
+        if (!queue.offer(append)) {
+            dropped.increment();
+            droppedSinceCommit.increment();
+            append.done.completeExceptionally(new RejectedExecutionException(
+                    "Transition journal " + name + " queue is full (" + queue.remainingCapacity() + " free)"));
+        }
+        return append.done;
+    }
+
+    /**
+     * Passes every retained entry of the tenant to {@code consumer}, oldest first.
+     */
+    public void replay(String tenantId, Consumer<JournalEntry> consumer) {
+        TenantIndex tenantIndex = index.get(tenantId);
+        if (tenantIndex == null) {
+            return;
+        }
+        Snapshot snapshot = tenantIndex.snapshot;
+        for (int i = 0; i < snapshot.size(); i++) {
+            JournalEntry entry = read(snapshot.offsets()[i]);
+            if (entry != null) {
+                consumer.accept(entry);
+            }
+        }
+    }
+
+    /**
+     * Up to {@code limit} of the tenant's entries after {@code afterOffset}, oldest first.
+     * Pass the offset of the last entry received to follow the journal; -1 starts at the beginning.
+     */
+    public List<JournalEntry> tail(String tenantId, long afterOffset, int limit) {
+        TenantIndex tenantIndex = index.get(tenantId);
+        if (tenantIndex == null) {
+            return List.of();
+        }
+        Snapshot snapshot = tenantIndex.snapshot;
+        List<JournalEntry> tail = new ArrayList<>(Math.min(limit, snapshot.size()));
+        for (int i = firstAfter(snapshot, afterOffset); i < snapshot.size() && tail.size() < limit; i++) {
+            JournalEntry entry = read(snapshot.offsets()[i]);
+            if (entry != null) {
+                tail.add(entry);
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * The latest journaled status of each of the tenant's entities, by entity ID. Entities whose
+     * last transition is older than the retained segments are missing.
+     */
+    public Map<String, String> statuses(String tenantId) {
+        Map<String, String> statuses = new LinkedHashMap<>();
+        replay(tenantId, entry -> statuses.put(entry.event().entityId(), entry.event().toStatus()));
+        return statuses;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("transition.journal.entries", entries, LongAdder::sum)
+                .description("Entries written")
+                .tag("journal", name)
+                .register(registry);
+        FunctionCounter.builder("transition.journal.commits", commits, LongAdder::sum)
+                .description("Group commits; entries per commit is entries divided by commits")
+                .tag("journal", name)
+                .register(registry);
+        FunctionCounter.builder("transition.journal.dropped", dropped, LongAdder::sum)
+                .description("Entries not journaled because the writer's queue was full")
+                .tag("journal", name)
+                .register(registry);
+        Gauge.builder("transition.journal.queued", queue, BlockingQueue::size)
+                .description("Entries waiting for the writer")
+                .tag("journal", name)
+                .register(registry);
+        Gauge.builder("transition.journal.segments", segments, Map::size)
+                .description("Segment files on disk")
+                .tag("journal", name)
+                .register(registry);
+    }
+
+    /**
+     * Writes what is still queued and stops the writer.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        for (Append append : queue) {
+            append.done.completeExceptionally(new RejectedExecutionException("Transition journal " + name + " has been closed"));
+        }
+        release();
+    }
+
+    private FileLock lock() {
+        FileLock acquired = null;
+        try {
+            Files.createDirectories(directory);
+            FileChannel channel = FileChannel.open(directory.resolve(name + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                acquired = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // Held by another journal of the same name in this JVM
+            }
+            if (acquired == null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not lock transition journal " + name + " in " + directory, e);
+        }
+        if (acquired == null) {
+            throw new IllegalStateException("Transition journal " + name + " in " + directory.toAbsolutePath() +
+                    " is in use by another process; give each node its own journal.directory");
+        }
+        return acquired;
+    }
+
+    // Closing the channel releases the lock
+    private void release() {
+        try {
+            lock.channel().close();
+        } catch (IOException e) {
+            log.warn("Could not release the lock of transition journal {}: {}", name, e.getMessage());
+        }
+    }
+
+    private void run() {
+        List<Append> batch = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Append first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("Transition journal {} failed to write {} entries: {}", name, batch.size(), e.getMessage(), e);
+                batch.forEach(append -> append.done.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Append> batch) throws IOException {
+        long[] offsets = new long[batch.size()];
+        int flushFrom = current.position;
+        for (int i = 0; i < batch.size(); i++) {
+            Append append = batch.get(i);
+            int size = HEADER_BYTES + append.payload.length;
+            if (current.position + size > current.capacity()) {
+                flush(current, flushFrom);
+                roll();
+                flushFrom = 0;
+            }
+            int position = current.position;
+            current.buffer.putInt(position + 4, append.crc);
+            current.buffer.put(position + HEADER_BYTES, append.payload);
+            current.buffer.putInt(position, append.payload.length);
+            current.position += size;
+            offsets[i] = current.base + position;
+        }
+        flush(current, flushFrom);
+
+        // Only durable entries are indexed, so readers never see an entry that could still be lost
+        for (int i = 0; i < batch.size(); i++) {
+            Append append = batch.get(i);
+            index.computeIfAbsent(append.tenantId, tenantId -> new TenantIndex()).add(offsets[i]);
+            append.done.complete(offsets[i]);
+        }
+        entries.add(batch.size());
+        commits.increment();
+        long droppedEntries = droppedSinceCommit.sumThenReset();
+        if (droppedEntries > 0) {
+            log.warn("Transition journal {} dropped {} entries because its queue was full", name, droppedEntries);
+        }
+    }
+
+    private void flush(Segment segment, int from) {
+        if (force && segment.position > from) {
+            segment.buffer.force(from, segment.position - from);
+        }
+    }
+
+    private void roll() throws IOException {
+        Segment next = Segment.open(segmentPath(current.base + current.capacity()), current.base + current.capacity(), segmentSize);
+        segments.put(next.base, next);
+        current = next;
+        log.debug("Transition journal {} started segment {}", name, next.path.getFileName());
+
+        while (retainedSegments > 0 && segments.size() > retainedSegments) {
+            Segment oldest = segments.pollFirstEntry().getValue();
+            oldest.channel.close();
+            Files.deleteIfExists(oldest.path);
+            long firstOffset = segments.firstKey();
+            index.values().forEach(tenantIndex -> tenantIndex.trimBefore(firstOffset));
+            index.values().removeIf(tenantIndex -> tenantIndex.snapshot.size() == 0);
+            log.debug("Transition journal {} deleted segment {}", name, oldest.path.getFileName());
+        }
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(this::isSegment).sorted().toList();
+        }
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            long base = Long.parseLong(fileName.substring(name.length() + 1, fileName.length() - SUFFIX.length()));
+            Segment segment = Segment.open(file, base, Math.toIntExact(Math.max(Files.size(file), HEADER_BYTES)));
+            segments.put(base, segment);
+            scan(segment);
+        }
+        current = segments.isEmpty() ? Segment.open(segmentPath(0), 0, segmentSize) : segments.lastEntry().getValue();
+        segments.putIfAbsent(current.base, current);
+        log.info("Opened transition journal {} in {}: {} segments, {} tenants", name, directory, segments.size(), index.size());
+    }
+
+    private void scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.warn("Transition journal {} segment {} ends with an incomplete entry at {}",
+                           name, segment.path.getFileName(), position);
+                // Clear it and anything after it, so entries appended from here on are not mixed with old bytes
+                buffer.put(position, new byte[buffer.capacity() - position]);
+                break;
+            }
+            String tenantId = decode(payload).tenantId();
+            index.computeIfAbsent(tenantId, t -> new TenantIndex()).add(segment.base + position);
+            position += HEADER_BYTES + length;
+        }
+        segment.position = position;
+    }
+
+    private JournalEntry read(long offset) {
+        Map.Entry<Long, Segment> floor = segments.floorEntry(offset);
+        if (floor == null) {
+            return null;
+        }
+        Segment segment = floor.getValue();
+        int position = (int) (offset - segment.base);
+        byte[] payload = new byte[segment.buffer.getInt(position)];
+        segment.buffer.get(position + HEADER_BYTES, payload);
+        return new JournalEntry(offset, decode(payload));
+    }
+
+    private boolean isSegment(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.startsWith(name + "-") && fileName.endsWith(SUFFIX)
+                && fileName.length() == name.length() + 1 + 20 + SUFFIX.length();
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%s-%020d%s", name, base, SUFFIX));
+    }
+
+    private static int firstAfter(Snapshot snapshot, long offset) {
+        int index = Arrays.binarySearch(snapshot.offsets(), 0, snapshot.size(), offset);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    // Payload: epoch millis (long), then tenant, entity type, entity ID, from and to status,
+    // each as a UTF-8 length (short, -1 for null) and bytes
+    private static byte[] encode(StatusChangeEvent event) {
+        byte[][] strings = {
+                bytes(event.tenantId()), bytes(event.entityType()), bytes(event.entityId()),
+                bytes(event.fromStatus()), bytes(event.toStatus())
+        };
+        int size = Long.BYTES;
+        for (byte[] string : strings) {
+            size += Short.BYTES + (string == null ? 0 : string.length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).putLong(event.occurredAt().toEpochMilli());
+        for (byte[] string : strings) {
+            if (string == null) {
+                buffer.putShort((short) -1);
+            } else {
+                buffer.putShort((short) string.length).put(string);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static StatusChangeEvent decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        Instant occurredAt = Instant.ofEpochMilli(buffer.getLong());
+        return new StatusChangeEvent(string(buffer), string(buffer), string(buffer), string(buffer), string(buffer), occurredAt);
+    }
+
+    private static byte[] bytes(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal entry field longer than " + Short.MAX_VALUE + " bytes");
+        }
+        return bytes;
+    }
+
+    private static String string(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * @param offset position of the entry in the journal; later entries have higher offsets
+     * @param event  the journaled transition
+     */
+    public record JournalEntry(long offset, StatusChangeEvent event) {
+    }
+
+    private record Append(String tenantId, byte[] payload, int crc, CompletableFuture<Long> done) {
+    }
+
+    private record Snapshot(long[] offsets, int size) {
+    }
+
+    /**
+     * Offsets of one tenant's entries in ascending order. Only the writer thread changes it; readers
+     * take the current snapshot, whose array is never written below its size.
+     */
+    private static final class TenantIndex {
+
+        private volatile Snapshot snapshot = new Snapshot(new long[16], 0);
+
+        private void add(long offset) {
+            Snapshot current = snapshot;
+            long[] offsets = current.offsets();
+            if (current.size() == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[current.size()] = offset;
+            snapshot = new Snapshot(offsets, current.size() + 1);
+        }
+
+        private void trimBefore(long firstOffset) {
+            Snapshot current = snapshot;
+            int from = firstAfter(current, firstOffset - 1);
+            if (from > 0) {
+                long[] offsets = Arrays.copyOfRange(current.offsets(), from, from + Math.max(16, current.size() - from));
+                snapshot = new Snapshot(offsets, current.size() - from);
+            }
+        }
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final long base;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int position;
+
+        private Segment(Path path, long base, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.base = base;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment open(Path path, long base, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, base, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        private int capacity() {
+            return buffer.capacity();
+        }
+    }
+}
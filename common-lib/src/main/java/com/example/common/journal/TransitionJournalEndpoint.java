@@ -0,0 +1,38 @@
+package com.example.common.journal;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for reading a tenant's transitions back from the journal, without the database.
+ *
+ * <pre>
+ * GET /actuator/transitionjournal/{tenantId}          latest journaled status of each entity
+ * GET /actuator/transitionjournal/{tenantId}/{after}  next entries after an offset (-1 for the first)
+ * </pre>
+ */
+@Endpoint(id = "transitionjournal")
+public class TransitionJournalEndpoint {
+
+    private static final int TAIL_LIMIT = 1000;
+
+    private final TransitionJournal journal;
+
+    public TransitionJournalEndpoint(TransitionJournal journal) {
+        this.journal = journal;
+    }
+
+    @ReadOperation
+    public Map<String, String> statuses(@Selector String tenantId) {
+        return journal.statuses(tenantId);
+    }
+
+    @ReadOperation
+    public List<TransitionJournal.JournalEntry> tail(@Selector String tenantId, @Selector long after) {
+        return journal.tail(tenantId, after, TAIL_LIMIT);
+    }
+}
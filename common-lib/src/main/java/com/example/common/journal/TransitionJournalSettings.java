@@ -0,0 +1,47 @@
+package com.example.common.journal;
+
+import lombok.Data;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Location and limits of a {@link TransitionJournal}.
+ * Services bind this from configuration under {@code journal}.
+ */
+@Data
+public class TransitionJournalSettings {
+
+    private boolean enabled = false;
+
+    /**
+     * Directory holding the segment files; created if missing. Locked by the process that opens
+     * the journal, so each node needs its own.
+     */
+    private String directory = "data/journal";
+
+    /**
+     * Size of each memory-mapped segment file. A full segment is closed and a new one started.
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Segments kept on disk, oldest deleted first; 0 keeps all of them.
+     */
+    private int retainedSegments = 16;
+
+    /**
+     * Appends waiting for the writer thread. When the queue is full, new entries are dropped and
+     * counted in {@code transition.journal.dropped}; appending never blocks.
+     */
+    private int queueCapacity = 65_536;
+
+    /**
+     * Most entries written per group commit.
+     */
+    private int maxBatchSize = 4096;
+
+    /**
+     * Forces each group commit to disk before it is acknowledged. Without it, entries reach the
+     * disk when the operating system writes back the mapped pages, and can be lost if the host fails.
+     */
+    private boolean force = true;
+}
@@ -0,0 +1,18 @@
+package com.example.common.metrics;
+
+import lombok.Data;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Tenants for {@link TenantMetricTags}. Services bind this from configuration under {@code metrics}.
+ */
+@Data
+public class TenantMetricSettings {
+
+    /**
+     * Tenants whose metrics carry their own {@code tenant} tag; all others are reported together.
+     */
+    private Set<String> taggedTenants = new LinkedHashSet<>();
+}
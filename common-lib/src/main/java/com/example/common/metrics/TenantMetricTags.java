@@ -0,0 +1,72 @@
+package com.example.common.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cardinality guard for the {@code tenant} tag on metrics.
+ * 
+ * Only the configured tenants get their own tag value; every other tenant is reported as
+ * {@value #OVERFLOW}. Tags are not handed out to tenants as they are first seen, since the
+ * tenant header is whatever the client sent: made-up IDs would take the slots and keep them
+ * for the lifetime of the process, leaving real tenants without their own series.
+ */
+public class TenantMetricTags implements MeterBinder {
+    
+    public static final String TAG = "tenant";
+    
+    /** Tag value for tenants beyond the limit. */
+    public static final String OVERFLOW = "other";
+    
+    /** Tag value when no tenant is known, e.g. a method without a tenant parameter. */
+    public static final String NONE = "none";
+    
+    private final Set<String> tagged;
+    private final LongAdder overflowed = new LongAdder();
+    
+    public TenantMetricTags(Set<String> taggedTenants) {
+        this.tagged = Set.copyOf(taggedTenants);
+    }
+    
+    public TenantMetricTags(TenantMetricSettings settings) {
+        this(settings.getTaggedTenants());
+    }
+    
+    /**
+     * Tag value to record for the tenant: the tenant ID itself if it is configured,
+     * {@value #OVERFLOW} if not, or {@value #NONE} for a missing tenant.
+     */
+    public String tagFor(String tenantId) {
+        if (tenantId == null || tenantId.isBlank()) {
+            return NONE;
+        }
+        if (tagged.contains(tenantId)) {
+            return tenantId;
+        }
+        overflowed.increment();
+        return OVERFLOW;
+    }
+    
+    /**
+     * True if the tenant has a tag of its own. Per-tenant gauges should only be registered for
+     * these, since several tenants folded into {@value #OVERFLOW} cannot share one gauge.
+     */
+    public boolean hasOwnTag(String tenantId) {
+        return tagged.contains(tenantId);
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("metrics.tenant.tags", tagged, Set::size)
+                .description("Tenants with their own tenant tag on metrics")
+                .register(registry);
+        FunctionCounter.builder("metrics.tenant.tags.overflowed", overflowed, LongAdder::sum)
+                .description("Measurements recorded under the overflow tenant tag")
+                .register(registry);
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.common.model;
 
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -9,11 +13,17 @@ import java.time.LocalDateTime;
 /**
  * Base entity class with common fields.
  * Uses Lombok to generate getters, setters, equals, hashCode, and toString methods.
+ * 
+ * IDs come from a pooled per-entity sequence rather than an identity column,
+ * so Hibernate can assign them up front and group INSERTs into JDBC batches.
  */
 @Data
 @EqualsAndHashCode
+@MappedSuperclass
 public abstract class BaseEntity {
     
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     protected Long id;
     
     @NotNull
@@ -24,4 +34,4 @@ public abstract class BaseEntity {
     public BaseEntity() {
         this.createdAt = LocalDateTime.now();
     }
-}
\ No newline at end of file
+}
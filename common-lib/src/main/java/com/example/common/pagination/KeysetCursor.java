@@ -0,0 +1,45 @@
+package com.example.common.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a tenant's rows ordered by {@code (createdAt, id)}, where {@code id} is the row's
+ * public UUID (a payment or request ID). The numeric primary key is not used: it is local to a
+ * shard, and a tenant's rows are renumbered when the tenant moves to another shard.
+ * 
+ * Encoded as an opaque URL-safe token so clients pass it back unchanged. The next page starts
+ * strictly after this position, which stays correct while rows are inserted concurrently
+ * and costs an index seek rather than an OFFSET scan.
+ */
+public record KeysetCursor(LocalDateTime createdAt, String id) {
+    
+    private static final char SEPARATOR = '|';
+    
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            String id = raw.substring(separator + 1);
+            // Rejects cursors issued before they carried the public ID
+            UUID.fromString(id);
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)), id);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
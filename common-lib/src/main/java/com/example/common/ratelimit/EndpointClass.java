@@ -0,0 +1,17 @@
+package com.example.common.ratelimit;
+
+/**
+ * Kinds of endpoints that get separate rate limits, so heavy writes or processing cannot
+ * use up a tenant's allowance for reads.
+ */
+public enum EndpointClass {
+    
+    /** Lookups, pages and streams (GET). */
+    READ,
+    
+    /** Creates and updates. */
+    WRITE,
+    
+    /** Starting payment processing. */
+    PROCESS
+}
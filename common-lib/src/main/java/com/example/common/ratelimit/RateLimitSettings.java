@@ -0,0 +1,65 @@
+package com.example.common.ratelimit;
+
+import lombok.Data;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-tenant rate limits for a {@link TenantRateLimiter}.
+ * Services bind this from configuration, e.g. under {@code rate-limit}.
+ */
+@Data
+public class RateLimitSettings {
+    
+    private boolean enabled = true;
+    
+    /**
+     * Number of independent stripes per bucket; 0 means one per available processor.
+     * More stripes mean less contention between request threads of the same tenant.
+     */
+    private int stripes = 0;
+    
+    /**
+     * Number of tenants above which idle (fully refilled) buckets are dropped.
+     */
+    private int maxTenants = 10_000;
+    
+    /**
+     * Limits for every tenant, by endpoint class.
+     */
+    private Map<EndpointClass, Limit> defaults = new EnumMap<>(EndpointClass.class);
+    
+    /**
+     * Per-tenant overrides, keyed by tenant ID, then endpoint class.
+     */
+    private Map<String, Map<EndpointClass, Limit>> tenants = new HashMap<>();
+    
+    public Limit limitFor(String tenantId, EndpointClass endpointClass) {
+        Map<EndpointClass, Limit> overrides = tenants.get(tenantId);
+        if (overrides != null && overrides.containsKey(endpointClass)) {
+            return overrides.get(endpointClass);
+        }
+        return defaults.get(endpointClass);
+    }
+    
+    public int effectiveStripes() {
+        return stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+    }
+    
+    @Data
+    public static class Limit {
+        
+        /**
+         * Sustained requests per second; 0 or less means unlimited.
+         */
+        private double permitsPerSecond;
+        
+        /**
+         * Requests that may be served at once after an idle period. Over any interval t at most
+         * {@code permitsPerSecond * t + burst} requests are admitted.
+         */
+        private int burst = 1;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.common.ratelimit;
+
+import com.example.common.annotation.RateLimited;
+import com.example.common.resolver.TenantIdArgumentResolver;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects requests over the tenant's rate limit with 429 and a Retry-After header before the
+ * handler runs, so throttled requests never reach the service layer or take a database connection.
+ * 
+ * The tenant comes from the same header {@link TenantIdArgumentResolver} reads; requests without
+ * one are passed through and rejected by the resolver as before.
+ */
+@Slf4j
+public class TenantRateLimitInterceptor implements HandlerInterceptor {
+    
+    private final TenantRateLimiter rateLimiter;
+    
+    public TenantRateLimitInterceptor(TenantRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        String tenantId = request.getHeader(TenantIdArgumentResolver.TENANT_HEADER_NAME);
+        if (tenantId == null || tenantId.isBlank()) {
+            return true;
+        }
+        
+        EndpointClass endpointClass = classify(request, handlerMethod);
+        long waitNanos = rateLimiter.tryAcquire(tenantId.trim(), endpointClass);
+        if (waitNanos == 0) {
+            return true;
+        }
+        
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+        log.debug("Rate limited {} request for tenant {} on {}", endpointClass, tenantId, request.getRequestURI());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return false;
+    }
+    
+    private static EndpointClass classify(HttpServletRequest request, HandlerMethod handlerMethod) {
+        RateLimited rateLimited = handlerMethod.getMethodAnnotation(RateLimited.class);
+        if (rateLimited != null) {
+            return rateLimited.value();
+        }
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) ? EndpointClass.READ : EndpointClass.WRITE;
+    }
+}
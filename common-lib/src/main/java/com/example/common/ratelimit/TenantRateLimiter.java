@@ -0,0 +1,125 @@
+package com.example.common.ratelimit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-tenant admission control with one {@link StripedTokenBucket} per tenant and endpoint class.
+ * 
+ * The request path takes no locks and allocates nothing once a tenant's buckets exist: a map
+ * lookup and, normally, a single CAS. Buckets of tenants that have been idle long enough to be
+ * full again are dropped when the number of tenants exceeds {@code maxTenants}; a dropped bucket
+ * is recreated full, so dropping it changes no decision.
+ */
+@Slf4j
+public class TenantRateLimiter implements MeterBinder {
+    
+    private static final EndpointClass[] ENDPOINT_CLASSES = EndpointClass.values();
+    
+    private final RateLimitSettings settings;
+    private final Map<String, StripedTokenBucket[]> tenants = new ConcurrentHashMap<>();
+    private final LongAdder[] admitted = newCounters();
+    private final LongAdder[] rejected = newCounters();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    
+    public TenantRateLimiter(RateLimitSettings settings) {
+        this.settings = settings;
+    }
+    
+    /**
+     * Takes a permit for one request.
+     * 
+     * @return 0 if the request is admitted, otherwise the nanoseconds until a retry may succeed
+     */
+    public long tryAcquire(String tenantId, EndpointClass endpointClass) {
+        if (!settings.isEnabled()) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        StripedTokenBucket[] buckets = tenants.get(tenantId);
+        if (buckets == null) {
+            buckets = tenants.computeIfAbsent(tenantId, key -> newBuckets(key, now));
+            if (tenants.size() > settings.getMaxTenants()) {
+                sweepIdleTenants(now);
+            }
+        }
+        
+        StripedTokenBucket bucket = buckets[endpointClass.ordinal()];
+        long wait = bucket == null ? 0 : bucket.tryAcquire(now);
+        (wait == 0 ? admitted : rejected)[endpointClass.ordinal()].increment();
+        return wait;
+    }
+    
+    public int getTenantCount() {
+        return tenants.size();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (EndpointClass endpointClass : ENDPOINT_CLASSES) {
+            String tag = endpointClass.name().toLowerCase();
+            FunctionCounter.builder("rate.limit.requests", admitted[endpointClass.ordinal()], LongAdder::sum)
+                    .description("Requests checked against tenant rate limits")
+                    .tags("class", tag, "result", "admitted")
+                    .register(registry);
+            FunctionCounter.builder("rate.limit.requests", rejected[endpointClass.ordinal()], LongAdder::sum)
+                    .description("Requests checked against tenant rate limits")
+                    .tags("class", tag, "result", "rejected")
+                    .register(registry);
+        }
+        Gauge.builder("rate.limit.tenants", tenants, Map::size)
+                .description("Tenants with rate limit buckets")
+                .register(registry);
+    }
+    
+    private StripedTokenBucket[] newBuckets(String tenantId, long now) {
+        StripedTokenBucket[] buckets = new StripedTokenBucket[ENDPOINT_CLASSES.length];
+        for (EndpointClass endpointClass : ENDPOINT_CLASSES) {
+            RateLimitSettings.Limit limit = settings.limitFor(tenantId, endpointClass);
+            if (limit != null && limit.getPermitsPerSecond() > 0) {
+                buckets[endpointClass.ordinal()] = new StripedTokenBucket(
+                        limit.getPermitsPerSecond(), Math.max(1, limit.getBurst()), settings.effectiveStripes(), now);
+            }
+        }
+        return buckets;
+    }
+    
+    private void sweepIdleTenants(long now) {
+        // One sweeping thread at a time; others carry on without waiting
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int before = tenants.size();
+            tenants.entrySet().removeIf(entry -> isIdle(entry.getValue(), now));
+            log.debug("Dropped rate limit buckets of {} idle tenants", before - tenants.size());
+        } finally {
+            sweeping.set(false);
+        }
+    }
+    
+    private static boolean isIdle(StripedTokenBucket[] buckets, long now) {
+        for (StripedTokenBucket bucket : buckets) {
+            if (bucket != null && !bucket.isIdle(now)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[ENDPOINT_CLASSES.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.common.resilience;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Thresholds for a {@link TenantCircuitBreaker}.
+ * Services bind this from configuration, e.g. under {@code processing.circuit-breaker}.
+ */
+@Data
+public class CircuitBreakerSettings {
+    
+    private boolean enabled = true;
+    
+    /**
+     * Failure rate (0.0 - 1.0) over the sliding window at which a tenant's breaker opens.
+     */
+    private double failureRateThreshold = 0.5;
+    
+    /**
+     * Calls needed in the window before the failure rate is acted on.
+     */
+    private int minimumCalls = 20;
+    
+    /**
+     * Length of the sliding window over which calls are counted.
+     */
+    private Duration window = Duration.ofSeconds(10);
+    
+    /**
+     * Buckets the window is split into; the window slides one bucket at a time.
+     */
+    private int windowBuckets = 10;
+    
+    /**
+     * How long an open breaker sheds calls before letting trial calls through.
+     */
+    private Duration openDuration = Duration.ofSeconds(30);
+    
+    /**
+     * Trial calls let through while half-open; all must succeed for the breaker to close.
+     */
+    private int halfOpenCalls = 3;
+    
+    /**
+     * Number of tenants above which breakers that are closed and idle are dropped.
+     */
+    private int maxTenants = 10_000;
+}
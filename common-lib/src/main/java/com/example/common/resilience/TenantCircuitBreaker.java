@@ -0,0 +1,316 @@
+package com.example.common.resilience;
+
+import com.example.common.metrics.TenantMetricTags;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Circuit breaker per tenant, so one tenant's failing calls shed that tenant's load without
+ * affecting others.
+ * 
+ * Outcomes are counted in a sliding window of time buckets. Once the window holds at least
+ * {@code minimumCalls} calls and the failure rate reaches the threshold, the breaker opens and
+ * refuses calls for {@code openDuration}. It then lets {@code halfOpenCalls} trial calls through:
+ * if they all succeed it closes, and any failure opens it again.
+ * 
+ * Callers take a permit with {@link #tryAcquire} and report the outcome of every permitted
+ * call with {@link #onSuccess} or {@link #onFailure}. State changes are logged with the tenant,
+ * and metrics carry its tag from {@link TenantMetricTags}.
+ */
+@Slf4j
+public class TenantCircuitBreaker implements MeterBinder {
+    
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+    
+    private final String name;
+    private final CircuitBreakerSettings settings;
+    private final TenantMetricTags tenantTags;
+    private final long bucketNanos;
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+    // Keyed by tenant tag value, so bounded by the configured tenants
+    private final Map<String, TagMetrics> metricsByTag = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile MeterRegistry meterRegistry;
+    
+    /**
+     * @param name       breaker name, used as the {@code breaker} tag on metrics
+     * @param tenantTags tenant tag values for the breaker's metrics
+     */
+    public TenantCircuitBreaker(String name, CircuitBreakerSettings settings, TenantMetricTags tenantTags) {
+        this.name = name;
+        this.settings = settings;
+        this.tenantTags = tenantTags;
+        this.bucketNanos = Math.max(1, settings.getWindow().toNanos() / Math.max(1, settings.getWindowBuckets()));
+    }
+    
+    /**
+     * Takes a permit for one call. Closed breakers always grant one; open breakers never do;
+     * half-open breakers grant one while trial calls remain.
+     */
+    public boolean tryAcquire(String tenantId) {
+        if (!settings.isEnabled()) {
+            return true;
+        }
+        Breaker breaker = breakers.get(tenantId);
+        if (breaker == null) {
+            // Nothing recorded yet, so the breaker is closed; it is created with the first outcome
+            return true;
+        }
+        boolean permitted = breaker.tryAcquire(System.nanoTime());
+        if (!permitted) {
+            breaker.metrics.rejected.increment();
+        }
+        return permitted;
+    }
+    
+    /**
+     * Time until an open breaker lets trial calls through, or zero if calls may be attempted now.
+     */
+    public Duration remainingOpen(String tenantId) {
+        Breaker breaker = settings.isEnabled() ? breakers.get(tenantId) : null;
+        return breaker == null ? Duration.ZERO : breaker.remainingOpen(System.nanoTime());
+    }
+    
+    public State getState(String tenantId) {
+        Breaker breaker = breakers.get(tenantId);
+        return breaker == null ? State.CLOSED : breaker.state;
+    }
+    
+    public void onSuccess(String tenantId) {
+        if (settings.isEnabled()) {
+            breaker(tenantId).record(true, System.nanoTime());
+        }
+    }
+    
+    public void onFailure(String tenantId) {
+        if (settings.isEnabled()) {
+            breaker(tenantId).record(false, System.nanoTime());
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        metricsByTag.values().forEach(metrics -> metrics.register(registry));
+    }
+    
+    private TagMetrics metricsFor(String tenantTag) {
+        return metricsByTag.computeIfAbsent(tenantTag, tag -> {
+            TagMetrics created = new TagMetrics(tag);
+            MeterRegistry registry = meterRegistry;
+            if (registry != null) {
+                created.register(registry);
+            }
+            return created;
+        });
+    }
+    
+    private Breaker breaker(String tenantId) {
+        Breaker breaker = breakers.get(tenantId);
+        if (breaker == null) {
+            breaker = breakers.computeIfAbsent(tenantId, Breaker::new);
+            if (breakers.size() > settings.getMaxTenants()) {
+                sweepIdle(System.nanoTime());
+            }
+        }
+        return breaker;
+    }
+    
+    private void sweepIdle(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            breakers.values().removeIf(breaker -> breaker.isIdle(now));
+        } finally {
+            sweeping.set(false);
+        }
+    }
+    
+    /**
+     * Counts shared by every tenant with the same tag value.
+     */
+    private final class TagMetrics {
+        private final String tenantTag;
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder opened = new LongAdder();
+        
+        private TagMetrics(String tenantTag) {
+            this.tenantTag = tenantTag;
+        }
+        
+        private double countNotClosed() {
+            return breakers.values().stream()
+                    .filter(breaker -> breaker.metrics == this && breaker.state != State.CLOSED)
+                    .count();
+        }
+        
+        private void register(MeterRegistry registry) {
+            Gauge.builder("circuit.breaker.open", this, TagMetrics::countNotClosed)
+                    .description("Tenants whose circuit breaker is open or half-open")
+                    .tags("breaker", name, TenantMetricTags.TAG, tenantTag)
+                    .register(registry);
+            FunctionCounter.builder("circuit.breaker.rejected", rejected, LongAdder::sum)
+                    .description("Calls refused by an open circuit breaker")
+                    .tags("breaker", name, TenantMetricTags.TAG, tenantTag)
+                    .register(registry);
+            FunctionCounter.builder("circuit.breaker.opened", opened, LongAdder::sum)
+                    .description("Times a tenant's circuit breaker opened")
+                    .tags("breaker", name, TenantMetricTags.TAG, tenantTag)
+                    .register(registry);
+        }
+    }
+    
+    private final class Breaker {
+        private final String tenantId;
+        private final TagMetrics metrics;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int[] successes = new int[Math.max(1, settings.getWindowBuckets())];
+        private final int[] failures = new int[successes.length];
+        private final long[] bucketStarts = new long[successes.length];
+        private volatile State state = State.CLOSED;
+        private volatile long openUntil;
+        private long lastRecorded;
+        private int trialsLeft;
+        private int trialSuccesses;
+        
+        private Breaker(String tenantId) {
+            this.tenantId = tenantId;
+            this.metrics = metricsFor(tenantTags.tagFor(tenantId));
+        }
+        
+        private boolean tryAcquire(long now) {
+            State current = state;
+            if (current == State.CLOSED) {
+                return true;
+            }
+            lock.lock();
+            try {
+                if (state == State.OPEN) {
+                    if (now - openUntil < 0) {
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    startTrials(now);
+                    log.info("Circuit breaker {} half-open for tenant {}: letting {} trial calls through",
+                               name, tenantId, settings.getHalfOpenCalls());
+                } else if (state == State.HALF_OPEN && trialsLeft == 0 && now - openUntil >= 0) {
+                    // Trial calls that never reported an outcome must not keep the breaker half-open
+                    startTrials(now);
+                }
+                if (state == State.HALF_OPEN) {
+                    if (trialsLeft == 0) {
+                        return false;
+                    }
+                    trialsLeft--;
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        private void startTrials(long now) {
+            trialsLeft = settings.getHalfOpenCalls();
+            trialSuccesses = 0;
+            openUntil = now + settings.getOpenDuration().toNanos();
+        }
+        
+        private Duration remainingOpen(long now) {
+            if (state != State.OPEN) {
+                return Duration.ZERO;
+            }
+            long remaining = openUntil - now;
+            return remaining > 0 ? Duration.ofNanos(remaining) : Duration.ZERO;
+        }
+        
+        private void record(boolean success, long now) {
+            lock.lock();
+            try {
+                lastRecorded = now;
+                switch (state) {
+                    case HALF_OPEN -> {
+                        if (!success) {
+                            open(now);
+                        } else if (++trialSuccesses >= settings.getHalfOpenCalls()) {
+                            close();
+                        }
+                    }
+                    case OPEN -> {
+                        // Outcome of a call permitted before the breaker opened
+                    }
+                    case CLOSED -> {
+                        int bucket = bucketFor(now);
+                        if (success) {
+                            successes[bucket]++;
+                        } else {
+                            failures[bucket]++;
+                            if (shouldOpen(now)) {
+                                open(now);
+                            }
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        private boolean shouldOpen(long now) {
+            long windowStart = now - settings.getWindow().toNanos();
+            int calls = 0;
+            int failed = 0;
+            for (int i = 0; i < successes.length; i++) {
+                if (bucketStarts[i] - windowStart > 0) {
+                    calls += successes[i] + failures[i];
+                    failed += failures[i];
+                }
+            }
+            return calls >= settings.getMinimumCalls() && failed >= settings.getFailureRateThreshold() * calls;
+        }
+        
+        // Reuses the bucket for the current slice of time, clearing it if it still holds an older slice
+        private int bucketFor(long now) {
+            long slice = now / bucketNanos;
+            int bucket = (int) Math.floorMod(slice, (long) successes.length);
+            long sliceStart = slice * bucketNanos;
+            if (bucketStarts[bucket] != sliceStart) {
+                bucketStarts[bucket] = sliceStart;
+                successes[bucket] = 0;
+                failures[bucket] = 0;
+            }
+            return bucket;
+        }
+        
+        private void open(long now) {
+            state = State.OPEN;
+            openUntil = now + settings.getOpenDuration().toNanos();
+            metrics.opened.increment();
+            log.warn("Circuit breaker {} opened for tenant {} for {}", name, tenantId, settings.getOpenDuration());
+        }
+        
+        private void close() {
+            state = State.CLOSED;
+            Arrays.fill(successes, 0);
+            Arrays.fill(failures, 0);
+            log.info("Circuit breaker {} closed for tenant {}", name, tenantId);
+        }
+        
+        private boolean isIdle(long now) {
+            return state == State.CLOSED && now - lastRecorded > settings.getWindow().toNanos();
+        }
+    }
+}
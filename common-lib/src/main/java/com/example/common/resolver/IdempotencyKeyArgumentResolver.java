@@ -0,0 +1,54 @@
+package com.example.common.resolver;
+
+import com.example.common.annotation.IdempotencyKey;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Argument resolver that extracts the idempotency key from the Idempotency-Key header
+ * when a method parameter is annotated with @IdempotencyKey.
+ */
+public class IdempotencyKeyArgumentResolver implements HandlerMethodArgumentResolver {
+    
+    private static final String IDEMPOTENCY_KEY_HEADER_NAME = "Idempotency-Key";
+    
+    // Matches the idempotencyKey column length
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(IdempotencyKey.class) &&
+               parameter.getParameterType().equals(String.class);
+    }
+    
+    @Override
+    public Object resolveArgument(MethodParameter parameter,
+                                ModelAndViewContainer mavContainer,
+                                NativeWebRequest webRequest,
+                                WebDataBinderFactory binderFactory) throws Exception {
+        
+        IdempotencyKey idempotencyKeyAnnotation = parameter.getParameterAnnotation(IdempotencyKey.class);
+        String key = webRequest.getHeader(IDEMPOTENCY_KEY_HEADER_NAME);
+        
+        if (key == null || key.trim().isEmpty()) {
+            if (idempotencyKeyAnnotation.required()) {
+                throw new IllegalArgumentException(
+                    "Missing required header: " + IDEMPOTENCY_KEY_HEADER_NAME + "."
+                );
+            }
+            return null;
+        }
+        
+        String trimmedKey = key.trim();
+        if (trimmedKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                IDEMPOTENCY_KEY_HEADER_NAME + " must be at most " + MAX_KEY_LENGTH + " characters."
+            );
+        }
+        
+        return trimmedKey;
+    }
+}
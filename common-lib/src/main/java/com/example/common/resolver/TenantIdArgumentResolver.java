@@ -15,7 +15,7 @@ import org.springframework.web.method.support.ModelAndViewContainer;
  */
 public class TenantIdArgumentResolver implements HandlerMethodArgumentResolver {
     
-    private static final String TENANT_HEADER_NAME = "X-Tenant-ID";
+    public static final String TENANT_HEADER_NAME = "X-Tenant-ID";
     
     @Override
     public boolean supportsParameter(MethodParameter parameter) {
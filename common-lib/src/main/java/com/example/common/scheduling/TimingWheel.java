@@ -0,0 +1,164 @@
+package com.example.common.scheduling;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel for large numbers of delayed tasks with coarse deadlines.
+ * 
+ * One ticker thread advances a ring of {@code wheelSize} buckets every {@code tick}. Scheduling
+ * only appends to a lock-free queue, which the ticker moves into buckets on its next tick, so
+ * adding a task is O(1) and costs neither a thread nor a heap operation. A task due further out
+ * than one turn of the wheel stays in its bucket for the remaining turns. Due tasks are handed to
+ * {@code dispatcher} rather than run on the ticker, and fire up to one tick late.
+ */
+@Slf4j
+public class TimingWheel implements AutoCloseable {
+    
+    private final long tickNanos;
+    private final Deque<Timeout>[] buckets;
+    private final Executor dispatcher;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread ticker;
+    private final long startNanos;
+    private volatile boolean closed;
+    private long tick;
+    
+    @SuppressWarnings("unchecked")
+    public TimingWheel(String name, Duration tick, int wheelSize, Executor dispatcher) {
+        this.tickNanos = Math.max(1, tick.toNanos());
+        this.buckets = new Deque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.dispatcher = dispatcher;
+        this.startNanos = System.nanoTime();
+        this.ticker = Thread.ofPlatform().name(name).daemon().start(this::run);
+    }
+    
+    /**
+     * Runs the task on the dispatcher once {@code delay} has passed.
+     *
+     * @throws RejectedExecutionException if the wheel has been closed
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        if (closed) {
+            throw new RejectedExecutionException(ticker.getName() + " has been closed");
+        }
+        Timeout timeout = new Timeout(task, System.nanoTime() + Math.max(0, delay.toNanos()));
+        pending.incrementAndGet();
+        added.add(timeout);
+        return timeout;
+    }
+    
+    /**
+     * Tasks scheduled and neither run nor cancelled yet.
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+    
+    @Override
+    public void close() {
+        closed = true;
+        ticker.interrupt();
+    }
+    
+    private void run() {
+        while (!closed) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleep = deadline - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            transferAdded();
+            expire(buckets[(int) (tick % buckets.length)], deadline);
+            tick++;
+        }
+        int dropped = pending.get();
+        if (dropped > 0) {
+            log.info("{} closed with {} scheduled tasks", ticker.getName(), dropped);
+        }
+    }
+    
+    private void transferAdded() {
+        Timeout timeout;
+        while ((timeout = added.poll()) != null) {
+            if (timeout.done.get()) {
+                continue;
+            }
+            // Never place a task behind the current tick, or it would wait a whole turn
+            long dueTick = Math.max(tick, (timeout.deadline - startNanos) / tickNanos);
+            timeout.remainingRounds = (dueTick - tick) / buckets.length;
+            buckets[(int) (dueTick % buckets.length)].addLast(timeout);
+        }
+    }
+    
+    private void expire(Deque<Timeout> bucket, long deadline) {
+        Iterator<Timeout> timeouts = bucket.iterator();
+        while (timeouts.hasNext()) {
+            Timeout timeout = timeouts.next();
+            if (timeout.done.get()) {
+                timeouts.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else if (timeout.deadline <= deadline) {
+                timeouts.remove();
+                // Loses to a concurrent cancel, so a task is either cancelled or dispatched, never both
+                if (timeout.done.compareAndSet(false, true)) {
+                    pending.decrementAndGet();
+                    try {
+                        dispatcher.execute(timeout.task);
+                    } catch (RejectedExecutionException e) {
+                        log.warn("{} could not dispatch a due task: {}", ticker.getName(), e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Handle for a scheduled task.
+     */
+    public final class Timeout {
+        
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private long remainingRounds;
+        
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+        
+        /**
+         * @return false if the task has already been handed to the dispatcher
+         */
+        public boolean cancel() {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            pending.decrementAndGet();
+            return true;
+        }
+        
+        public long getRemaining(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
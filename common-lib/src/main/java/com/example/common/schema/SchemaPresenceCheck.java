@@ -0,0 +1,55 @@
+package com.example.common.schema;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Stops startup when {@code spring.jpa.hibernate.ddl-auto} is {@code none} (the fast profile) and the
+ * database does not have the service's tables, instead of failing on the first request.
+ *
+ * The typical cause is the fast profile combined with the default in-memory URL, which starts every
+ * process with an empty database. Checks the default shard only; the other shards get their tables
+ * from {@link com.example.common.shard.ShardSchemaInitializer}. Runs while singletons are created,
+ * so before any startup callback reads the tables.
+ */
+public class SchemaPresenceCheck implements InitializingBean {
+    
+    private final DataSource dataSource;
+    private final Environment environment;
+    private final List<String> tables;
+    
+    public SchemaPresenceCheck(DataSource dataSource, Environment environment, List<String> tables) {
+        this.dataSource = dataSource;
+        this.environment = environment;
+        this.tables = tables;
+    }
+    
+    @Override
+    public void afterPropertiesSet() {
+        if (!"none".equalsIgnoreCase(environment.getProperty("spring.jpa.hibernate.ddl-auto"))) {
+            return;
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Set<String> missing = new TreeSet<>();
+        for (String table : tables) {
+            Integer found = jdbcTemplate.queryForObject("select count(*) from information_schema.tables " +
+                    "where table_schema = current_schema and upper(table_name) = upper(?)", Integer.class, table);
+            if (found == null || found == 0) {
+                missing.add(table);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        String url = environment.getProperty("spring.datasource.url", "");
+        throw new IllegalStateException("Tables " + missing + " do not exist and spring.jpa.hibernate.ddl-auto is none, " +
+                "so they will not be created" + (url.startsWith("jdbc:h2:mem:") ? " (" + url + " is an empty in-memory database)" : "") +
+                ". Set spring.datasource.url to a database whose schema was created by a run without the fast profile");
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.common.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable consistent-hash ring mapping keys to shard names.
+ * 
+ * Each shard is placed on the ring at {@code virtualNodes} points; a key belongs to the first
+ * point at or after its own hash. Adding or removing a shard therefore only moves the keys
+ * between that shard's points and their predecessors, roughly {@code 1/shards} of all keys.
+ */
+final class ConsistentHashRing {
+    
+    private final long[] points;
+    private final String[] owners;
+    
+    ConsistentHashRing(Collection<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        int size = shards.size() * Math.max(1, virtualNodes);
+        long[] hashes = new long[size];
+        String[] names = new String[size];
+        int i = 0;
+        for (String shard : shards) {
+            for (int node = 0; node < Math.max(1, virtualNodes); node++) {
+                hashes[i] = hash(shard + "#" + node);
+                names[i] = shard;
+                i++;
+            }
+        }
+        
+        // Sort points by hash, carrying their owners along
+        Integer[] order = new Integer[size];
+        for (int j = 0; j < size; j++) {
+            order[j] = j;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+        this.points = new long[size];
+        this.owners = new String[size];
+        for (int j = 0; j < size; j++) {
+            points[j] = hashes[order[j]];
+            owners[j] = names[order[j]];
+        }
+    }
+    
+    String shardFor(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+    
+    // 64-bit FNV-1a over UTF-8 with a final avalanche step, stable across JVMs and restarts
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
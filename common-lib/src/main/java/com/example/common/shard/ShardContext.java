@@ -0,0 +1,72 @@
+package com.example.common.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread's database work goes to, read by {@link TenantRoutingDataSource}
+ * whenever a connection is taken.
+ * 
+ * It must be set before a transaction starts, since the connection is bound for the whole
+ * transaction; the interceptors that set it are therefore ordered ahead of the transaction advisor.
+ */
+public final class ShardContext {
+    
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+    
+    private ShardContext() {
+    }
+    
+    /**
+     * @return the current shard, or null to use the default shard
+     */
+    public static String currentShard() {
+        Scope scope = CURRENT.get();
+        return scope == null ? null : scope.shard();
+    }
+    
+    /**
+     * Runs work against a given shard, e.g. for jobs that span all tenants of each shard.
+     */
+    public static <T> T callIn(String shard, Supplier<T> action) {
+        Scope previous = enter(new Scope(null, shard));
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+    
+    public static void runIn(String shard, Runnable action) {
+        callIn(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+    
+    static Scope current() {
+        return CURRENT.get();
+    }
+    
+    /**
+     * @return the previous scope, to pass to {@link #restore}
+     */
+    static Scope enter(Scope scope) {
+        Scope previous = CURRENT.get();
+        CURRENT.set(scope);
+        return previous;
+    }
+    
+    static void restore(Scope previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+    
+    /**
+     * @param tenantId tenant admitted on this thread, or null for shard-wide work
+     */
+    record Scope(String tenantId, String shard) {
+    }
+}
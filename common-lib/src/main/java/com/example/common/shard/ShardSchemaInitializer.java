@@ -0,0 +1,59 @@
+package com.example.common.shard;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.relational.SchemaManager;
+import org.hibernate.tool.schema.spi.SchemaManagementException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+/**
+ * Creates the mapped tables on every shard other than the default one.
+ * 
+ * {@code spring.jpa.hibernate.ddl-auto} only reaches the default shard, since schema tooling
+ * runs without a tenant. Each other shard is validated against the mappings and, if that fails,
+ * has the missing tables and sequences created. Runs before the context finishes refreshing, so
+ * before scheduled jobs or requests touch a shard. Other startup work that reads every shard calls
+ * {@link #initialize()} first, since the order of startup callbacks is not defined.
+ */
+@Slf4j
+public class ShardSchemaInitializer implements SmartInitializingSingleton {
+    
+    private final EntityManagerFactory entityManagerFactory;
+    private final TenantShardRouter router;
+    private boolean initialized;
+    
+    public ShardSchemaInitializer(EntityManagerFactory entityManagerFactory, TenantShardRouter router) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.router = router;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        initialize();
+    }
+    
+    /**
+     * Creates the missing tables on every shard, once.
+     */
+    public synchronized void initialize() {
+        if (initialized) {
+            return;
+        }
+        initialized = true;
+        SchemaManager schemaManager = entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager();
+        for (String shard : router.getShardNames()) {
+            if (shard.equals(router.getDefaultShard())) {
+                continue;
+            }
+            ShardContext.runIn(shard, () -> {
+                try {
+                    schemaManager.validateMappedObjects();
+                } catch (SchemaManagementException e) {
+                    log.info("Creating schema on shard {}: {}", shard, e.getMessage());
+                    schemaManager.exportMappedObjects(true);
+                }
+            });
+        }
+    }
+}
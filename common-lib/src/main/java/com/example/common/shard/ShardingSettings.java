@@ -0,0 +1,76 @@
+package com.example.common.shard;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shards and tenant placement for a {@link TenantShardRouter}.
+ * Services bind this from configuration under {@code sharding}.
+ */
+@Data
+public class ShardingSettings {
+    
+    /**
+     * Off by default: the service then uses the single {@code spring.datasource} as before.
+     */
+    private boolean enabled = false;
+    
+    /**
+     * Shard used when no tenant is known, e.g. for schema updates at startup.
+     * It also holds the table of tenants moved by a migration.
+     */
+    private String defaultShard;
+    
+    /**
+     * Points per shard on the hash ring; more points spread tenants more evenly.
+     */
+    private int virtualNodes = 128;
+    
+    /**
+     * Shards by name, each with its own connection pool.
+     */
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+    
+    /**
+     * Fixed tenant placements, keyed by tenant ID, that bypass the hash ring.
+     */
+    private Map<String, String> overrides = new HashMap<>();
+    
+    /**
+     * How long a migration waits for a tenant's in-flight work to finish before giving up.
+     */
+    private Duration drainTimeout = Duration.ofSeconds(30);
+    
+    /**
+     * How often each node re-reads tenant placements and migrations from the default shard,
+     * and reports which migrating tenants it has no work left for.
+     */
+    private Duration assignmentRefreshInterval = Duration.ofSeconds(1);
+    
+    /**
+     * Migrations stop waiting for a node that has not reported for this long; such a node
+     * refuses all tenant work until it can read the placements again.
+     */
+    private Duration nodeTimeout = Duration.ofSeconds(10);
+    
+    /**
+     * Rows copied per flush during a migration.
+     */
+    private int migrationChunkSize = 500;
+    
+    @Data
+    public static class Shard {
+        
+        private String url;
+        
+        private String username = "sa";
+        
+        private String password = "";
+        
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.common.shard;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+/**
+ * Thrown for new work of a tenant that is being moved to another shard.
+ * The migration is short, so callers should retry.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class TenantMigrationInProgressException extends RuntimeException {
+    
+    public TenantMigrationInProgressException(String tenantId) {
+        super("Tenant " + tenantId + " is being moved to another shard");
+    }
+    
+    /**
+     * For a node that cannot tell whether the tenant is migrating, because it has not been able
+     * to read the tenant placements for {@code stale}.
+     */
+    public TenantMigrationInProgressException(String tenantId, Duration stale) {
+        super("Tenant " + tenantId + " cannot be placed: shard assignments were last read " +
+                stale.toMillis() + " ms ago");
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.common.shard;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Placements of migrated tenants, kept in a table on the default shard so they survive restarts
+ * and are shared by every node. Accessed with plain JDBC on the default shard's pool, outside any
+ * JPA transaction.
+ * 
+ * The same table carries the migrations in progress: a migrating tenant's row is flagged and
+ * given a new version. Versions come from a one-row counter that every change locks until it
+ * commits, so changes commit in version order and a node that has read version {@code v} has
+ * also read every earlier one. Each node reports, in {@code tenant_shard_node}, the highest
+ * version up to which it has no work left for a migrating tenant.
+ */
+public class TenantShardAssignmentStore {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    
+    public TenantShardAssignmentStore(DataSource defaultShard) {
+        this.jdbcTemplate = new JdbcTemplate(defaultShard);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(defaultShard));
+    }
+    
+    public void createTables() {
+        jdbcTemplate.execute("create table if not exists tenant_shard_assignment (" +
+                "tenant_id varchar(100) primary key, shard varchar(100) not null, assigned_at timestamp not null)");
+        // Added after the table was first shipped
+        jdbcTemplate.execute("alter table tenant_shard_assignment add column if not exists migrating boolean default false not null");
+        jdbcTemplate.execute("alter table tenant_shard_assignment add column if not exists version bigint default 0 not null");
+        jdbcTemplate.execute("create table if not exists tenant_shard_version (id int primary key, version bigint not null)");
+        jdbcTemplate.update("insert into tenant_shard_version (id, version) " +
+                "select 0, 0 where not exists (select 1 from tenant_shard_version)");
+        jdbcTemplate.execute("create table if not exists tenant_shard_node (" +
+                "node_id varchar(100) primary key, drained_version bigint not null, seen_at timestamp not null)");
+    }
+    
+    public Map<String, Assignment> loadAll() {
+        Map<String, Assignment> assignments = new HashMap<>();
+        jdbcTemplate.query("select tenant_id, shard, migrating, version from tenant_shard_assignment",
+                row -> {
+                    assignments.put(row.getString("tenant_id"), new Assignment(
+                            row.getString("shard"), row.getBoolean("migrating"), row.getLong("version")));
+                });
+        return assignments;
+    }
+    
+    /**
+     * Flags the tenant as migrating, unless another node already has.
+     *
+     * @param currentShard stored for a tenant without a row yet, so its placement does not change
+     *                     if the ring or the overrides do while it migrates
+     * @return the migration, or {@code null} if the tenant is already migrating
+     */
+    public Migration beginMigration(String tenantId, String currentShard) {
+        try {
+            return transactionTemplate.execute(status -> {
+                long version = nextVersion();
+                int updated = jdbcTemplate.update("update tenant_shard_assignment set migrating = true, version = ? " +
+                        "where tenant_id = ? and migrating = false", version, tenantId);
+                if (updated == 1) {
+                    return new Migration(tenantId, version, false);
+                }
+                Integer existing = jdbcTemplate.queryForObject(
+                        "select count(*) from tenant_shard_assignment where tenant_id = ?", Integer.class, tenantId);
+                if (existing != null && existing > 0) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                jdbcTemplate.update("insert into tenant_shard_assignment (tenant_id, shard, assigned_at, migrating, version) " +
+                        "values (?, ?, ?, true, ?)", tenantId, currentShard, Timestamp.from(Instant.now()), version);
+                return new Migration(tenantId, version, true);
+            });
+        } catch (DuplicateKeyException e) {
+            // Another node inserted the tenant's row first
+            return null;
+        }
+    }
+    
+    /**
+     * Points the tenant at its new shard and clears the migrating flag.
+     */
+    public void completeMigration(Migration migration, String shard) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "update tenant_shard_assignment set shard = ?, assigned_at = ?, migrating = false, version = ? " +
+                        "where tenant_id = ?", shard, Timestamp.from(Instant.now()), nextVersion(), migration.tenantId()));
+    }
+    
+    /**
+     * Clears the migrating flag, leaving the tenant where it was.
+     */
+    public void abortMigration(Migration migration) {
+        transactionTemplate.executeWithoutResult(status -> {
+            long version = nextVersion();
+            if (migration.newRow()) {
+                jdbcTemplate.update("delete from tenant_shard_assignment where tenant_id = ?", migration.tenantId());
+            } else {
+                jdbcTemplate.update("update tenant_shard_assignment set migrating = false, version = ? where tenant_id = ?",
+                        version, migration.tenantId());
+            }
+        });
+    }
+    
+    /**
+     * Records that the node has no work left for tenants migrating at or below {@code drainedVersion}.
+     * The time is the database's, so nodes with skewed clocks are judged alike.
+     */
+    public void reportNode(String nodeId, long drainedVersion) {
+        int updated = jdbcTemplate.update("update tenant_shard_node set drained_version = ?, seen_at = current_timestamp " +
+                "where node_id = ?", drainedVersion, nodeId);
+        if (updated == 0) {
+            jdbcTemplate.update("insert into tenant_shard_node (node_id, drained_version, seen_at) " +
+                    "values (?, ?, current_timestamp)", nodeId, drainedVersion);
+        }
+    }
+    
+    public void removeNode(String nodeId) {
+        jdbcTemplate.update("delete from tenant_shard_node where node_id = ?", nodeId);
+    }
+    
+    /**
+     * @return nodes that reported within {@code nodeTimeout} but have not yet drained {@code version}
+     */
+    public List<String> laggingNodes(long version, Duration nodeTimeout) {
+        Timestamp now = jdbcTemplate.queryForObject("select current_timestamp", Timestamp.class);
+        Timestamp cutoff = Timestamp.from(now.toInstant().minus(nodeTimeout));
+        return jdbcTemplate.queryForList("select node_id from tenant_shard_node where drained_version < ? and seen_at > ?",
+                String.class, version, cutoff);
+    }
+    
+    // Holds the counter's row lock until the caller's transaction commits
+    private long nextVersion() {
+        jdbcTemplate.update("update tenant_shard_version set version = version + 1 where id = 0");
+        return jdbcTemplate.queryForObject("select version from tenant_shard_version where id = 0", Long.class);
+    }
+    
+    /**
+     * @param migrating the tenant is being moved; its rows are still on {@code shard}
+     */
+    public record Assignment(String shard, boolean migrating, long version) {
+    }
+    
+    /**
+     * @param newRow the tenant had no row before, so aborting removes it
+     */
+    public record Migration(String tenantId, long version, boolean newRow) {
+    }
+}
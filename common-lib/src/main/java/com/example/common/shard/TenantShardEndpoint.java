@@ -0,0 +1,50 @@
+package com.example.common.shard;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint for inspecting tenant placement and rebalancing shards.
+ * 
+ * <pre>
+ * GET  /actuator/tenantshards             shards and migrated tenants
+ * GET  /actuator/tenantshards/{tenantId}  shard of one tenant
+ * POST /actuator/tenantshards/{tenantId}  {"targetShard": "shard-1"} moves the tenant
+ * </pre>
+ */
+@Endpoint(id = "tenantshards")
+public class TenantShardEndpoint {
+    
+    private final TenantShardRouter router;
+    private final TenantShardMigrator migrator;
+    
+    public TenantShardEndpoint(TenantShardRouter router, TenantShardMigrator migrator) {
+        this.router = router;
+        this.migrator = migrator;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> shards() {
+        return Map.of(
+                "shards", router.getShardNames(),
+                "defaultShard", router.getDefaultShard(),
+                "migratedTenants", router.getAssignments());
+    }
+    
+    @ReadOperation
+    public Map<String, Object> tenant(@Selector String tenantId) {
+        return Map.of(
+                "tenantId", tenantId,
+                "shard", router.shardFor(tenantId),
+                "migrating", router.isMigrating(tenantId));
+    }
+    
+    @WriteOperation
+    public TenantShardMigrator.Result migrate(@Selector String tenantId, String targetShard) throws InterruptedException {
+        return migrator.migrate(tenantId, targetShard);
+    }
+}
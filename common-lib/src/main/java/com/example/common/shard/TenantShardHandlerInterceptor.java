@@ -0,0 +1,67 @@
+package com.example.common.shard;
+
+import com.example.common.resolver.TenantIdArgumentResolver;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Routes a request's database work to the shard of the tenant in the header
+ * {@link TenantIdArgumentResolver} reads, and admits the request through the router, so it is
+ * refused with 503 while the tenant migrates and counted as in flight until it completes.
+ * 
+ * This covers service methods that take the tenant inside an entity rather than as a
+ * {@code tenantId} argument, e.g. payment creation.
+ */
+public class TenantShardHandlerInterceptor implements AsyncHandlerInterceptor {
+    
+    // Set once per request, since preHandle runs again on each async dispatch but afterCompletion only once
+    private static final String ADMITTED_TENANT = TenantShardHandlerInterceptor.class.getName() + ".tenant";
+    
+    private final TenantShardRouter router;
+    
+    public TenantShardHandlerInterceptor(TenantShardRouter router) {
+        this.router = router;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        String tenantId = (String) request.getAttribute(ADMITTED_TENANT);
+        if (tenantId == null) {
+            String header = request.getHeader(TenantIdArgumentResolver.TENANT_HEADER_NAME);
+            if (header == null || header.isBlank()) {
+                return true;
+            }
+            tenantId = header.trim();
+            try {
+                router.admit(tenantId);
+            } catch (TenantMigrationInProgressException e) {
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                return false;
+            }
+            request.setAttribute(ADMITTED_TENANT, tenantId);
+        }
+        ShardContext.enter(new ShardContext.Scope(tenantId, router.shardFor(tenantId)));
+        return true;
+    }
+    
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ShardContext.restore(null);
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ShardContext.restore(null);
+        String tenantId = (String) request.getAttribute(ADMITTED_TENANT);
+        if (tenantId != null) {
+            request.removeAttribute(ADMITTED_TENANT);
+            router.exit(tenantId);
+        }
+    }
+}
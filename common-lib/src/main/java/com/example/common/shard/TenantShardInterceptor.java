@@ -0,0 +1,111 @@
+package com.example.common.shard;
+
+import com.example.common.util.TenantParameters;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.aop.support.StaticMethodMatcher;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes a bean's methods to the shard of their {@code tenantId} argument; methods without one
+ * keep whatever shard is already set, e.g. by {@link TenantShardHandlerInterceptor}.
+ * 
+ * On entry points (services called from controllers and processing jobs) the call is also
+ * admitted through {@link TenantShardRouter#admit}, so it is refused while the tenant migrates and
+ * counted as in flight until it returns, or until the stage it returns completes. Calls made
+ * while the same tenant is already admitted on the thread are counted but never refused.
+ * Internal components reached from admitted work, such as state machine transitions completing
+ * an asynchronous job, only route.
+ */
+public class TenantShardInterceptor implements MethodInterceptor {
+    
+    private final ObjectProvider<TenantShardRouter> routerProvider;
+    private final boolean entryPoint;
+    private final Map<Method, Integer> tenantIndexes = new ConcurrentHashMap<>();
+    private volatile TenantShardRouter router;
+    
+    public TenantShardInterceptor(ObjectProvider<TenantShardRouter> routerProvider, boolean entryPoint) {
+        this.routerProvider = routerProvider;
+        this.entryPoint = entryPoint;
+    }
+    
+    /**
+     * Advisor applying a new interceptor to every bean assignable to {@code type}. It is ordered
+     * after the metrics advisor but ahead of the transaction advisor, since the shard has to be
+     * known before the transaction takes its connection.
+     */
+    public static Advisor advisor(Class<?> type, ObjectProvider<TenantShardRouter> router, boolean entryPoint) {
+        ComposablePointcut pointcut = new ComposablePointcut(new RootClassFilter(type), new StaticMethodMatcher() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return method.getDeclaringClass() != Object.class;
+            }
+        });
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut,
+                new TenantShardInterceptor(router, entryPoint));
+        advisor.setOrder(1);
+        return advisor;
+    }
+    
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Integer tenantIndex = tenantIndexes.get(invocation.getMethod());
+        if (tenantIndex == null) {
+            tenantIndex = tenantIndexes.computeIfAbsent(invocation.getMethod(), TenantParameters::indexOf);
+        }
+        String tenantId = tenantIndex < 0 ? null : (String) invocation.getArguments()[tenantIndex];
+        if (tenantId == null) {
+            return invocation.proceed();
+        }
+        
+        TenantShardRouter router = router();
+        ShardContext.Scope previous = ShardContext.current();
+        if (!entryPoint) {
+            ShardContext.enter(new ShardContext.Scope(tenantId, router.shardFor(tenantId)));
+            try {
+                return invocation.proceed();
+            } finally {
+                ShardContext.restore(previous);
+            }
+        }
+        
+        if (previous != null && tenantId.equals(previous.tenantId())) {
+            router.enter(tenantId);
+        } else {
+            router.admit(tenantId);
+        }
+        boolean async = false;
+        ShardContext.enter(new ShardContext.Scope(tenantId, router.shardFor(tenantId)));
+        try {
+            Object result = invocation.proceed();
+            if (result instanceof CompletionStage<?> stage) {
+                async = true;
+                stage.whenComplete((value, error) -> router.exit(tenantId));
+            }
+            return result;
+        } finally {
+            ShardContext.restore(previous);
+            if (!async) {
+                router.exit(tenantId);
+            }
+        }
+    }
+    
+    private TenantShardRouter router() {
+        TenantShardRouter resolved = router;
+        if (resolved == null) {
+            resolved = routerProvider.getObject();
+            router = resolved;
+        }
+        return resolved;
+    }
+}
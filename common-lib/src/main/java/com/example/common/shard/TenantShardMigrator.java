@@ -0,0 +1,169 @@
+package com.example.common.shard;
+
+import com.example.common.model.BaseEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Moves a tenant's rows from its current shard to another one.
+ * 
+ * The tenant is first drained: new work is refused and admitted work allowed to finish, on every
+ * node sharing the assignment table (see {@link TenantShardRouter}). Its rows
+ * of each tenant-owned entity are then copied in ID order, flushed in chunks as JDBC batches, in one
+ * transaction on the target shard. Only after that commits is the tenant pointed at the target,
+ * and only then are the old rows deleted, so a failure at any step leaves the tenant readable on
+ * exactly one shard. Copies get new primary keys from the target shard's sequences, since each
+ * shard numbers its rows on its own. Nothing outside a shard refers to those keys: rows are found by
+ * their public IDs, and page cursors hold the public ID rather than the key (see
+ * {@link com.example.common.pagination.KeysetCursor}), so cursors survive the move.
+ */
+@Slf4j
+public class TenantShardMigrator {
+    
+    private final TenantShardRouter router;
+    private final EntityManagerFactory entityManagerFactory;
+    private final List<Class<? extends BaseEntity>> tenantEntities;
+    private final int chunkSize;
+    private final Consumer<String> afterMigration;
+    
+    /**
+     * @param tenantEntities entities with a {@code tenantId} attribute whose rows move with the tenant
+     * @param afterMigration called with the tenant ID once it has moved, e.g. to drop cached entities
+     */
+    public TenantShardMigrator(TenantShardRouter router,
+                               EntityManagerFactory entityManagerFactory,
+                               List<Class<? extends BaseEntity>> tenantEntities,
+                               int chunkSize,
+                               Consumer<String> afterMigration) {
+        this.router = router;
+        this.entityManagerFactory = entityManagerFactory;
+        this.tenantEntities = tenantEntities;
+        this.chunkSize = chunkSize;
+        this.afterMigration = afterMigration;
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the target shard is unknown
+     * @throws IllegalStateException if the tenant is already migrating or does not drain in time
+     */
+    public Result migrate(String tenantId, String targetShard) throws InterruptedException {
+        router.requireShard(targetShard);
+        String sourceShard = router.shardFor(tenantId);
+        if (sourceShard.equals(targetShard)) {
+            return new Result(tenantId, sourceShard, targetShard, Map.of());
+        }
+        
+        long startNanos = System.nanoTime();
+        TenantShardAssignmentStore.Migration migration = router.beginMigration(tenantId);
+        boolean assigned = false;
+        EntityManager source = null;
+        EntityManager target = null;
+        try {
+            source = open(sourceShard);
+            target = open(targetShard);
+            
+            Map<String, Long> copied = new LinkedHashMap<>();
+            try {
+                for (Class<? extends BaseEntity> type : tenantEntities) {
+                    copied.put(entityName(type), copy(type, tenantId, source, target));
+                }
+                target.getTransaction().commit();
+            } catch (RuntimeException e) {
+                rollback(target);
+                rollback(source);
+                throw e;
+            }
+            
+            router.assign(migration, targetShard);
+            assigned = true;
+            afterMigration.accept(tenantId);
+            
+            // The tenant now reads from the target shard; the old rows are only clean-up
+            try {
+                for (Class<? extends BaseEntity> type : tenantEntities) {
+                    source.createQuery("delete from " + entityName(type) + " e where e.tenantId = :tenantId")
+                            .setParameter("tenantId", tenantId)
+                            .executeUpdate();
+                }
+                source.getTransaction().commit();
+            } catch (RuntimeException e) {
+                rollback(source);
+                log.error("Tenant {} moved to shard {}, but its old rows on shard {} could not be deleted: {}",
+                            tenantId, targetShard, sourceShard, e.getMessage());
+            }
+            
+            log.info("Migrated tenant {} from shard {} to shard {} in {} ms: {}", tenantId, sourceShard, targetShard,
+                       (System.nanoTime() - startNanos) / 1_000_000, copied);
+            return new Result(tenantId, sourceShard, targetShard, copied);
+        } finally {
+            close(source);
+            close(target);
+            router.endMigration(migration, assigned);
+        }
+    }
+    
+    private long copy(Class<? extends BaseEntity> type, String tenantId, EntityManager source, EntityManager target) {
+        String query = "select e from " + entityName(type) + " e where e.tenantId = :tenantId and e.id > :after order by e.id";
+        long copied = 0;
+        long after = Long.MIN_VALUE;
+        while (true) {
+            List<? extends BaseEntity> chunk = source.createQuery(query, type)
+                    .setParameter("tenantId", tenantId)
+                    .setParameter("after", after)
+                    .setMaxResults(chunkSize)
+                    .getResultList();
+            if (chunk.isEmpty()) {
+                return copied;
+            }
+            after = chunk.get(chunk.size() - 1).getId();
+            source.clear();
+            
+            for (BaseEntity entity : chunk) {
+                entity.setId(null);
+                target.persist(entity);
+            }
+            target.flush();
+            target.clear();
+            copied += chunk.size();
+        }
+    }
+    
+    // The connection is taken when the transaction begins, so the shard only needs to be set for that
+    private EntityManager open(String shard) {
+        return ShardContext.callIn(shard, () -> {
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+            entityManager.getTransaction().begin();
+            return entityManager;
+        });
+    }
+    
+    private String entityName(Class<? extends BaseEntity> type) {
+        return entityManagerFactory.getMetamodel().entity(type).getName();
+    }
+    
+    private static void rollback(EntityManager entityManager) {
+        EntityTransaction transaction = entityManager.getTransaction();
+        if (transaction.isActive()) {
+            transaction.rollback();
+        }
+    }
+    
+    private static void close(EntityManager entityManager) {
+        if (entityManager != null && entityManager.isOpen()) {
+            entityManager.close();
+        }
+    }
+    
+    /**
+     * @param copied rows copied per entity name
+     */
+    public record Result(String tenantId, String sourceShard, String targetShard, Map<String, Long> copied) {
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.common.shard;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Decides which shard holds a tenant's data and keeps track of tenants being migrated.
+ * 
+ * A tenant's shard is, in order of precedence: the shard it was last migrated to, its entry in
+ * {@code sharding.overrides}, or its position on the consistent-hash ring.
+ * 
+ * While a tenant is migrating, new work for it is refused. Work already admitted is counted
+ * until it finishes (for asynchronous work, until its stage completes), so a migration can wait
+ * for the tenant to go quiet before copying its rows.
+ * 
+ * Placements and migrations are shared with the other nodes through the assignment table, which
+ * every node re-reads each {@code sharding.assignment-refresh-interval}. On each read the node
+ * reports how far it has drained the tenants that are migrating, and a migration waits until every
+ * live node has drained it. A node that cannot read the table for {@code sharding.node-timeout}
+ * refuses all work, since migrations no longer wait for it.
+ */
+@Slf4j
+public class TenantShardRouter implements AutoCloseable {
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ShardingSettings settings;
+    private final ConsistentHashRing ring;
+    private final TenantShardAssignmentStore assignmentStore;
+    private final Map<String, String> assignments = new ConcurrentHashMap<>();
+    private final Set<String> migrating = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Integer> shardWork = new ConcurrentHashMap<>();
+    private final Thread refresher;
+    private volatile Set<String> migratingElsewhere = Set.of();
+    private volatile long refreshedAt;
+    
+    public TenantShardRouter(ShardingSettings settings, TenantShardAssignmentStore assignmentStore) {
+        if (!settings.getShards().containsKey(settings.getDefaultShard())) {
+            throw new IllegalArgumentException("Default shard " + settings.getDefaultShard() + " is not configured");
+        }
+        settings.getOverrides().forEach((tenantId, shard) -> requireShard(shard));
+        this.settings = settings;
+        this.ring = new ConsistentHashRing(settings.getShards().keySet(), settings.getVirtualNodes());
+        this.assignmentStore = assignmentStore;
+        assignmentStore.createTables();
+        refresh();
+        assignments.forEach((tenantId, shard) -> {
+            if (!settings.getShards().containsKey(shard)) {
+                log.error("Tenant {} was migrated to shard {}, which is no longer configured", tenantId, shard);
+            }
+        });
+        log.info("Routing tenants over shards {} ({} migrated tenants)", settings.getShards().keySet(), assignments.size());
+        this.refresher = Thread.ofPlatform().name("tenant-shard-refresh").daemon().start(this::refreshLoop);
+    }
+    
+    public String shardFor(String tenantId) {
+        String assigned = assignments.get(tenantId);
+        if (assigned != null) {
+            return assigned;
+        }
+        String override = settings.getOverrides().get(tenantId);
+        return override != null ? override : ring.shardFor(tenantId);
+    }
+    
+    public Set<String> getShardNames() {
+        return Collections.unmodifiableSet(settings.getShards().keySet());
+    }
+    
+    public String getDefaultShard() {
+        return settings.getDefaultShard();
+    }
+    
+    public Map<String, String> getAssignments() {
+        return Collections.unmodifiableMap(assignments);
+    }
+    
+    public boolean isMigrating(String tenantId) {
+        return (!migrating.isEmpty() && migrating.contains(tenantId)) || migratingElsewhere.contains(tenantId);
+    }
+    
+    /**
+     * Runs work that covers every tenant on a shard, such as claiming due rows, with the shard
+     * selected. The work is given the tenants it must leave alone because they are migrating,
+     * and a migration waits for shard-wide work that was already running to finish.
+     */
+    public void runInShard(String shard, Consumer<Set<String>> work) {
+        shardWork.merge(shard, 1, Integer::sum);
+        try {
+            if (isStale()) {
+                throw new IllegalStateException("Tenant placements were last read " + staleFor().toMillis() +
+                        " ms ago; not running work on shard " + shard);
+            }
+            Set<String> excluded = new HashSet<>(migrating);
+            excluded.addAll(migratingElsewhere);
+            ShardContext.runIn(shard, () -> work.accept(excluded));
+        } finally {
+            shardWork.computeIfPresent(shard, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+    
+    /**
+     * Records the start of work for a tenant, then checks that the tenant is not migrating.
+     * Counting first means a migration that has already checked for in-flight work cannot miss it.
+     *
+     * @throws TenantMigrationInProgressException if the tenant is migrating, or if this node has
+     *                                            not been able to read the assignment table lately
+     */
+    void admit(String tenantId) {
+        enter(tenantId);
+        if (isMigrating(tenantId)) {
+            exit(tenantId);
+            throw new TenantMigrationInProgressException(tenantId);
+        }
+        if (isStale()) {
+            exit(tenantId);
+            throw new TenantMigrationInProgressException(tenantId, staleFor());
+        }
+    }
+    
+    void enter(String tenantId) {
+        inFlight.merge(tenantId, 1, Integer::sum);
+    }
+    
+    void exit(String tenantId) {
+        inFlight.computeIfPresent(tenantId, (key, count) -> count == 1 ? null : count - 1);
+    }
+    
+    /**
+     * Refuses new work for the tenant on every node and waits for admitted work to finish on all
+     * of them.
+     *
+     * @throws IllegalStateException if the tenant is already migrating or does not go quiet in time
+     */
+    TenantShardAssignmentStore.Migration beginMigration(String tenantId) throws InterruptedException {
+        if (!migrating.add(tenantId)) {
+            throw new IllegalStateException("Tenant " + tenantId + " is already being migrated");
+        }
+        TenantShardAssignmentStore.Migration migration;
+        try {
+            migration = assignmentStore.beginMigration(tenantId, shardFor(tenantId));
+        } catch (RuntimeException e) {
+            migrating.remove(tenantId);
+            throw e;
+        }
+        if (migration == null) {
+            migrating.remove(tenantId);
+            throw new IllegalStateException("Tenant " + tenantId + " is already being migrated by another node");
+        }
+    
+        // Other nodes see the flag on their next refresh, so they get that long on top of the timeout
+        long deadline = System.nanoTime() + settings.getDrainTimeout().toNanos()
+                + settings.getAssignmentRefreshInterval().toNanos() * 2;
+        while (true) {
+            refresh();
+            List<String> lagging = assignmentStore.laggingNodes(migration.version(), settings.getNodeTimeout());
+            if (lagging.isEmpty()) {
+                return migration;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                endMigration(migration, false);
+                throw new IllegalStateException("Tenant " + tenantId + " still has work in flight on nodes " + lagging +
+                        " after " + settings.getDrainTimeout());
+            }
+            Thread.sleep(Duration.ofMillis(50));
+        }
+    }
+    
+    /**
+     * Points the tenant at its new shard. Stored before it takes effect, so the tenant cannot
+     * route back to its old shard after a restart, and other nodes keep refusing its work until
+     * they have read the new shard.
+     */
+    void assign(TenantShardAssignmentStore.Migration migration, String shard) {
+        requireShard(shard);
+        assignmentStore.completeMigration(migration, shard);
+        assignments.put(migration.tenantId(), shard);
+    }
+    
+    /**
+     * @param assigned whether {@link #assign} was called; if not, the migration is called off
+     */
+    void endMigration(TenantShardAssignmentStore.Migration migration, boolean assigned) {
+        try {
+            if (!assigned) {
+                assignmentStore.abortMigration(migration);
+            }
+        } finally {
+            migrating.remove(migration.tenantId());
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                log.warn("Could not re-read tenant placements after migrating tenant {}: {}",
+                        migration.tenantId(), e.getMessage());
+            }
+        }
+    }
+    
+    void requireShard(String shard) {
+        if (!settings.getShards().containsKey(shard)) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+    }
+    
+    @Override
+    public void close() {
+        refresher.interrupt();
+        try {
+            assignmentStore.removeNode(nodeId);
+        } catch (RuntimeException e) {
+            log.debug("Could not remove node {} from the assignment table: {}", nodeId, e.getMessage());
+        }
+    }
+    
+    /**
+     * Re-reads placements and migrations, then reports the highest migration version this node has
+     * drained: all of them, or just below the oldest migrating tenant it still has work for.
+     * The migrating set is replaced before in-flight work is checked, so work admitted after the
+     * check sees the tenant as migrating.
+     */
+    synchronized void refresh() {
+        Map<String, TenantShardAssignmentStore.Assignment> loaded = assignmentStore.loadAll();
+        Set<String> migratingNow = new HashSet<>();
+        long drainedVersion = 0;
+        for (Map.Entry<String, TenantShardAssignmentStore.Assignment> entry : loaded.entrySet()) {
+            TenantShardAssignmentStore.Assignment assignment = entry.getValue();
+            if (settings.getShards().containsKey(assignment.shard())) {
+                assignments.put(entry.getKey(), assignment.shard());
+            }
+            if (assignment.migrating()) {
+                migratingNow.add(entry.getKey());
+            }
+            drainedVersion = Math.max(drainedVersion, assignment.version());
+        }
+        assignments.keySet().retainAll(loaded.keySet());
+        migratingElsewhere = Set.copyOf(migratingNow);
+    
+        for (String tenantId : migratingNow) {
+            if (inFlight.containsKey(tenantId) || shardWork.containsKey(shardFor(tenantId))) {
+                drainedVersion = Math.min(drainedVersion, loaded.get(tenantId).version() - 1);
+            }
+        }
+        assignmentStore.reportNode(nodeId, drainedVersion);
+        refreshedAt = System.nanoTime();
+    }
+    
+    private void refreshLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(settings.getAssignmentRefreshInterval());
+                refresh();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Could not read tenant placements: {}", e.getMessage());
+            }
+        }
+    }
+    
+    private boolean isStale() {
+        return System.nanoTime() - refreshedAt > settings.getNodeTimeout().toNanos();
+    }
+    
+    private Duration staleFor() {
+        return Duration.ofNanos(System.nanoTime() - refreshedAt);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.common.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+
+import static java.time.temporal.ChronoField.HOUR_OF_DAY;
+import static java.time.temporal.ChronoField.MINUTE_OF_HOUR;
+import static java.time.temporal.ChronoField.SECOND_OF_MINUTE;
+
+/**
+ * ISO-8601 local date-time formatter for log lines and other hot paths.
+ * 
+ * Produces the same text as {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}, but the date and time
+ * up to the second are formatted once per second and reused, and {@link #formatNow()} reuses the
+ * complete value within the same millisecond. Cached values are immutable and replaced with a
+ * single volatile write, so the formatter is safe to share between threads.
+ */
+public final class CachedTimestampFormatter {
+    
+    private static final DateTimeFormatter ISO_TO_SECONDS = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .appendLiteral('T')
+            .appendValue(HOUR_OF_DAY, 2)
+            .appendLiteral(':')
+            .appendValue(MINUTE_OF_HOUR, 2)
+            .appendLiteral(':')
+            .appendValue(SECOND_OF_MINUTE, 2)
+            .toFormatter();
+    
+    private static final int SECONDS_PER_DAY = 86_400;
+    
+    private final Clock clock;
+    private volatile Cached second = new Cached(Long.MIN_VALUE, "");
+    private volatile Cached millisecond = new Cached(Long.MIN_VALUE, "");
+    
+    public CachedTimestampFormatter() {
+        this(Clock.systemDefaultZone());
+    }
+    
+    public CachedTimestampFormatter(Clock clock) {
+        this.clock = clock;
+    }
+    
+    /**
+     * Formats the current time with millisecond precision.
+     */
+    public String formatNow() {
+        long now = clock.millis();
+        Cached cached = millisecond;
+        if (cached.key == now) {
+            return cached.text;
+        }
+        String text = format(LocalDateTime.ofInstant(Instant.ofEpochMilli(now), clock.getZone()));
+        millisecond = new Cached(now, text);
+        return text;
+    }
+    
+    public String format(LocalDateTime dateTime) {
+        long epochSecond = dateTime.toLocalDate().toEpochDay() * SECONDS_PER_DAY + dateTime.toLocalTime().toSecondOfDay();
+        Cached cached = second;
+        if (cached.key != epochSecond) {
+            cached = new Cached(epochSecond, ISO_TO_SECONDS.format(dateTime));
+            second = cached;
+        }
+        
+        int nano = dateTime.getNano();
+        if (nano == 0) {
+            return cached.text;
+        }
+        // Like ISO_LOCAL_DATE_TIME: as many fraction digits as needed, trailing zeros dropped
+        int digits = 9;
+        for (int rest = nano; rest % 10 == 0; rest /= 10) {
+            digits--;
+        }
+        StringBuilder text = new StringBuilder(cached.text.length() + 1 + digits).append(cached.text).append('.');
+        for (int i = 0, divisor = 100_000_000; i < digits; i++, divisor /= 10) {
+            text.append((char) ('0' + nano / divisor % 10));
+        }
+        return text.toString();
+    }
+    
+    private record Cached(long key, String text) {
+    }
+}
@@ -8,16 +8,30 @@ import java.time.format.DateTimeParseException;
 
 /**
  * Common date utility functions.
+ * 
+ * Formatting goes through a shared {@link CachedTimestampFormatter}. For log messages, prefer
+ * {@link #lazyNow()} and {@link #lazyFormat(LocalDateTime)}, which only format when the message
+ * is actually written.
  */
 @Slf4j
 public class DateUtils {
     
     public static final DateTimeFormatter ISO_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
     
+    private static final CachedTimestampFormatter FORMATTER = new CachedTimestampFormatter();
+    
+    private static final Object LAZY_NOW = new Object() {
+        @Override
+        public String toString() {
+            return formatNow();
+        }
+    };
+    
+    /**
+     * Formats the current time with millisecond precision.
+     */
     public static String formatNow() {
-        String formatted = LocalDateTime.now().format(ISO_FORMAT);
-        log.debug("Formatted current time: {}", formatted);
-        return formatted;
+        return FORMATTER.formatNow();
     }
     
     public static String format(LocalDateTime dateTime) {
@@ -25,9 +39,21 @@ public class DateUtils {
             log.warn("Attempted to format null LocalDateTime");
             return null;
         }
-        String formatted = dateTime.format(ISO_FORMAT);
-        log.debug("Formatted datetime: {} -> {}", dateTime, formatted);
-        return formatted;
+        return FORMATTER.format(dateTime);
+    }
+    
+    /**
+     * Log argument that renders as {@link #formatNow()} when the message is written.
+     */
+    public static Object lazyNow() {
+        return LAZY_NOW;
+    }
+    
+    /**
+     * Log argument that renders as {@link #format(LocalDateTime)} when the message is written.
+     */
+    public static Object lazyFormat(LocalDateTime dateTime) {
+        return new LazyFormat(dateTime);
     }
     
     public static LocalDateTime parseIsoDateTime(String dateTimeString) {
@@ -37,12 +63,17 @@ public class DateUtils {
         }
         
         try {
-            LocalDateTime parsed = LocalDateTime.parse(dateTimeString, ISO_FORMAT);
-            log.debug("Parsed datetime: {} -> {}", dateTimeString, parsed);
-            return parsed;
+            return LocalDateTime.parse(dateTimeString, ISO_FORMAT);
         } catch (DateTimeParseException e) {
             log.error("Failed to parse datetime string: {} - {}", dateTimeString, e.getMessage());
             throw e;
         }
     }
-}
\ No newline at end of file
+    
+    private record LazyFormat(LocalDateTime dateTime) {
+        @Override
+        public String toString() {
+            return format(dateTime);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.common.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes objects as newline-delimited JSON, one value per line, straight to an output stream.
+ * Nothing is buffered beyond the generator's own buffer, so memory use does not grow with row count.
+ */
+public class NdjsonWriter implements AutoCloseable {
+    
+    private final ObjectWriter objectWriter;
+    private final JsonGenerator generator;
+    
+    public NdjsonWriter(ObjectMapper objectMapper, OutputStream out) {
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Lines are terminated explicitly below, so no separator between root values;
+        // the caller owns the output stream and closes it
+        this.generator.setRootValueSeparator(null);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+    
+    /**
+     * Writes one row. Declared without checked exceptions so it can be used as a callback.
+     */
+    public void write(Object value) {
+        try {
+            objectWriter.writeValue(generator, value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Flushes buffered rows; the underlying stream is left open.
+     */
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.common.util;
+
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+
+import java.lang.reflect.Method;
+
+/**
+ * Finds the tenant argument of service and repository methods, which by convention is a
+ * {@code String} parameter named {@code tenantId}. Relies on parameter names being compiled in
+ * ({@code -parameters}, which the Spring Boot Gradle plugin turns on).
+ */
+public final class TenantParameters {
+    
+    public static final String TENANT_PARAMETER = "tenantId";
+    
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+    
+    private TenantParameters() {
+    }
+    
+    /**
+     * @return the index of the tenant parameter, or -1 if the method has none
+     */
+    public static int indexOf(Method method) {
+        String[] parameterNames = PARAMETER_NAMES.getParameterNames(method);
+        if (parameterNames == null) {
+            return -1;
+        }
+        for (int i = 0; i < parameterNames.length; i++) {
+            if (TENANT_PARAMETER.equals(parameterNames[i]) && method.getParameterTypes()[i] == String.class) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
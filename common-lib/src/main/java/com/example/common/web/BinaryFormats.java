@@ -0,0 +1,97 @@
+package com.example.common.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Binary alternatives to JSON for the REST APIs: CBOR ({@code application/cbor}) and
+ * Smile ({@code application/x-jackson-smile}), chosen by the request's Accept header.
+ * 
+ * The binary mappers are copies of the service's JSON mapper, so they see the same modules and
+ * settings, except that timestamps are written as epoch milliseconds instead of ISO-8601 strings.
+ * {@link LocalDateTime} values are taken to be in the system time zone, as everywhere else in the services.
+ */
+public final class BinaryFormats {
+    
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    
+    private BinaryFormats() {
+    }
+    
+    /**
+     * Replaces any default CBOR and Smile converters with ones derived from {@code jsonMapper}.
+     * They go after the existing converters, so JSON stays the default when the client accepts anything.
+     */
+    public static void register(List<HttpMessageConverter<?>> converters, ObjectMapper jsonMapper) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(cborMapper(jsonMapper)));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileMapper(jsonMapper)));
+    }
+    
+    public static ObjectMapper cborMapper(ObjectMapper jsonMapper) {
+        return withEpochMillis(jsonMapper.copyWith(new CBORFactory()));
+    }
+    
+    public static ObjectMapper smileMapper(ObjectMapper jsonMapper) {
+        return withEpochMillis(jsonMapper.copyWith(new SmileFactory()));
+    }
+    
+    private static ObjectMapper withEpochMillis(ObjectMapper mapper) {
+        SimpleModule epochMillis = new SimpleModule("EpochMillis");
+        epochMillis.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer());
+        epochMillis.addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer());
+        return mapper.registerModule(epochMillis)
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)
+                .disable(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS);
+    }
+    
+    private static final class LocalDateTimeSerializer extends StdScalarSerializer<LocalDateTime> {
+        
+        private LocalDateTimeSerializer() {
+            super(LocalDateTime.class);
+        }
+        
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+    
+    private static final class LocalDateTimeDeserializer extends StdScalarDeserializer<LocalDateTime> {
+        
+        private LocalDateTimeDeserializer() {
+            super(LocalDateTime.class);
+        }
+        
+        @Override
+        public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                return LocalDateTime.parse(parser.getText());
+            }
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(parser.getLongValue()), ZoneId.systemDefault());
+        }
+    }
+}
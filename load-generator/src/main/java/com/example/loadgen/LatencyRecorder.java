@@ -0,0 +1,100 @@
+package com.example.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcomes and latencies of one run, by tenant tier and operation.
+ *
+ * Two latencies are recorded for every successful request, in microseconds. Response time runs from
+ * the moment the request was scheduled to start, so when the services (or the generator) fall behind,
+ * the time requests spend waiting for their turn is counted too; this is the latency clients see, and
+ * it is not understated by coordinated omission. Service time runs from the moment the request was
+ * actually sent, and is what a closed-loop benchmark would report.
+ *
+ * Requests that fail count in the response time too, so errors and overload raise the percentiles
+ * instead of dropping out of them: an error or timeout at its elapsed time from the scheduled start,
+ * and a request not sent because of {@code load.maxInFlight} at the request timeout, the least a
+ * client would have waited for it. Rejections ({@code 429}/{@code 503}) are deliberate fast answers
+ * and are only counted.
+ */
+final class LatencyRecorder {
+
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Map<Tier, Map<Operation, Stats>> stats = new EnumMap<>(Tier.class);
+    private final LongAdder dropped = new LongAdder();
+
+    LatencyRecorder() {
+        for (Tier tier : Tier.values()) {
+            Map<Operation, Stats> byOperation = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                byOperation.put(operation, new Stats());
+            }
+            stats.put(tier, byOperation);
+        }
+    }
+
+    void recordOk(Tier tier, Operation operation, long responseNanos, long serviceNanos) {
+        Stats target = stats(tier, operation);
+        target.ok.increment();
+        target.responseTime.recordValue(micros(responseNanos));
+        target.serviceTime.recordValue(micros(serviceNanos));
+    }
+
+    void recordRejected(Tier tier, Operation operation) {
+        stats(tier, operation).rejected.increment();
+    }
+
+    /**
+     * @param responseNanos time from the scheduled start until the request failed or timed out
+     */
+    void recordError(Tier tier, Operation operation, long responseNanos) {
+        Stats target = stats(tier, operation);
+        target.errors.increment();
+        target.responseTime.recordValue(micros(responseNanos));
+    }
+
+    /**
+     * A scheduled request that was not sent because {@code load.maxInFlight} requests were outstanding.
+     *
+     * @param timeoutNanos the request timeout, recorded as its response time
+     */
+    void recordDropped(Tier tier, Operation operation, long timeoutNanos) {
+        dropped.increment();
+        Stats target = stats(tier, operation);
+        target.dropped.increment();
+        target.responseTime.recordValue(micros(timeoutNanos));
+    }
+
+    Stats stats(Tier tier, Operation operation) {
+        return stats.get(tier).get(operation);
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)), HIGHEST_TRACKABLE_MICROS);
+    }
+
+    static final class Stats {
+
+        final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+
+        long requests() {
+            return ok.sum() + rejected.sum() + errors.sum() + dropped.sum();
+        }
+    }
+}
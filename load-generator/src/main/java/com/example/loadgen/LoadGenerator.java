@@ -0,0 +1,296 @@
+package com.example.loadgen;
+
+import com.example.payment.PaymentServiceApplication;
+import com.example.processor.ProcessorServiceApplication;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load test of both services with skewed tenant traffic.
+ *
+ * Starts payment-service and processor-service in this JVM on random ports, with in-memory databases
+ * and processor-service's outbox pointed at payment-service, and seeds every tenant with a few payments.
+ * Then requests are started at {@code load.rate} per second, each on its own virtual thread, whether or
+ * not earlier ones have finished: a slow response delays no later request, and latency is measured from
+ * each request's scheduled start (see {@link LatencyRecorder}). Tenants are drawn by popularity
+ * ({@link TenantDistribution}) and operations by {@code load.mix}, from a fixed seed, so every run
+ * sends the same sequence.
+ *
+ * Like the benchmarks, the services are started without their application.yml (both are on the
+ * classpath, so which one would be read is arbitrary). Anything beyond the settings here is passed
+ * as {@code -Dpayment-service.<property>} or {@code -Dprocessor-service.<property>}, e.g.
+ * {@code -Dprocessor-service.rate-limit.defaults.process.permits-per-second=50}.
+ *
+ * Run with: {@code ./gradlew :load-generator:loadTest -Dload.rate=500 [-Dload.baseline=<report>]}
+ */
+public class LoadGenerator {
+
+    private static final int KNOWN_IDS_PER_TENANT = 256;
+
+    private final LoadSettings settings;
+    private final TenantDistribution distribution;
+    private final ServiceClient client;
+    private final ExecutorService requests;
+    private final KnownIds[] payments;
+    private final KnownIds[] processingRequests;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    LoadGenerator(LoadSettings settings, ServiceClient client, ExecutorService requests) {
+        this.settings = settings;
+        this.distribution = new TenantDistribution(settings);
+        this.client = client;
+        this.requests = requests;
+        this.payments = new KnownIds[distribution.size()];
+        this.processingRequests = new KnownIds[distribution.size()];
+        for (int rank = 0; rank < distribution.size(); rank++) {
+            payments[rank] = new KnownIds();
+            processingRequests[rank] = new KnownIds();
+        }
+        this.operations = settings.mix().keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += settings.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadSettings settings = LoadSettings.fromSystemProperties();
+        try (ConfigurableApplicationContext paymentService = start(PaymentServiceApplication.class, "payment-service");
+             ConfigurableApplicationContext processorService = start(ProcessorServiceApplication.class, "processor-service",
+                     "processing.outbox.transport=http",
+                     "processing.outbox.payment-service-url=" + url(paymentService),
+                     "processing.gateway.simulated.latency=" + settings.gatewayLatency().toMillis() + "ms");
+             ExecutorService requests = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("load-", 0).factory())) {
+            ServiceClient client = new ServiceClient(url(paymentService), url(processorService), settings.requestTimeout());
+            LoadGenerator generator = new LoadGenerator(settings, client, requests);
+
+            System.out.printf("%s%n", settings.describe());
+            generator.seed();
+            generator.run(settings.warmup().toNanos(), new SplittableRandom(settings.seed() - 1), new LatencyRecorder());
+
+            LatencyRecorder recorder = new LatencyRecorder();
+            long start = System.nanoTime();
+            long offered = generator.run(settings.duration().toNanos(), new SplittableRandom(settings.seed()), recorder);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            LoadReport report = new LoadReport(settings, generator.distribution, recorder, offered, seconds);
+            report.print();
+            Path file = report.write(settings.reportDir());
+            System.out.printf("report: %s%n", file.toAbsolutePath());
+            if (settings.baseline() != null) {
+                Path comparison = report.compare(settings.baseline(), settings.reportDir());
+                System.out.printf("comparison: %s%n", comparison.toAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Creates {@code load.seedPayments} payments for every tenant, so reads and processing find
+     * payments of cold tenants too.
+     */
+    private void seed() {
+        List<CompletableFuture<Void>> seeded = new ArrayList<>();
+        for (int rank = 0; rank < distribution.size(); rank++) {
+            int tenant = rank;
+            seeded.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < settings.seedPayments(); i++) {
+                    try {
+                        write(tenant, i);
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Could not seed " + distribution.tenant(tenant), e);
+                    }
+                }
+            }, requests));
+        }
+        CompletableFuture.allOf(seeded.toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * Starts requests on schedule for {@code durationNanos}, then waits for the outstanding ones.
+     *
+     * @return requests scheduled, including dropped ones
+     */
+    private long run(long durationNanos, SplittableRandom random, LatencyRecorder recorder) throws InterruptedException {
+        AtomicInteger inFlight = new AtomicInteger();
+        double intervalNanos = 1e9 / settings.rate();
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        double next = start;
+        long offered = 0;
+
+        while ((long) next < end) {
+            long scheduled = (long) next;
+            for (long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+
+            // Drawn here, on one thread, so the sequence depends only on the seed
+            int rank = distribution.sample(random);
+            Operation operation = operation(random);
+            long choice = random.nextLong();
+            offered++;
+            if (inFlight.incrementAndGet() > settings.maxInFlight()) {
+                inFlight.decrementAndGet();
+                recorder.recordDropped(distribution.tier(rank), operation, settings.requestTimeout().toNanos());
+            } else {
+                requests.execute(() -> {
+                    try {
+                        execute(rank, operation, choice, scheduled, recorder);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+
+            next += settings.arrival() == LoadSettings.Arrival.POISSON
+                    ? -Math.log(1 - random.nextDouble()) * intervalNanos
+                    : intervalNanos;
+        }
+
+        long drainDeadline = System.nanoTime() + settings.requestTimeout().toNanos() * 2;
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        return offered;
+    }
+
+    private void execute(int rank, Operation operation, long choice, long scheduled, LatencyRecorder recorder) {
+        Tier tier = distribution.tier(rank);
+        long started = System.nanoTime();
+        ServiceClient.Response response;
+        try {
+            response = switch (operation) {
+                case READ -> read(rank, choice);
+                case WRITE -> write(rank, choice);
+                case PROCESS -> process(rank, choice);
+            };
+        } catch (Exception e) {
+            // Includes timeouts, which fail once load.requestTimeout has passed
+            recorder.recordError(tier, operation, System.nanoTime() - scheduled);
+            return;
+        }
+        long finished = System.nanoTime();
+        if (response.ok()) {
+            recorder.recordOk(tier, operation, finished - scheduled, finished - started);
+        } else if (response.rejected()) {
+            recorder.recordRejected(tier, operation);
+        } else {
+            recorder.recordError(tier, operation, finished - scheduled);
+        }
+    }
+
+    private ServiceClient.Response read(int rank, long choice) throws Exception {
+        String tenantId = distribution.tenant(rank);
+        String requestId = (choice & 1) == 0 ? processingRequests[rank].pick(choice) : null;
+        if (requestId != null) {
+            return client.getProcessingRequest(tenantId, requestId);
+        }
+        String paymentId = payments[rank].pick(choice);
+        return paymentId == null ? write(rank, choice) : client.getPayment(tenantId, paymentId);
+    }
+
+    private ServiceClient.Response write(int rank, long choice) throws Exception {
+        String tenantId = distribution.tenant(rank);
+        BigDecimal amount = BigDecimal.valueOf(Math.floorMod(choice, 100_000) + 1, 2);
+        ServiceClient.Response response = client.createPayment(tenantId, "customer-" + Math.floorMod(choice, 50), amount);
+        if (response.id() != null) {
+            payments[rank].add(response.id());
+        }
+        return response;
+    }
+
+    /**
+     * Creates a processing request and queues it, as a client paying for an order does;
+     * the latency covers both calls.
+     */
+    private ServiceClient.Response process(int rank, long choice) throws Exception {
+        String tenantId = distribution.tenant(rank);
+        String paymentId = payments[rank].pick(choice);
+        if (paymentId == null) {
+            return write(rank, choice);
+        }
+        ServiceClient.Response created = client.createProcessingRequest(tenantId, paymentId);
+        if (created.id() == null) {
+            return created;
+        }
+        processingRequests[rank].add(created.id());
+        return client.process(tenantId, created.id());
+    }
+
+    private Operation operation(SplittableRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private static ConfigurableApplicationContext start(Class<?> application, String service, String... properties) {
+        String prefix = service + ".";
+        List<String> overrides = new ArrayList<>();
+        for (Map.Entry<Object, Object> property : System.getProperties().entrySet()) {
+            String key = property.getKey().toString();
+            if (key.startsWith(prefix)) {
+                overrides.add(key.substring(prefix.length()) + "=" + property.getValue());
+            }
+        }
+        return new SpringApplicationBuilder(application)
+                .bannerMode(Banner.Mode.OFF)
+                .properties(
+                        "spring.config.name=load-generator",
+                        "spring.application.name=" + service,
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + service,
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .properties(properties)
+                .properties(overrides.toArray(String[]::new))
+                .run();
+    }
+
+    private static String url(ConfigurableApplicationContext context) {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    /**
+     * The most recent IDs created for one tenant; reads and processing pick among them.
+     */
+    private static final class KnownIds {
+
+        private final AtomicReferenceArray<String> ids = new AtomicReferenceArray<>(KNOWN_IDS_PER_TENANT);
+        private final AtomicLong added = new AtomicLong();
+
+        void add(String id) {
+            ids.set((int) (added.getAndIncrement() % KNOWN_IDS_PER_TENANT), id);
+        }
+
+        String pick(long choice) {
+            long known = Math.min(added.get(), KNOWN_IDS_PER_TENANT);
+            return known == 0 ? null : ids.get((int) Math.floorMod(choice >>> 1, known));
+        }
+    }
+}
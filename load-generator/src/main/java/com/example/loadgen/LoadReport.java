@@ -0,0 +1,165 @@
+package com.example.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Results of a run as {@code key=value} lines in a fixed order, with no timestamps or host details,
+ * so the reports of two builds can be compared with {@code diff} or with {@link #compare}.
+ * Latencies are in milliseconds.
+ *
+ * <pre>
+ * config.rate=200.0
+ * run.offered=12000
+ * hot.share=0.4012
+ * hot.read.requests=3371
+ * hot.read.response.p99=12.345
+ * hot.read.service.p99=4.567
+ * </pre>
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final String label;
+    private final Map<String, String> values = new LinkedHashMap<>();
+
+    LoadReport(LoadSettings settings, TenantDistribution distribution, LatencyRecorder recorder,
+               long offered, double seconds) {
+        this.label = settings.label();
+        settings.describe().forEach((key, value) -> values.put("config." + key, value));
+        values.put("run.offered", String.valueOf(offered));
+        values.put("run.dropped", String.valueOf(recorder.dropped()));
+        values.put("run.seconds", format(seconds));
+
+        for (Tier tier : Tier.values()) {
+            values.put(tier.label() + ".share", String.format(Locale.ROOT, "%.4f", distribution.share(tier)));
+            Histogram tierResponse = new Histogram(LatencyRecorder.HIGHEST_TRACKABLE_MICROS, 3);
+            Histogram tierService = new Histogram(LatencyRecorder.HIGHEST_TRACKABLE_MICROS, 3);
+            long ok = 0;
+            long rejected = 0;
+            long errors = 0;
+            long dropped = 0;
+            for (Operation operation : Operation.values()) {
+                LatencyRecorder.Stats stats = recorder.stats(tier, operation);
+                put(tier.label() + "." + operation.label(), stats.ok.sum(), stats.rejected.sum(), stats.errors.sum(),
+                        stats.dropped.sum(), seconds, stats.responseTime, stats.serviceTime);
+                tierResponse.add(stats.responseTime);
+                tierService.add(stats.serviceTime);
+                ok += stats.ok.sum();
+                rejected += stats.rejected.sum();
+                errors += stats.errors.sum();
+                dropped += stats.dropped.sum();
+            }
+            put(tier.label() + ".all", ok, rejected, errors, dropped, seconds, tierResponse, tierService);
+        }
+    }
+
+    Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(label + ".properties");
+        List<String> lines = new ArrayList<>();
+        lines.add("# Load report " + label);
+        values.forEach((key, value) -> lines.add(key + "=" + value));
+        Files.write(file, lines);
+        return file;
+    }
+
+    /**
+     * Prints the latency, throughput and rejection figures of this report next to those of
+     * {@code baseline}, with the relative change, and writes the same table next to the report.
+     */
+    Path compare(Path baseline, Path directory) throws IOException {
+        Properties before = new Properties();
+        try (Reader reader = Files.newBufferedReader(baseline)) {
+            before.load(reader);
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-28s %14s %14s %9s", "metric", "baseline", label, "change"));
+        values.forEach((key, value) -> {
+            if (key.startsWith("config.") && !value.equals(before.getProperty(key))) {
+                lines.add(0, "# workload differs: " + key + " " + before.getProperty(key) + " -> " + value);
+            }
+        });
+        values.forEach((key, value) -> {
+            String previous = before.getProperty(key);
+            if (previous == null || !isCompared(key)) {
+                return;
+            }
+            double from = Double.parseDouble(previous);
+            double to = Double.parseDouble(value);
+            String change = from == 0 ? "" : String.format(Locale.ROOT, "%+8.1f%%", (to - from) / from * 100);
+            lines.add(String.format("%-28s %14s %14s %9s", key, previous, value, change));
+        });
+        lines.forEach(System.out::println);
+
+        Path file = directory.resolve(label + "-comparison.txt");
+        Files.write(file, lines);
+        return file;
+    }
+
+    void print() {
+        System.out.printf("%-6s %-8s %9s %9s %9s %9s %7s %10s %10s %10s %10s %10s%n", "tier", "op", "requests",
+                "rejected", "errors", "dropped", "share", "req/s", "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        for (Tier tier : Tier.values()) {
+            for (String operation : List.of("read", "write", "process", "all")) {
+                String prefix = tier.label() + "." + operation;
+                System.out.printf("%-6s %-8s %9s %9s %9s %9s %7s %10s %10s %10s %10s %10s%n", tier.label(), operation,
+                        values.get(prefix + ".requests"), values.get(prefix + ".rejected"), values.get(prefix + ".errors"),
+                        values.get(prefix + ".dropped"),
+                        operation.equals("all") ? values.get(tier.label() + ".share") : "",
+                        values.get(prefix + ".throughput"), values.get(prefix + ".response.p50"),
+                        values.get(prefix + ".response.p99"), values.get(prefix + ".response.p999"),
+                        values.get(prefix + ".response.max"));
+            }
+        }
+        System.out.printf("offered=%s dropped=%s seconds=%s%n",
+                values.get("run.offered"), values.get("run.dropped"), values.get("run.seconds"));
+    }
+
+    private void put(String prefix, long ok, long rejected, long errors, long dropped, double seconds,
+                     Histogram responseTime, Histogram serviceTime) {
+        values.put(prefix + ".requests", String.valueOf(ok + rejected + errors + dropped));
+        values.put(prefix + ".rejected", String.valueOf(rejected));
+        values.put(prefix + ".errors", String.valueOf(errors));
+        values.put(prefix + ".dropped", String.valueOf(dropped));
+        values.put(prefix + ".throughput", format(ok / seconds));
+        putLatencies(prefix + ".response", responseTime);
+        putLatencies(prefix + ".service", serviceTime);
+    }
+
+    private void putLatencies(String prefix, Histogram histogram) {
+        for (double percentile : PERCENTILES) {
+            String name = "p" + (percentile == Math.rint(percentile)
+                    ? String.valueOf((int) percentile)
+                    : String.valueOf(percentile).replace(".", ""));
+            values.put(prefix + "." + name, millis(histogram.getTotalCount() == 0 ? 0 : histogram.getValueAtPercentile(percentile)));
+        }
+        values.put(prefix + ".max", millis(histogram.getMaxValue()));
+    }
+
+    private static boolean isCompared(String key) {
+        return key.contains(".response.") || key.contains(".service.")
+                || key.endsWith(".throughput") || key.endsWith(".rejected") || key.endsWith(".errors")
+                || key.endsWith(".dropped");
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.3f", micros / 1000.0);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.loadgen;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Workload of a load test, read from {@code load.*} system properties.
+ *
+ * <pre>
+ * load.tenants          tenants in the workload (100)
+ * load.distribution     zipf or uniform tenant popularity (zipf)
+ * load.zipfExponent     skew of the zipf distribution; higher puts more traffic on the top tenants (1.1)
+ * load.hotTenants       fraction of tenants, by popularity rank, reported as the hot tier (0.01)
+ * load.warmTenants      fraction of tenants after the hot ones reported as the warm tier (0.09)
+ * load.rate             requests started per second, whether or not earlier ones have finished (200)
+ * load.arrival          poisson or constant spacing of request starts (poisson)
+ * load.mix              relative weights of the operations (read:70,write:20,process:10)
+ * load.duration         measured run (60s)
+ * load.warmup           unmeasured run before it (15s)
+ * load.seedPayments     payments created per tenant before the warmup (10)
+ * load.maxInFlight      requests outstanding at once; starts beyond it are dropped, counted and timed as timeouts (5000)
+ * load.requestTimeout   timeout of each HTTP request (10s)
+ * load.gatewayLatency   latency of processor-service's simulated gateway (20ms)
+ * load.seed             seed of the tenant and operation sequence, the same for every run (42)
+ * load.label            report name (current)
+ * load.reportDir        report directory (build/load-reports)
+ * load.baseline         earlier report to compare the new one against (none)
+ * </pre>
+ */
+record LoadSettings(
+        int tenants,
+        Distribution distribution,
+        double zipfExponent,
+        double hotTenants,
+        double warmTenants,
+        double rate,
+        Arrival arrival,
+        Map<Operation, Integer> mix,
+        Duration duration,
+        Duration warmup,
+        int seedPayments,
+        int maxInFlight,
+        Duration requestTimeout,
+        Duration gatewayLatency,
+        long seed,
+        String label,
+        Path reportDir,
+        Path baseline) {
+
+    enum Distribution {
+        ZIPF, UNIFORM
+    }
+
+    enum Arrival {
+        POISSON, CONSTANT
+    }
+
+    static LoadSettings fromSystemProperties() {
+        String baseline = System.getProperty("load.baseline");
+        return new LoadSettings(
+                Integer.getInteger("load.tenants", 100),
+                Distribution.valueOf(System.getProperty("load.distribution", "zipf").toUpperCase(Locale.ROOT)),
+                doubleProperty("load.zipfExponent", 1.1),
+                doubleProperty("load.hotTenants", 0.01),
+                doubleProperty("load.warmTenants", 0.09),
+                doubleProperty("load.rate", 200),
+                Arrival.valueOf(System.getProperty("load.arrival", "poisson").toUpperCase(Locale.ROOT)),
+                parseMix(System.getProperty("load.mix", "read:70,write:20,process:10")),
+                durationProperty("load.duration", "60s"),
+                durationProperty("load.warmup", "15s"),
+                Integer.getInteger("load.seedPayments", 10),
+                Integer.getInteger("load.maxInFlight", 5000),
+                durationProperty("load.requestTimeout", "10s"),
+                durationProperty("load.gatewayLatency", "20ms"),
+                Long.getLong("load.seed", 42),
+                System.getProperty("load.label", "current"),
+                Path.of(System.getProperty("load.reportDir", "build/load-reports")),
+                baseline == null ? null : Path.of(baseline));
+    }
+
+    /**
+     * Settings that shape the workload, written at the top of the report so that two reports
+     * are only compared knowingly when they differ.
+     */
+    Map<String, String> describe() {
+        Map<String, String> description = new LinkedHashMap<>();
+        description.put("tenants", String.valueOf(tenants));
+        description.put("distribution", distribution.name().toLowerCase(Locale.ROOT));
+        description.put("zipfExponent", String.valueOf(zipfExponent));
+        description.put("hotTenants", String.valueOf(hotTenants));
+        description.put("warmTenants", String.valueOf(warmTenants));
+        description.put("rate", String.valueOf(rate));
+        description.put("arrival", arrival.name().toLowerCase(Locale.ROOT));
+        StringBuilder mixDescription = new StringBuilder();
+        mix.forEach((operation, weight) -> mixDescription.append(mixDescription.isEmpty() ? "" : ",")
+                .append(operation.label()).append(':').append(weight));
+        description.put("mix", mixDescription.toString());
+        description.put("duration", duration.toString());
+        description.put("warmup", warmup.toString());
+        description.put("seedPayments", String.valueOf(seedPayments));
+        description.put("maxInFlight", String.valueOf(maxInFlight));
+        description.put("gatewayLatency", gatewayLatency.toString());
+        description.put("seed", String.valueOf(seed));
+        return description;
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.trim().split(":");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("load.mix entries look like read:70, got: " + part);
+            }
+            mix.put(Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("load.mix needs at least one positive weight: " + value);
+        }
+        return mix;
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static Duration durationProperty(String name, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(name, defaultValue));
+    }
+}
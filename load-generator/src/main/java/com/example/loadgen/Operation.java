@@ -0,0 +1,22 @@
+package com.example.loadgen;
+
+import java.util.Locale;
+
+/**
+ * Requests the load generator sends, each standing for one client action.
+ */
+enum Operation {
+
+    /** Looks up a known payment, or a known processing request when the tenant has one. */
+    READ,
+
+    /** Creates a payment. */
+    WRITE,
+
+    /** Creates a processing request for a known payment and queues it for processing. */
+    PROCESS;
+
+    String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.loadgen;
+
+import com.example.common.resolver.TenantIdArgumentResolver;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Blocking HTTP calls to the two services, as a client of their public API would make them.
+ * Meant to be called from virtual threads, one request each.
+ */
+final class ServiceClient {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http;
+    private final String paymentServiceUrl;
+    private final String processorServiceUrl;
+    private final Duration timeout;
+
+    ServiceClient(String paymentServiceUrl, String processorServiceUrl, Duration timeout) {
+        this.paymentServiceUrl = paymentServiceUrl;
+        this.processorServiceUrl = processorServiceUrl;
+        this.timeout = timeout;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    /**
+     * @return the response, with the new payment's ID if it was created
+     */
+    Response createPayment(String tenantId, String customerId, BigDecimal amount) throws IOException, InterruptedException {
+        ObjectNode payment = objectMapper.createObjectNode()
+                // Overwritten by the service; sent because the payment is validated as a whole
+                .put("tenantId", tenantId)
+                .put("paymentId", "new")
+                .put("amount", amount)
+                .put("currency", "USD")
+                .put("customerId", customerId);
+        return send(tenantId, HttpRequest.newBuilder(URI.create(paymentServiceUrl + "/api/payments"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(payment))), "paymentId");
+    }
+
+    Response getPayment(String tenantId, String paymentId) throws IOException, InterruptedException {
+        return send(tenantId, HttpRequest.newBuilder(URI.create(paymentServiceUrl + "/api/payments/" + paymentId)).GET(), null);
+    }
+
+    Response createProcessingRequest(String tenantId, String paymentId) throws IOException, InterruptedException {
+        return send(tenantId, HttpRequest.newBuilder(URI.create(processorServiceUrl + "/api/processing/payment/" + paymentId))
+                .POST(HttpRequest.BodyPublishers.noBody()), "requestId");
+    }
+
+    Response getProcessingRequest(String tenantId, String requestId) throws IOException, InterruptedException {
+        return send(tenantId, HttpRequest.newBuilder(URI.create(processorServiceUrl + "/api/processing/" + requestId)).GET(), null);
+    }
+
+    Response process(String tenantId, String requestId) throws IOException, InterruptedException {
+        return send(tenantId, HttpRequest.newBuilder(URI.create(processorServiceUrl + "/api/processing/" + requestId + "/process"))
+                .POST(HttpRequest.BodyPublishers.noBody()), null);
+    }
+
+    private Response send(String tenantId, HttpRequest.Builder request, String idField) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = http.send(request
+                        .header(TenantIdArgumentResolver.TENANT_HEADER_NAME, tenantId)
+                        .header("Accept", "application/json")
+                        .timeout(timeout)
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        String id = null;
+        if (idField != null && response.statusCode() / 100 == 2) {
+            JsonNode value = objectMapper.readTree(response.body()).get(idField);
+            id = value == null ? null : value.asText();
+        }
+        return new Response(response.statusCode(), id);
+    }
+
+    /**
+     * @param status HTTP status
+     * @param id     ID of the created payment or processing request, if one was created
+     */
+    record Response(int status, String id) {
+
+        boolean ok() {
+            return status / 100 == 2;
+        }
+
+        /**
+         * Turned away by a rate limit, a full tenant queue or an open circuit breaker, rather than failed.
+         */
+        boolean rejected() {
+            return status == 429 || status == 503;
+        }
+    }
+}
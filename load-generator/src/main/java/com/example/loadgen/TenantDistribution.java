@@ -0,0 +1,72 @@
+package com.example.loadgen;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Popularity of the workload's tenants. Tenant {@code tenant-0000} is the most popular; under the
+ * zipf distribution the tenant of rank r gets a share proportional to {@code 1 / (r + 1)^exponent}.
+ */
+final class TenantDistribution {
+
+    private final String[] tenants;
+    private final double[] cumulative;
+    private final Tier[] tiers;
+
+    TenantDistribution(LoadSettings settings) {
+        int count = settings.tenants();
+        tenants = new String[count];
+        cumulative = new double[count];
+        tiers = new Tier[count];
+
+        int hot = Math.max(1, (int) Math.ceil(count * settings.hotTenants()));
+        int warm = hot + (int) Math.ceil(count * settings.warmTenants());
+        double total = 0;
+        for (int rank = 0; rank < count; rank++) {
+            tenants[rank] = String.format("tenant-%04d", rank);
+            tiers[rank] = rank < hot ? Tier.HOT : rank < warm ? Tier.WARM : Tier.COLD;
+            total += settings.distribution() == LoadSettings.Distribution.ZIPF
+                    ? 1 / Math.pow(rank + 1, settings.zipfExponent())
+                    : 1;
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < count; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    /**
+     * Rank of a tenant drawn by popularity.
+     */
+    int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    int size() {
+        return tenants.length;
+    }
+
+    String tenant(int rank) {
+        return tenants[rank];
+    }
+
+    Tier tier(int rank) {
+        return tiers[rank];
+    }
+
+    /**
+     * Expected fraction of requests that go to the tier's tenants.
+     */
+    double share(Tier tier) {
+        double share = 0;
+        double previous = 0;
+        for (int rank = 0; rank < cumulative.length; rank++) {
+            if (tiers[rank] == tier) {
+                share += cumulative[rank] - previous;
+            }
+            previous = cumulative[rank];
+        }
+        return share;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.loadgen;
+
+import java.util.Locale;
+
+/**
+ * Tenants grouped by popularity rank, so latencies of the few busiest tenants are reported apart
+ * from the long tail. Tiers are assigned by rank under either distribution, so reports of a zipf
+ * and a uniform run cover the same tenants.
+ */
+enum Tier {
+
+    HOT, WARM, COLD;
+
+    String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
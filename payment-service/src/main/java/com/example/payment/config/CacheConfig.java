@@ -0,0 +1,61 @@
+package com.example.payment.config;
+
+import com.example.common.cache.TenantCacheSettings;
+import com.example.common.cache.TenantScopedCache;
+import com.example.common.cache.TenantSingleFlight;
+import com.example.common.idempotency.IdempotencyStore;
+import com.example.common.metrics.TenantMetricTags;
+import com.example.payment.model.Payment;
+import com.example.payment.model.PaymentResponse;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tenant-scoped read-through cache for payment lookups (holding immutable {@link PaymentResponse}
+ * snapshots, not entities), the single-flight layers that collapse
+ * concurrent identical lookups, and the idempotency key store.
+ * All are MeterBinders, so their counters are picked up by actuator metrics.
+ */
+@Configuration
+public class CacheConfig {
+    
+    @Bean
+    @ConfigurationProperties(prefix = "cache.payments")
+    public TenantCacheSettings paymentCacheSettings() {
+        return new TenantCacheSettings();
+    }
+    
+    @Bean
+    public TenantScopedCache<String, PaymentResponse> paymentCache(TenantCacheSettings paymentCacheSettings,
+                                                                   TenantMetricTags tenantMetricTags) {
+        return new TenantScopedCache<>("payments", paymentCacheSettings, PaymentResponse::tenantId, tenantMetricTags);
+    }
+    
+    @Bean
+    public TenantSingleFlight<String, Optional<PaymentResponse>> paymentLookups() {
+        return new TenantSingleFlight<>("payments");
+    }
+    
+    /** Keyed by query, e.g. {@code customer:<customerId>} or {@code tenant}. */
+    @Bean
+    public TenantSingleFlight<String, List<Payment>> paymentListLookups() {
+        return new TenantSingleFlight<>("payment-lists");
+    }
+    
+    @Bean
+    @ConfigurationProperties(prefix = "cache.idempotency")
+    public TenantCacheSettings idempotencyCacheSettings() {
+        return new TenantCacheSettings();
+    }
+    
+    @Bean
+    public IdempotencyStore<Payment> paymentIdempotencyStore(TenantCacheSettings idempotencyCacheSettings,
+                                                             TenantMetricTags tenantMetricTags) {
+        return new IdempotencyStore<>("payment-idempotency", idempotencyCacheSettings, Payment::getTenantId,
+                tenantMetricTags);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.payment.config;
+
+import com.example.common.id.UuidColumnMigration;
+import com.example.common.shard.TenantShardRouter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Converts {@code payments.payment_id} to 16 bytes in databases created while it was still a varchar.
+ */
+@Configuration
+public class IdConfig {
+    
+    @Bean
+    public UuidColumnMigration paymentIdColumnMigration(DataSource dataSource, ObjectProvider<TenantShardRouter> shardRouter) {
+        return new UuidColumnMigration(dataSource, shardRouter, "payments", "payment_id");
+    }
+}
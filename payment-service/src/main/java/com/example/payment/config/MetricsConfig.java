@@ -0,0 +1,53 @@
+package com.example.payment.config;
+
+import com.example.common.metrics.TenantMetricSettings;
+import com.example.common.metrics.TenantMetricTags;
+import com.example.common.metrics.TenantServerRequestObservationConvention;
+import com.example.common.metrics.TenantTimedInterceptor;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.service.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tenant-tagged timers around every {@link PaymentService} and {@link PaymentRepository} method,
+ * and a tenant tag on {@code http.server.requests}. All tenant tags go through one
+ * {@link TenantMetricTags} guard; only the tenants in {@code metrics.tagged-tenants} get their own tag.
+ */
+@Configuration
+public class MetricsConfig {
+    
+    @Bean
+    @ConfigurationProperties(prefix = "metrics")
+    public TenantMetricSettings tenantMetricSettings() {
+        return new TenantMetricSettings();
+    }
+    
+    @Bean
+    public TenantMetricTags tenantMetricTags(TenantMetricSettings tenantMetricSettings) {
+        return new TenantMetricTags(tenantMetricSettings);
+    }
+    
+    @Bean
+    public TenantServerRequestObservationConvention tenantServerRequestObservationConvention(
+            TenantMetricTags tenantMetricTags) {
+        return new TenantServerRequestObservationConvention(tenantMetricTags);
+    }
+    
+    // Advisors are static so creating them does not instantiate this configuration early
+    @Bean
+    public static Advisor paymentServiceMetricsAdvisor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                       ObjectProvider<TenantMetricTags> tenantMetricTags) {
+        return TenantTimedInterceptor.advisor("payment.service", PaymentService.class, meterRegistry, tenantMetricTags);
+    }
+    
+    @Bean
+    public static Advisor paymentRepositoryMetricsAdvisor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                          ObjectProvider<TenantMetricTags> tenantMetricTags) {
+        return TenantTimedInterceptor.advisor("payment.repository", PaymentRepository.class, meterRegistry, tenantMetricTags);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.payment.config;
+
+import com.example.common.ratelimit.RateLimitSettings;
+import com.example.common.ratelimit.TenantRateLimiter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Per-tenant request rate limits, applied by the interceptor registered in {@link WebConfig}.
+ * The limiter is a MeterBinder, so admitted and rejected counts show up in actuator metrics.
+ */
+@Configuration
+public class RateLimitConfig {
+    
+    @Bean
+    @ConfigurationProperties(prefix = "rate-limit")
+    public RateLimitSettings rateLimitSettings() {
+        return new RateLimitSettings();
+    }
+    
+    @Bean
+    public TenantRateLimiter tenantRateLimiter(RateLimitSettings rateLimitSettings) {
+        return new TenantRateLimiter(rateLimitSettings);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.payment.config;
+
+import com.example.common.schema.SchemaPresenceCheck;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Startup checks, created at startup even with {@code spring.main.lazy-initialization} (fast profile).
+ */
+@Configuration
+public class StartupConfig {
+    
+    @Bean
+    public static LazyInitializationExcludeFilter startupChecks() {
+        return LazyInitializationExcludeFilter.forBeanTypes(SchemaPresenceCheck.class);
+    }
+    
+    @Bean
+    public SchemaPresenceCheck schemaPresenceCheck(DataSource dataSource, Environment environment) {
+        return new SchemaPresenceCheck(dataSource, environment, List.of("payments", "payment_summaries"));
+    }
+}
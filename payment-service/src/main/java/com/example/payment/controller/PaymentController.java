@@ -1,13 +1,32 @@
 package com.example.payment.controller;
 
+import com.example.common.annotation.IdempotencyKey;
 import com.example.common.annotation.TenantId;
+import com.example.common.event.EventHubSettings;
+import com.example.common.event.PaymentStatusUpdate;
+import com.example.common.event.SseEventSink;
+import com.example.common.event.StatusChangeEvent;
+import com.example.common.event.TenantEventHub;
+import com.example.common.idempotency.IdempotencyStore;
+import com.example.common.pagination.CursorPage;
+import com.example.common.pagination.KeysetCursor;
+import com.example.common.util.NdjsonWriter;
+import com.example.payment.model.BulkStatusChangeRequest;
+import com.example.payment.model.BulkStatusChangeResult;
+import com.example.payment.model.BulkStatusUpdateResult;
 import com.example.payment.model.Payment;
+import com.example.payment.model.PaymentResponse;
+import com.example.payment.model.PaymentTotal;
 import com.example.payment.service.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.util.List;
@@ -18,23 +37,44 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PaymentController {
     
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    
     private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
+    private final TenantEventHub<StatusChangeEvent> statusEventHub;
+    private final EventHubSettings eventHubSettings;
     
     @PostMapping
-    public ResponseEntity<Payment> createPayment(
+    public ResponseEntity<PaymentResponse> createPayment(
             @TenantId String tenantId,
+            @IdempotencyKey String idempotencyKey,
             @Valid @RequestBody Payment payment) {
         log.info("Creating payment for tenant: {} customer: {}", tenantId, payment.getCustomerId());
         
         // Ensure payment has the correct tenant ID from header
         payment.setTenantId(tenantId);
-        Payment createdPayment = paymentService.createPayment(payment);
-        log.info("Payment created successfully: {} for tenant: {}", createdPayment.getPaymentId(), createdPayment.getTenantId());
-        return new ResponseEntity<>(createdPayment, HttpStatus.CREATED);
+        if (idempotencyKey == null) {
+            Payment createdPayment = paymentService.createPayment(payment);
+            log.info("Payment created successfully: {} for tenant: {}", createdPayment.getPaymentId(), createdPayment.getTenantId());
+            return new ResponseEntity<>(PaymentResponse.from(createdPayment), HttpStatus.CREATED);
+        }
+        
+        try {
+            IdempotencyStore.Result<Payment> result = paymentService.createPayment(payment, idempotencyKey);
+            log.info("Payment {} successfully: {} for tenant: {}", result.replayed() ? "replayed" : "created",
+                       result.value().getPaymentId(), tenantId);
+            // A replay answers exactly like the original request, flagged so clients can tell
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                    .body(PaymentResponse.from(result.value()));
+        } catch (IllegalStateException e) {
+            log.warn("Rejected payment for tenant: {} - {}", tenantId, e.getMessage());
+            return ResponseEntity.unprocessableEntity().build();
+        }
     }
     
     @GetMapping("/{paymentId}")
-    public ResponseEntity<Payment> getPayment(
+    public ResponseEntity<PaymentResponse> getPayment(
             @TenantId String tenantId,
             @PathVariable String paymentId) {
         log.debug("Retrieving payment: {} for tenant: {}", paymentId, tenantId);
@@ -50,25 +90,114 @@ public class PaymentController {
     }
     
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<Payment>> getPaymentsByCustomer(
+    public ResponseEntity<List<PaymentResponse>> getPaymentsByCustomer(
             @TenantId String tenantId,
             @PathVariable String customerId) {
         log.debug("Retrieving payments for customer: {} in tenant: {}", customerId, tenantId);
         List<Payment> payments = paymentService.findByCustomerId(tenantId, customerId);
         log.debug("Found {} payments for customer: {} in tenant: {}", payments.size(), customerId, tenantId);
-        return ResponseEntity.ok(payments);
+        return ResponseEntity.ok(payments.stream().map(PaymentResponse::from).toList());
+    }
+    
+    @GetMapping("/customer/{customerId}/page")
+    public ResponseEntity<CursorPage<PaymentResponse>> getPaymentsPageByCustomer(
+            @TenantId String tenantId,
+            @PathVariable String customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+            log.debug("Retrieving payment page for customer: {} in tenant: {} after: {}", customerId, tenantId, cursor);
+            return ResponseEntity.ok(paymentService.findPageByCustomerId(
+                    tenantId, customerId, after, CursorPage.clampLimit(limit)).map(PaymentResponse::from));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected payment page request for tenant: {} - {}", tenantId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping(value = "/customer/{customerId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPaymentsByCustomer(
+            @TenantId String tenantId,
+            @PathVariable String customerId) {
+        log.debug("Streaming payments for customer: {} in tenant: {}", customerId, tenantId);
+        StreamingResponseBody body = out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                paymentService.streamByCustomerId(tenantId, customerId,
+                        payment -> writer.write(PaymentResponse.from(payment)));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
     
     @GetMapping("/tenant")
-    public ResponseEntity<List<Payment>> getAllPaymentsForTenant(@TenantId String tenantId) {
+    public ResponseEntity<List<PaymentResponse>> getAllPaymentsForTenant(@TenantId String tenantId) {
         log.debug("Retrieving all payments for tenant: {}", tenantId);
         List<Payment> payments = paymentService.findByTenantId(tenantId);
         log.debug("Found {} payments for tenant: {}", payments.size(), tenantId);
-        return ResponseEntity.ok(payments);
+        return ResponseEntity.ok(payments.stream().map(PaymentResponse::from).toList());
+    }
+    
+    /**
+     * Payment count and total amount per currency and status, for dashboards that would
+     * otherwise sum every payment of the tenant.
+     */
+    @GetMapping("/tenant/summary")
+    public ResponseEntity<List<PaymentTotal>> getPaymentTotalsForTenant(@TenantId String tenantId) {
+        log.debug("Retrieving payment totals for tenant: {}", tenantId);
+        return ResponseEntity.ok(paymentService.findTotals(tenantId));
+    }
+    
+    @GetMapping("/tenant/page")
+    public ResponseEntity<CursorPage<PaymentResponse>> getPaymentsPageForTenant(
+            @TenantId String tenantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+            log.debug("Retrieving payment page for tenant: {} after: {}", tenantId, cursor);
+            return ResponseEntity.ok(paymentService.findPageByTenantId(tenantId, after, CursorPage.clampLimit(limit))
+                    .map(PaymentResponse::from));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected payment page request for tenant: {} - {}", tenantId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping(value = "/tenant/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPaymentsForTenant(@TenantId String tenantId) {
+        log.debug("Streaming all payments for tenant: {}", tenantId);
+        StreamingResponseBody body = out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                paymentService.streamByTenantId(tenantId, payment -> writer.write(PaymentResponse.from(payment)));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
+    /**
+     * Server-sent stream of payment status changes for the tenant, optionally limited to one payment.
+     * Replaces polling the payment until its status changes.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStatusEvents(
+            @TenantId String tenantId,
+            @RequestParam(required = false) String paymentId) {
+        try {
+            log.debug("Opening status event stream for tenant: {} paymentId: {}", tenantId, paymentId);
+            SseEmitter emitter = SseEventSink.subscribe(statusEventHub, tenantId,
+                    event -> "payment".equals(event.entityType())
+                            && (paymentId == null || paymentId.equals(event.entityId())),
+                    eventHubSettings.getSubscriptionTimeout());
+            return ResponseEntity.ok(emitter);
+        } catch (IllegalStateException e) {
+            log.warn("Rejected status event stream for tenant: {} - {}", tenantId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
     }
     
     @PutMapping("/{paymentId}/status")
-    public ResponseEntity<Payment> updatePaymentStatus(
+    public ResponseEntity<PaymentResponse> updatePaymentStatus(
             @TenantId String tenantId,
             @PathVariable String paymentId,
             @RequestParam Payment.PaymentStatus status) {
@@ -76,10 +205,39 @@ public class PaymentController {
             log.info("Updating payment status: {} to {} for tenant: {}", paymentId, status, tenantId);
             Payment updatedPayment = paymentService.updatePaymentStatus(tenantId, paymentId, status);
             log.info("Payment status updated successfully: {} to {} for tenant: {}", paymentId, status, tenantId);
-            return ResponseEntity.ok(updatedPayment);
+            return ResponseEntity.ok(PaymentResponse.from(updatedPayment));
         } catch (RuntimeException e) {
             log.error("Failed to update payment status: {} for tenant: {} - {}", paymentId, tenantId, e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Moves the listed payments, or all payments in a given status, to a new status in chunked
+     * set-based updates. Answers with the outcome for every payment.
+     */
+    @PostMapping("/status/transition")
+    public ResponseEntity<BulkStatusChangeResult> changePaymentStatuses(
+            @TenantId String tenantId,
+            @RequestBody BulkStatusChangeRequest request) {
+        try {
+            log.info("Changing payment statuses to {} for tenant: {}", request.getStatus(), tenantId);
+            return ResponseEntity.ok(paymentService.changeStatuses(tenantId, request));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected bulk status change for tenant: {} - {}", tenantId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Bulk status updates relayed from processor-service. Safe to retry: updates that were
+     * already applied, or superseded by a newer one, are ignored.
+     */
+    @PostMapping("/status/bulk")
+    public ResponseEntity<BulkStatusUpdateResult> applyStatusUpdates(
+            @TenantId String tenantId,
+            @RequestBody List<PaymentStatusUpdate> updates) {
+        log.debug("Applying {} status updates for tenant: {}", updates.size(), tenantId);
+        return ResponseEntity.ok(paymentService.applyStatusUpdates(tenantId, updates));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.payment.event;
+
+import com.example.common.event.StatusChangeEvent;
+import com.example.common.event.TenantEventHub;
+import com.example.common.journal.TransitionJournal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Hands status changes to the event hub once the transaction that made them has committed,
+ * so subscribers never see a transition that was rolled back. Committed changes are also
+ * appended to the transition journal, when it is enabled.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatusEventRelay {
+    
+    private final TenantEventHub<StatusChangeEvent> statusEventHub;
+    private final ObjectProvider<TransitionJournal> transitionJournal;
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChange(StatusChangeEvent event) {
+        transitionJournal.ifAvailable(journal -> journal.append(event));
+        statusEventHub.publish(event);
+    }
+}
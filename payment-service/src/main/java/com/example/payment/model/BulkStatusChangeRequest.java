@@ -0,0 +1,25 @@
+package com.example.payment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Moves many payments of a tenant to {@link #status} at once: either the listed payments or
+ * every payment currently in {@link #fromStatus}. Exactly one of the two must be given.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkStatusChangeRequest {
+    
+    private Payment.PaymentStatus status;
+    
+    private List<String> paymentIds;
+    
+    private Payment.PaymentStatus fromStatus;
+}
@@ -0,0 +1,54 @@
+package com.example.payment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a {@link BulkStatusChangeRequest}: one item per distinct payment, and the count per outcome.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkStatusChangeResult {
+    
+    private Payment.PaymentStatus status;
+    
+    private int updated;
+    
+    /** Payments that already had the requested status. */
+    private int unchanged;
+    
+    private int notFound;
+    
+    /** Payments whose status cannot move to the requested one. */
+    private int invalidTransition;
+    
+    @Builder.Default
+    private List<Item> items = new ArrayList<>();
+    
+    public void add(Item item) {
+        items.add(item);
+        switch (item.outcome()) {
+            case UPDATED -> updated++;
+            case UNCHANGED -> unchanged++;
+            case NOT_FOUND -> notFound++;
+            case INVALID_TRANSITION -> invalidTransition++;
+        }
+    }
+    
+    /**
+     * @param previousStatus the payment's status before the change, {@code null} if it was not found
+     */
+    public record Item(String paymentId, Payment.PaymentStatus previousStatus, Outcome outcome) {
+    }
+    
+    public enum Outcome {
+        UPDATED, UNCHANGED, NOT_FOUND, INVALID_TRANSITION
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.payment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a bulk payment status update. Every received update falls in exactly one count.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkStatusUpdateResult {
+    
+    private int received;
+    
+    /** Updates that changed a payment. */
+    private int applied;
+    
+    /** Repeats or late arrivals, already superseded by a newer update. */
+    private int ignored;
+    
+    /** Updates for payments that do not exist in the tenant. */
+    private int notFound;
+    
+    /** Updates for another tenant or with an unknown status. */
+    private int rejected;
+    
+    /**
+     * Newer updates to a status the payment cannot move to from its current one, e.g. after a
+     * manual refund. Their sequence is recorded, so older updates are ignored too.
+     */
+    private int invalidTransition;
+}
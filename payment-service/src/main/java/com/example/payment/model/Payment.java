@@ -1,5 +1,6 @@
 package com.example.payment.model;
 
+import com.example.common.id.UuidBinaryConverter;
 import com.example.common.model.BaseEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
@@ -10,14 +11,22 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "payments")
 @Table(name = "payments", indexes = {
     @Index(name = "idx_payment_tenant_id", columnList = "tenantId"),
+    @Index(name = "idx_payment_tenant_payment", columnList = "tenantId, paymentId"),
     @Index(name = "idx_payment_tenant_customer", columnList = "tenantId, customerId"),
-    @Index(name = "idx_payment_tenant_status", columnList = "tenantId, status")
+    @Index(name = "idx_payment_tenant_status", columnList = "tenantId, status"),
+    @Index(name = "idx_payment_tenant_created", columnList = "tenantId, createdAt, paymentId"),
+    @Index(name = "idx_payment_tenant_customer_created", columnList = "tenantId, customerId, createdAt, paymentId"),
+    @Index(name = "uk_payment_tenant_idempotency_key", columnList = "tenantId, idempotencyKey", unique = true)
 })
 @Data
 @NoArgsConstructor
@@ -30,8 +39,10 @@ public class Payment extends BaseEntity {
     @Column(nullable = false, length = 100)
     private String tenantId;
     
+    /** Time-ordered UUID, stored as 16 bytes. */
     @NotBlank
-    @Column(nullable = false)
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(nullable = false, length = 16)
     private String paymentId;
     
     @NotNull
@@ -52,7 +63,32 @@ public class Payment extends BaseEntity {
     @Builder.Default
     private PaymentStatus status = PaymentStatus.PENDING;
     
+    /**
+     * Sequence of the last status update applied from processor-service.
+     * Updates with a lower or equal sequence are repeats or arrived late and are ignored.
+     */
+    private Long statusSequence;
+    
+    /**
+     * Client-supplied Idempotency-Key the payment was created with, if any. Unique per tenant.
+     */
+    private String idempotencyKey;
+    
     public enum PaymentStatus {
-        PENDING, PROCESSING, COMPLETED, FAILED, REFUNDED
+        PENDING, PROCESSING, COMPLETED, FAILED, REFUNDED;
+        
+        /**
+         * Transitions allowed by bulk status changes. Failed payments may be retried and only
+         * completed payments can be refunded; refunds are final.
+         */
+        public boolean canTransitionTo(PaymentStatus next) {
+            return switch (this) {
+                case PENDING -> next == PROCESSING || next == COMPLETED || next == FAILED;
+                case PROCESSING -> next == COMPLETED || next == FAILED;
+                case FAILED -> next == PENDING || next == PROCESSING;
+                case COMPLETED -> next == REFUNDED;
+                case REFUNDED -> false;
+            };
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.example.payment.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * API representation of a {@link Payment}.
+ * Copied from the entity before serialization, so the serializer never calls entity accessors
+ * or the Lombok-generated methods and the API shape does not follow every entity change.
+ */
+public record PaymentResponse(Long id,
+                              String tenantId,
+                              String paymentId,
+                              BigDecimal amount,
+                              String currency,
+                              String customerId,
+                              Payment.PaymentStatus status,
+                              Long statusSequence,
+                              String idempotencyKey,
+                              LocalDateTime createdAt,
+                              LocalDateTime updatedAt) {
+    
+    public static PaymentResponse from(Payment payment) {
+        return new PaymentResponse(payment.getId(), payment.getTenantId(), payment.getPaymentId(),
+                payment.getAmount(), payment.getCurrency(), payment.getCustomerId(), payment.getStatus(),
+                payment.getStatusSequence(), payment.getIdempotencyKey(),
+                payment.getCreatedAt(), payment.getUpdatedAt());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.payment.model;
+
+import com.example.common.model.BaseEntity;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Running count and amount of a tenant's payments in one currency and status.
+ * 
+ * Kept up to date in the same transaction as every payment write, so reading a tenant's totals
+ * costs the same no matter how many payments it has. Each (tenant, currency, status) is spread
+ * over a few stripe rows, so concurrent writes of one tenant rarely wait on the same row.
+ */
+@Entity
+@Table(name = "payment_summaries", indexes = {
+    @Index(name = "uk_payment_summary_key", columnList = "tenantId, currency, status, stripe", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = false)
+public class PaymentSummary extends BaseEntity {
+    
+    @NotBlank
+    @Column(nullable = false, length = 100)
+    private String tenantId;
+    
+    @NotBlank
+    @Column(nullable = false)
+    private String currency;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Payment.PaymentStatus status;
+    
+    @Column(nullable = false)
+    private int stripe;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private long paymentCount = 0;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+}
@@ -0,0 +1,9 @@
+package com.example.payment.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Number and total amount of a tenant's payments in one currency and status.
+ */
+public record PaymentTotal(String currency, Payment.PaymentStatus status, Long count, BigDecimal totalAmount) {
+}
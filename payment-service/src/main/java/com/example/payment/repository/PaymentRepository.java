@@ -1,21 +1,129 @@
 package com.example.payment.repository;
 
 import com.example.payment.model.Payment;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
-    // Tenant-aware query methods for multi-tenant isolation
+    // Tenant-aware query methods for multi-tenant isolation; the cacheable ones use the query cache
+    // when it is enabled (prod profile) and are invalidated by any write to the payments table
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "payment-queries")
+    })
     Optional<Payment> findByTenantIdAndPaymentId(String tenantId, String paymentId);
     
+    Optional<Payment> findByTenantIdAndIdempotencyKey(String tenantId, String idempotencyKey);
+    
     List<Payment> findByTenantIdAndCustomerId(String tenantId, String customerId);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "payment-queries")
+    })
     List<Payment> findByTenantIdAndStatus(String tenantId, Payment.PaymentStatus status);
     
     List<Payment> findByTenantId(String tenantId);
-}
\ No newline at end of file
+    
+    List<Payment> findByTenantIdAndPaymentIdIn(String tenantId, Collection<String> paymentIds);
+    
+    // Locking reads for status changes, so the status a change starts from cannot move underneath it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Payment p where p.tenantId = :tenantId and p.paymentId = :paymentId")
+    Optional<Payment> findForUpdate(@Param("tenantId") String tenantId, @Param("paymentId") String paymentId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Payment p where p.tenantId = :tenantId and p.paymentId in :paymentIds order by p.paymentId")
+    List<Payment> findAllForUpdate(@Param("tenantId") String tenantId, @Param("paymentIds") Collection<String> paymentIds);
+    
+    // Keyset pagination on (tenantId, createdAt, paymentId): first page, then pages after a cursor
+    List<Payment> findByTenantIdOrderByCreatedAtAscPaymentIdAsc(String tenantId, Limit limit);
+    
+    @Query("select p from Payment p where p.tenantId = :tenantId " +
+           "and (p.createdAt > :createdAt or (p.createdAt = :createdAt and p.paymentId > :paymentId)) " +
+           "order by p.createdAt asc, p.paymentId asc")
+    List<Payment> findByTenantIdAfter(@Param("tenantId") String tenantId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("paymentId") String paymentId,
+                                      Limit limit);
+    
+    List<Payment> findByTenantIdAndCustomerIdOrderByCreatedAtAscPaymentIdAsc(String tenantId, String customerId, Limit limit);
+    
+    @Query("select p from Payment p where p.tenantId = :tenantId and p.customerId = :customerId " +
+           "and (p.createdAt > :createdAt or (p.createdAt = :createdAt and p.paymentId > :paymentId)) " +
+           "order by p.createdAt asc, p.paymentId asc")
+    List<Payment> findByTenantIdAndCustomerIdAfter(@Param("tenantId") String tenantId,
+                                                   @Param("customerId") String customerId,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("paymentId") String paymentId,
+                                                   Limit limit);
+    
+    // Streaming variants: rows are fetched from the cursor in chunks and must be consumed inside a transaction
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Payment> streamByTenantIdOrderByCreatedAtAscPaymentIdAsc(String tenantId);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Payment> streamByTenantIdAndCustomerIdOrderByCreatedAtAscPaymentIdAsc(String tenantId, String customerId);
+    
+    // Bulk status changes: payment IDs per status in keyset order, then one update per chunk and previous status
+    @Query("select p.paymentId from Payment p where p.tenantId = :tenantId and p.status = :status " +
+           "and p.paymentId > :after order by p.paymentId")
+    List<String> findPaymentIdsByStatus(@Param("tenantId") String tenantId,
+                                        @Param("status") Payment.PaymentStatus status,
+                                        @Param("after") String after,
+                                        Limit limit);
+    
+    // Leaves statusSequence alone: relayed updates newer than the last one applied still apply
+    // afterwards, as long as the payment may move to their status
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Payment p set p.status = :status, p.updatedAt = :updatedAt " +
+           "where p.tenantId = :tenantId and p.paymentId in :paymentIds and p.status = :previous")
+    int changeStatus(@Param("tenantId") String tenantId,
+                     @Param("paymentIds") Collection<String> paymentIds,
+                     @Param("previous") Payment.PaymentStatus previous,
+                     @Param("status") Payment.PaymentStatus status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Applies a relayed status update only if it is newer than the last one applied to the payment
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Payment p set p.status = :status, p.statusSequence = :sequence, p.updatedAt = :updatedAt " +
+           "where p.tenantId = :tenantId and p.paymentId = :paymentId " +
+           "and (p.statusSequence is null or p.statusSequence < :sequence)")
+    int applyStatusUpdate(@Param("tenantId") String tenantId,
+                          @Param("paymentId") String paymentId,
+                          @Param("status") Payment.PaymentStatus status,
+                          @Param("sequence") long sequence,
+                          @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Records a relayed update that does not change the status, so older updates behind it are ignored
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Payment p set p.statusSequence = :sequence " +
+           "where p.tenantId = :tenantId and p.paymentId = :paymentId " +
+           "and (p.statusSequence is null or p.statusSequence < :sequence)")
+    int skipStatusUpdate(@Param("tenantId") String tenantId,
+                         @Param("paymentId") String paymentId,
+                         @Param("sequence") long sequence);
+}
@@ -0,0 +1,38 @@
+package com.example.payment.repository;
+
+import com.example.payment.model.Payment;
+import com.example.payment.model.PaymentSummary;
+import com.example.payment.model.PaymentTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentSummaryRepository extends JpaRepository<PaymentSummary, Long> {
+    
+    // Adds to one stripe row in place; 0 if the row does not exist yet
+    @Modifying
+    @Query("update PaymentSummary s set s.paymentCount = s.paymentCount + :count, " +
+           "s.totalAmount = s.totalAmount + :amount, s.updatedAt = :updatedAt " +
+           "where s.tenantId = :tenantId and s.currency = :currency and s.status = :status and s.stripe = :stripe")
+    int increment(@Param("tenantId") String tenantId,
+                  @Param("currency") String currency,
+                  @Param("status") Payment.PaymentStatus status,
+                  @Param("stripe") int stripe,
+                  @Param("count") long count,
+                  @Param("amount") BigDecimal amount,
+                  @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Folds the stripes; reads at most currencies x statuses x stripes rows
+    @Query("select new com.example.payment.model.PaymentTotal(s.currency, s.status, sum(s.paymentCount), sum(s.totalAmount)) " +
+           "from PaymentSummary s where s.tenantId = :tenantId " +
+           "group by s.currency, s.status having sum(s.paymentCount) > 0 " +
+           "order by s.currency, s.status")
+    List<PaymentTotal> findTotalsByTenantId(@Param("tenantId") String tenantId);
+}
@@ -1,17 +1,46 @@
 package com.example.payment.service;
 
+import com.example.common.cache.TenantScopedCache;
+import com.example.common.cache.TenantSingleFlight;
+import com.example.common.event.PaymentStatusUpdate;
+import com.example.common.event.StatusChangeEvent;
+import com.example.common.id.TimeOrderedIds;
+import com.example.common.idempotency.IdempotencyStore;
+import com.example.common.pagination.CursorPage;
+import com.example.common.pagination.KeysetCursor;
 import com.example.common.util.DateUtils;
+import com.example.payment.model.BulkStatusChangeRequest;
+import com.example.payment.model.BulkStatusChangeResult;
+import com.example.payment.model.BulkStatusUpdateResult;
 import com.example.payment.model.Payment;
+import com.example.payment.model.PaymentResponse;
+import com.example.payment.model.PaymentTotal;
 import com.example.payment.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.example.common.util.TransactionUtils.afterCommit;
 
 @Slf4j
 @Service
@@ -20,52 +49,383 @@ import java.util.UUID;
 public class PaymentService {
     
     private final PaymentRepository paymentRepository;
+    private final TenantScopedCache<String, PaymentResponse> paymentCache;
+    private final TenantSingleFlight<String, Optional<PaymentResponse>> paymentLookups;
+    private final TenantSingleFlight<String, List<Payment>> paymentListLookups;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IdempotencyStore<Payment> paymentIdempotencyStore;
+    private final PaymentSummaryService paymentSummaryService;
+    private final TransactionTemplate transactionTemplate;
+    
+    /** Sorts before every payment ID in the binary paymentId column. */
+    private static final String FIRST_PAYMENT_ID = "00000000-0000-0000-0000-000000000000";
+    
+    /** Payments changed per statement and transaction by {@link #changeStatuses}. */
+    @Value("${payments.bulk-status.chunk-size:500}")
+    private int bulkChunkSize;
+    
+    @Value("${payments.bulk-status.max-payment-ids:10000}")
+    private int bulkMaxPaymentIds;
     
     public Payment createPayment(Payment payment) {
+        Payment saved = save(newPayment(payment, null));
+        afterCommit(() -> paymentCache.put(saved.getTenantId(), saved.getPaymentId(), PaymentResponse.from(saved)));
+        return saved;
+    }
+    
+    /**
+     * Creates the payment once per tenant and idempotency key; a retry with the same key gets the
+     * original payment back. Replays are answered from memory or a read-only lookup and never
+     * take a write transaction; only the insert itself runs in one.
+     *
+     * @throws IllegalStateException if the key was already used for a different payment
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public IdempotencyStore.Result<Payment> createPayment(Payment payment, String idempotencyKey) {
+        String tenantId = payment.getTenantId();
+        IdempotencyStore.Result<Payment> result = paymentIdempotencyStore.execute(tenantId, idempotencyKey,
+                () -> paymentRepository.findByTenantIdAndIdempotencyKey(tenantId, idempotencyKey),
+                () -> {
+                    Payment saved = transactionTemplate.execute(status -> save(newPayment(payment, idempotencyKey)));
+                    paymentCache.put(tenantId, saved.getPaymentId(), PaymentResponse.from(saved));
+                    return saved;
+                });
+        
+        if (result.replayed() && !isSameRequest(result.value(), payment)) {
+            throw new IllegalStateException("Idempotency key " + idempotencyKey + " was already used for payment " +
+                    result.value().getPaymentId() + " with different parameters");
+        }
+        if (result.replayed()) {
+            log.info("Replaying payment {} for idempotency key {} in tenant {}",
+                       result.value().getPaymentId(), idempotencyKey, tenantId);
+        }
+        return result;
+    }
+    
+    /**
+     * Served from the tenant-scoped cache when possible. Runs without a transaction of its own,
+     * so a cache hit never takes a database connection. Concurrent misses for the same payment
+     * share one query.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<PaymentResponse> findByPaymentId(String tenantId, String paymentId) {
+        return paymentCache.get(tenantId, paymentId, () -> paymentLookups.execute(tenantId, paymentId,
+                () -> paymentRepository.findByTenantIdAndPaymentId(tenantId, paymentId).map(PaymentResponse::from)));
+    }
+    
+    /**
+     * Concurrent calls for the same customer share one query; the list must not be modified.
+     * Like the lookups below, runs without a transaction of its own, so callers waiting for a
+     * shared query hold no database connection.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Payment> findByCustomerId(String tenantId, String customerId) {
+        return paymentListLookups.execute(tenantId, "customer:" + customerId,
+                () -> paymentRepository.findByTenantIdAndCustomerId(tenantId, customerId));
+    }
+    
+    /**
+     * Concurrent calls for the same tenant share one query; the list must not be modified.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Payment> findByTenantId(String tenantId) {
+        return paymentListLookups.execute(tenantId, "tenant", () -> paymentRepository.findByTenantId(tenantId));
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<Payment> findPageByTenantId(String tenantId, KeysetCursor after, int limit) {
+        Limit fetch = Limit.of(limit + 1);
+        List<Payment> rows = after == null
+                ? paymentRepository.findByTenantIdOrderByCreatedAtAscPaymentIdAsc(tenantId, fetch)
+                : paymentRepository.findByTenantIdAfter(tenantId, after.createdAt(), after.id(), fetch);
+        return CursorPage.of(rows, limit, PaymentService::cursorOf);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<Payment> findPageByCustomerId(String tenantId, String customerId, KeysetCursor after, int limit) {
+        Limit fetch = Limit.of(limit + 1);
+        List<Payment> rows = after == null
+                ? paymentRepository.findByTenantIdAndCustomerIdOrderByCreatedAtAscPaymentIdAsc(tenantId, customerId, fetch)
+                : paymentRepository.findByTenantIdAndCustomerIdAfter(tenantId, customerId, after.createdAt(), after.id(), fetch);
+        return CursorPage.of(rows, limit, PaymentService::cursorOf);
+    }
+    
+    /**
+     * Streams every payment of a tenant to {@code sink} in (createdAt, paymentId) order.
+     * Each row is detached once written, so heap use stays flat regardless of tenant size.
+     */
+    @Transactional(readOnly = true)
+    public void streamByTenantId(String tenantId, Consumer<Payment> sink) {
+        try (Stream<Payment> payments = paymentRepository.streamByTenantIdOrderByCreatedAtAscPaymentIdAsc(tenantId)) {
+            payments.forEach(payment -> {
+                sink.accept(payment);
+                entityManager.detach(payment);
+            });
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamByCustomerId(String tenantId, String customerId, Consumer<Payment> sink) {
+        try (Stream<Payment> payments =
+                     paymentRepository.streamByTenantIdAndCustomerIdOrderByCreatedAtAscPaymentIdAsc(tenantId, customerId)) {
+            payments.forEach(payment -> {
+                sink.accept(payment);
+                entityManager.detach(payment);
+            });
+        }
+    }
+    
+    /**
+     * Payment count and total amount of the tenant per currency and status. Reads the incrementally
+     * maintained summary rather than the payments, so it costs the same for any number of payments.
+     */
+    @Transactional(readOnly = true)
+    public List<PaymentTotal> findTotals(String tenantId) {
+        return paymentSummaryService.findTotals(tenantId);
+    }
+    
+    public Payment updatePaymentStatus(String tenantId, String paymentId, Payment.PaymentStatus status) {
+        Payment payment = paymentRepository.findForUpdate(tenantId, paymentId)
+                .orElseThrow(() -> new RuntimeException("Payment not found: " + paymentId + " for tenant: " + tenantId));
+        
+        Payment.PaymentStatus previous = payment.getStatus();
+        payment.setStatus(status);
+        payment.setUpdatedAt(LocalDateTime.now());
+        
+        log.info("Updated payment {} status to {} for tenant {} at {}", 
+                   paymentId, status, tenantId, DateUtils.lazyNow());
+        
+        Payment saved = paymentRepository.saveAndFlush(payment);
+        paymentSummaryService.apply(tenantId, new PaymentSummaryService.Changes().statusChanged(saved, previous, status));
+        afterCommit(() -> paymentCache.put(tenantId, paymentId, PaymentResponse.from(saved)));
+        eventPublisher.publishEvent(new StatusChangeEvent(tenantId, "payment", paymentId,
+                previous == null ? null : previous.name(), status.name(), Instant.now()));
+        return saved;
+    }
+    
+    /**
+     * Applies status updates relayed from processor-service in one transaction.
+     * 
+     * Delivery is at least once, so each update is applied only if its sequence is higher than
+     * the last one applied to the payment; repeats, late arrivals and updates to the status the
+     * payment already has are counted and ignored.
+     * Updates follow the same transition rules as bulk status changes: a manual change such as a
+     * refund wins over any later update that could not move the payment out of its new status.
+     */
+    public BulkStatusUpdateResult applyStatusUpdates(String tenantId, List<PaymentStatusUpdate> updates) {
+        Map<String, Payment> payments = new HashMap<>();
+        Map<String, Payment.PaymentStatus> previous = new HashMap<>();
+        for (Payment payment : paymentRepository.findAllForUpdate(tenantId,
+                updates.stream().map(PaymentStatusUpdate::paymentId).toList())) {
+            payments.put(payment.getPaymentId(), payment);
+            previous.put(payment.getPaymentId(), payment.getStatus());
+        }
+        PaymentSummaryService.Changes summaryChanges = new PaymentSummaryService.Changes();
+        
+        BulkStatusUpdateResult result = BulkStatusUpdateResult.builder().received(updates.size()).build();
+        LocalDateTime now = LocalDateTime.now();
+        for (PaymentStatusUpdate update : updates) {
+            Payment.PaymentStatus status = parseStatus(update.status());
+            if (!tenantId.equals(update.tenantId()) || status == null) {
+                log.warn("Rejected status update {} for payment {} in tenant {}", update.status(), update.paymentId(), tenantId);
+                result.setRejected(result.getRejected() + 1);
+                continue;
+            }
+            if (!previous.containsKey(update.paymentId())) {
+                result.setNotFound(result.getNotFound() + 1);
+                continue;
+            }
+            // The rows are locked, so the status read above is still current
+            Payment.PaymentStatus current = previous.get(update.paymentId());
+            if (current == status) {
+                // Already in this status: only the sequence moves, so nothing changes for readers
+                paymentRepository.skipStatusUpdate(tenantId, update.paymentId(), update.sequence());
+                result.setIgnored(result.getIgnored() + 1);
+                continue;
+            }
+            if (!current.canTransitionTo(status)) {
+                if (paymentRepository.skipStatusUpdate(tenantId, update.paymentId(), update.sequence()) == 0) {
+                    result.setIgnored(result.getIgnored() + 1);
+                } else {
+                    log.warn("Payment {} in tenant {} cannot move from {} to {}; status update not applied",
+                               update.paymentId(), tenantId, current, status);
+                    result.setInvalidTransition(result.getInvalidTransition() + 1);
+                }
+                continue;
+            }
+            if (paymentRepository.applyStatusUpdate(tenantId, update.paymentId(), status, update.sequence(), now) == 0) {
+                result.setIgnored(result.getIgnored() + 1);
+                continue;
+            }
+            
+            result.setApplied(result.getApplied() + 1);
+            String paymentId = update.paymentId();
+            afterCommit(() -> paymentCache.invalidate(tenantId, paymentId));
+            eventPublisher.publishEvent(new StatusChangeEvent(tenantId, "payment", paymentId,
+                    previous.get(paymentId).name(), status.name(), Instant.now()));
+            summaryChanges.statusChanged(payments.get(paymentId), previous.get(paymentId), status);
+            previous.put(paymentId, status);
+        }
+        paymentSummaryService.apply(tenantId, summaryChanges);
+        
+        log.info("Applied {} of {} status updates for tenant {} ({} ignored, {} not found, {} rejected, {} invalid transitions)",
+                   result.getApplied(), result.getReceived(), tenantId,
+                   result.getIgnored(), result.getNotFound(), result.getRejected(), result.getInvalidTransition());
+        return result;
+    }
+    
+    /**
+     * Moves the requested payments to a new status with set-based updates instead of one read
+     * and write per payment. Payments are handled in chunks of {@code payments.bulk-status.chunk-size},
+     * each in its own transaction: the chunk's rows are locked and read once, then updated with one
+     * statement per previous status. A chunk that fails rolls back alone; earlier chunks stay applied.
+     *
+     * @throws IllegalArgumentException if the request names no target status, both or neither of payment IDs
+     *                                  and a status filter, too many payment IDs, or a filter that cannot
+     *                                  move to the target status
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkStatusChangeResult changeStatuses(String tenantId, BulkStatusChangeRequest request) {
+        Payment.PaymentStatus status = request.getStatus();
+        List<String> paymentIds = request.getPaymentIds();
+        Payment.PaymentStatus fromStatus = request.getFromStatus();
+        if (status == null) {
+            throw new IllegalArgumentException("Target status is required");
+        }
+        if ((paymentIds == null || paymentIds.isEmpty()) == (fromStatus == null)) {
+            throw new IllegalArgumentException("Exactly one of paymentIds and fromStatus is required");
+        }
+        if (paymentIds != null && paymentIds.size() > bulkMaxPaymentIds) {
+            throw new IllegalArgumentException("At most " + bulkMaxPaymentIds + " payment IDs per request");
+        }
+        if (fromStatus != null && !fromStatus.canTransitionTo(status)) {
+            throw new IllegalArgumentException("Payments cannot move from " + fromStatus + " to " + status);
+        }
+        
+        BulkStatusChangeResult result = BulkStatusChangeResult.builder().status(status).build();
+        if (paymentIds != null) {
+            List<String> distinct = List.copyOf(new LinkedHashSet<>(paymentIds));
+            for (int from = 0; from < distinct.size(); from += bulkChunkSize) {
+                List<String> chunk = distinct.subList(from, Math.min(from + bulkChunkSize, distinct.size()));
+                transactionTemplate.execute(tx -> changeStatusChunk(tenantId, chunk, status))
+                        .forEach(result::add);
+            }
+        } else {
+            // Keyset over payment IDs, so payments left in fromStatus by a failed transition are not read twice
+            String after = FIRST_PAYMENT_ID;
+            List<String> chunk;
+            do {
+                chunk = paymentRepository.findPaymentIdsByStatus(tenantId, fromStatus, after, Limit.of(bulkChunkSize));
+                if (!chunk.isEmpty()) {
+                    List<String> ids = chunk;
+                    transactionTemplate.execute(tx -> changeStatusChunk(tenantId, ids, status))
+                            .forEach(result::add);
+                    after = chunk.get(chunk.size() - 1);
+                }
+            } while (chunk.size() == bulkChunkSize);
+        }
+        
+        log.info("Changed {} payments to {} for tenant {} ({} unchanged, {} not found, {} invalid transitions)",
+                   result.getUpdated(), status, tenantId,
+                   result.getUnchanged(), result.getNotFound(), result.getInvalidTransition());
+        return result;
+    }
+    
+    private List<BulkStatusChangeResult.Item> changeStatusChunk(String tenantId, List<String> paymentIds,
+                                                                Payment.PaymentStatus status) {
+        Map<String, Payment> payments = new HashMap<>();
+        for (Payment payment : paymentRepository.findAllForUpdate(tenantId, paymentIds)) {
+            payments.put(payment.getPaymentId(), payment);
+        }
+        
+        Map<Payment.PaymentStatus, List<Payment>> byPrevious = new EnumMap<>(Payment.PaymentStatus.class);
+        for (Payment payment : payments.values()) {
+            if (payment.getStatus() != status && payment.getStatus().canTransitionTo(status)) {
+                byPrevious.computeIfAbsent(payment.getStatus(), previous -> new ArrayList<>()).add(payment);
+            }
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        PaymentSummaryService.Changes summaryChanges = new PaymentSummaryService.Changes();
+        byPrevious.forEach((previous, group) -> {
+            // The rows are locked, so the update matches every payment read in this status
+            paymentRepository.changeStatus(tenantId, group.stream().map(Payment::getPaymentId).toList(),
+                    previous, status, now);
+            for (Payment payment : group) {
+                summaryChanges.statusChanged(payment, previous, status);
+                eventPublisher.publishEvent(new StatusChangeEvent(tenantId, "payment", payment.getPaymentId(),
+                        previous.name(), status.name(), Instant.now()));
+            }
+        });
+        paymentSummaryService.apply(tenantId, summaryChanges);
+        
+        List<BulkStatusChangeResult.Item> items = new ArrayList<>(paymentIds.size());
+        List<String> changed = new ArrayList<>();
+        for (String paymentId : paymentIds) {
+            Payment payment = payments.get(paymentId);
+            BulkStatusChangeResult.Outcome outcome;
+            if (payment == null) {
+                outcome = BulkStatusChangeResult.Outcome.NOT_FOUND;
+            } else if (payment.getStatus() == status) {
+                outcome = BulkStatusChangeResult.Outcome.UNCHANGED;
+            } else if (!payment.getStatus().canTransitionTo(status)) {
+                outcome = BulkStatusChangeResult.Outcome.INVALID_TRANSITION;
+            } else {
+                outcome = BulkStatusChangeResult.Outcome.UPDATED;
+                changed.add(paymentId);
+            }
+            items.add(new BulkStatusChangeResult.Item(paymentId, payment == null ? null : payment.getStatus(), outcome));
+        }
+        afterCommit(() -> changed.forEach(paymentId -> paymentCache.invalidate(tenantId, paymentId)));
+        return items;
+    }
+    
+    private Payment save(Payment payment) {
+        Payment saved = paymentRepository.save(payment);
+        paymentSummaryService.apply(saved.getTenantId(), new PaymentSummaryService.Changes().created(saved));
+        return saved;
+    }
+    
+    private Payment newPayment(Payment payment, String idempotencyKey) {
         // Demonstrate Lombok's generated builder pattern and methods
         Payment enrichedPayment = Payment.builder()
                 .tenantId(payment.getTenantId())
-                .paymentId(UUID.randomUUID().toString())
+                .paymentId(TimeOrderedIds.newId())
                 .amount(payment.getAmount())
                 .currency(payment.getCurrency())
                 .customerId(payment.getCustomerId())
                 .status(Payment.PaymentStatus.PENDING)
+                .idempotencyKey(idempotencyKey)
                 .build();
         
         enrichedPayment.setCreatedAt(LocalDateTime.now());
         
         log.info("Creating payment {} at {}", 
                    enrichedPayment.getPaymentId(), 
-                   DateUtils.format(enrichedPayment.getCreatedAt()));
-        
-        // Demonstrate Lombok's generated toString method
-        log.debug("Payment details: {}", enrichedPayment.toString());
+                   DateUtils.lazyFormat(enrichedPayment.getCreatedAt()));
         
-        return paymentRepository.save(enrichedPayment);
+        // Lombok's generated toString method only runs if debug logging is enabled
+        log.debug("Payment details: {}", enrichedPayment);
+        return enrichedPayment;
     }
     
-    public Optional<Payment> findByPaymentId(String tenantId, String paymentId) {
-        return paymentRepository.findByTenantIdAndPaymentId(tenantId, paymentId);
+    private static boolean isSameRequest(Payment stored, Payment requested) {
+        return Objects.equals(stored.getCustomerId(), requested.getCustomerId())
+                && Objects.equals(stored.getCurrency(), requested.getCurrency())
+                && stored.getAmount() != null && requested.getAmount() != null
+                && stored.getAmount().compareTo(requested.getAmount()) == 0;
     }
     
-    public List<Payment> findByCustomerId(String tenantId, String customerId) {
-        return paymentRepository.findByTenantIdAndCustomerId(tenantId, customerId);
-    }
-    
-    public List<Payment> findByTenantId(String tenantId) {
-        return paymentRepository.findByTenantId(tenantId);
+    private static Payment.PaymentStatus parseStatus(String status) {
+        try {
+            return status == null ? null : Payment.PaymentStatus.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
     
-    public Payment updatePaymentStatus(String tenantId, String paymentId, Payment.PaymentStatus status) {
-        Payment payment = paymentRepository.findByTenantIdAndPaymentId(tenantId, paymentId)
-                .orElseThrow(() -> new RuntimeException("Payment not found: " + paymentId + " for tenant: " + tenantId));
-        
-        payment.setStatus(status);
-        payment.setUpdatedAt(LocalDateTime.now());
-        
-        log.info("Updated payment {} status to {} for tenant {} at {}", 
-                   paymentId, status, tenantId, DateUtils.formatNow());
-        
-        return paymentRepository.save(payment);
+    private static KeysetCursor cursorOf(Payment payment) {
+        return new KeysetCursor(payment.getCreatedAt(), payment.getPaymentId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+package com.example.payment.service;
+
+import com.example.common.shard.ShardContext;
+import com.example.common.shard.ShardSchemaInitializer;
+import com.example.common.shard.TenantShardRouter;
+import com.example.payment.model.Payment;
+import com.example.payment.model.PaymentSummary;
+import com.example.payment.model.PaymentTotal;
+import com.example.payment.repository.PaymentSummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-tenant payment totals by currency and status, maintained incrementally in {@link PaymentSummary} rows.
+ * 
+ * Payment writes collect their effect on the totals in {@link Changes} and {@link #apply} them in
+ * the same transaction, after the payment rows themselves have been written. Changes are applied
+ * in (currency, status) order, so transactions touching the same rows always lock them in the
+ * same order, and all of one transaction's changes go to one randomly chosen stripe.
+ * 
+ * A missing stripe row is created by a {@code MERGE} on the payment write's own connection, so
+ * applying changes never needs a second pooled connection. On a shard whose rollup is still empty,
+ * existing payments are counted once at startup, before the service takes requests.
+ */
+@Slf4j
+@Service
+public class PaymentSummaryService implements SmartInitializingSingleton {
+    
+    // Counts existing payments into stripe 0. Two nodes starting at once insert the same keys,
+    // so the second one fails on the unique key and rolls back instead of counting twice.
+    private static final String BACKFILL_SQL =
+            "insert into payment_summaries (id, tenant_id, currency, status, stripe, payment_count, total_amount, " +
+            "created_at, updated_at) " +
+            "select next value for payment_summaries_seq, t.tenant_id, t.currency, t.status, 0, t.payment_count, " +
+            "t.total_amount, ?, ? from (" +
+            "select tenant_id, currency, status, count(*) payment_count, sum(amount) total_amount from payments " +
+            "where not exists (select 1 from payment_summaries) group by tenant_id, currency, status) t";
+    
+    private static final String MERGE_SQL =
+            "merge into payment_summaries s using (values (?, ?, ?, ?)) k(tenant_id, currency, status, stripe) " +
+            "on s.tenant_id = k.tenant_id and s.currency = k.currency and s.status = k.status and s.stripe = k.stripe " +
+            "when matched then update set payment_count = s.payment_count + ?, total_amount = s.total_amount + ?, " +
+            "updated_at = ? " +
+            "when not matched then insert (id, tenant_id, currency, status, stripe, payment_count, total_amount, " +
+            "created_at, updated_at) values (next value for payment_summaries_seq, k.tenant_id, k.currency, k.status, " +
+            "k.stripe, ?, ?, ?, ?)";
+    
+    private final PaymentSummaryRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<TenantShardRouter> shardRouter;
+    private final ObjectProvider<ShardSchemaInitializer> shardSchemaInitializer;
+    private final int stripes;
+    
+    public PaymentSummaryService(PaymentSummaryRepository repository,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectProvider<TenantShardRouter> shardRouter,
+                                 ObjectProvider<ShardSchemaInitializer> shardSchemaInitializer,
+                                 @Value("${payments.summary.stripes:4}") int stripes) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.shardSchemaInitializer = shardSchemaInitializer;
+        this.stripes = Math.max(1, stripes);
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        TenantShardRouter router = shardRouter.getIfAvailable();
+        if (router == null) {
+            backfill();
+            return;
+        }
+        // Shards created after the rollup was added have no payment_summaries table until then
+        shardSchemaInitializer.ifAvailable(ShardSchemaInitializer::initialize);
+        for (String shard : router.getShardNames()) {
+            ShardContext.runIn(shard, this::backfill);
+        }
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(String tenantId, Changes changes) {
+        if (changes.deltas.isEmpty()) {
+            return;
+        }
+        int stripe = ThreadLocalRandom.current().nextInt(stripes);
+        LocalDateTime now = LocalDateTime.now();
+        changes.deltas.forEach((key, delta) -> {
+            if (delta.count == 0 && delta.amount.signum() == 0) {
+                return;
+            }
+            if (repository.increment(tenantId, key.currency(), key.status(), stripe, delta.count, delta.amount, now) == 0) {
+                merge(tenantId, key, stripe, delta, now);
+            }
+        });
+    }
+    
+    @Transactional(readOnly = true)
+    public List<PaymentTotal> findTotals(String tenantId) {
+        return repository.findTotalsByTenantId(tenantId);
+    }
+    
+    // Runs on the payment write's connection through JDBC, so a concurrent creator's duplicate fails
+    // only this statement (H2 keeps the transaction) and does not mark the JPA transaction rollback-only
+    private void merge(String tenantId, Key key, int stripe, Delta delta, LocalDateTime now) {
+        Object[] args = {tenantId, key.currency(), key.status().name(), stripe,
+                delta.count, delta.amount, now,
+                delta.count, delta.amount, now, now};
+        try {
+            jdbcTemplate.update(MERGE_SQL, args);
+            log.debug("Created payment summary row {} {} stripe {} for tenant {}", key.currency(), key.status(), stripe, tenantId);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Payment summary row {} {} stripe {} for tenant {} created concurrently", key.currency(), key.status(), stripe, tenantId);
+            jdbcTemplate.update(MERGE_SQL, args);
+        }
+    }
+    
+    private void backfill() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            Integer rows = transactionTemplate.execute(status -> jdbcTemplate.update(BACKFILL_SQL, now, now));
+            if (rows != null && rows > 0) {
+                log.info("Counted existing payments into {} payment summary rows", rows);
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.info("Payment summaries were filled in by another node");
+        }
+    }
+    
+    /**
+     * Net effect of one transaction's payment writes on the totals, keyed by currency and status.
+     */
+    public static final class Changes {
+        
+        private final Map<Key, Delta> deltas = new TreeMap<>(Key.ORDER);
+        
+        public Changes created(Payment payment) {
+            return add(payment.getCurrency(), payment.getStatus(), 1, payment.getAmount());
+        }
+        
+        public Changes statusChanged(Payment payment, Payment.PaymentStatus from, Payment.PaymentStatus to) {
+            if (from == to) {
+                return this;
+            }
+            add(payment.getCurrency(), from, -1, payment.getAmount().negate());
+            return add(payment.getCurrency(), to, 1, payment.getAmount());
+        }
+        
+        private Changes add(String currency, Payment.PaymentStatus status, long count, BigDecimal amount) {
+            Delta delta = deltas.computeIfAbsent(new Key(currency, status), key -> new Delta());
+            delta.count += count;
+            delta.amount = delta.amount.add(amount);
+            return this;
+        }
+    }
+    
+    private record Key(String currency, Payment.PaymentStatus status) {
+        private static final Comparator<Key> ORDER =
+                Comparator.comparing(Key::currency).thenComparing(Key::status);
+    }
+    
+    private static final class Delta {
+        private long count;
+        private BigDecimal amount = BigDecimal.ZERO;
+    }
+}
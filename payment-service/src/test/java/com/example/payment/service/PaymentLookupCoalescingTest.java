@@ -0,0 +1,150 @@
+package com.example.payment.service;
+
+import com.example.common.cache.TenantScopedCache;
+import com.example.payment.model.Payment;
+import com.example.payment.model.PaymentResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hot-key stress test for request coalescing: {@value #CALLERS} callers look up the same payment at
+ * the same moment, {@value #ROUNDS} times, with the payment cache cleared before each round.
+ *
+ * The repository query is held until every other caller has joined it, so each round is one
+ * in-flight window however the threads are scheduled. Each round must cost one query, and every
+ * caller in it must get the same result.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:payment-coalescing-test",
+                "logging.level.com.example=WARN"
+        })
+class PaymentLookupCoalescingTest {
+
+    private static final int CALLERS = 64;
+    private static final int ROUNDS = 20;
+    private static final String TENANT = "hot-tenant";
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private TenantScopedCache<String, PaymentResponse> paymentCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private HeldLookups heldLookups;
+
+    @Test
+    void concurrentLookupsOfOneHotPaymentShareOneQueryPerWindow() throws Exception {
+        Payment hot = paymentService.createPayment(Payment.builder()
+                .tenantId(TENANT)
+                .amount(new BigDecimal("10.00"))
+                .currency("USD")
+                .customerId("hot-customer")
+                .build());
+        String paymentId = hot.getPaymentId();
+        FunctionCounter joined = meterRegistry.get("single.flight.calls")
+                .tags("flight", "payments", "result", "joined")
+                .functionCounter();
+
+        ExecutorService threads = Executors.newFixedThreadPool(CALLERS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                paymentCache.invalidateTenant(TENANT);
+                double joinedBefore = joined.count();
+                heldLookups.holdUntil(() -> joined.count() - joinedBefore >= CALLERS - 1);
+
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<Optional<PaymentResponse>>> calls = new ArrayList<>(CALLERS);
+                for (int i = 0; i < CALLERS; i++) {
+                    calls.add(threads.submit(() -> {
+                        go.await();
+                        return paymentService.findByPaymentId(TENANT, paymentId);
+                    }));
+                }
+                go.countDown();
+
+                Optional<PaymentResponse> first = calls.get(0).get(10, TimeUnit.SECONDS);
+                assertTrue(first.isPresent());
+                assertEquals(paymentId, first.get().paymentId());
+                for (Future<Optional<PaymentResponse>> call : calls) {
+                    assertSame(first, call.get(10, TimeUnit.SECONDS));
+                }
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertEquals(ROUNDS, heldLookups.queries(),
+                "repository queries for " + ROUNDS * CALLERS + " lookups in " + ROUNDS + " windows");
+    }
+
+    /**
+     * Counts payment lookups that reach the repository and holds each one until its window is full.
+     */
+    @Aspect
+    static class HeldLookups {
+
+        private final AtomicInteger queries = new AtomicInteger();
+        private volatile Condition release = () -> true;
+
+        void holdUntil(Condition release) {
+            this.release = release;
+        }
+
+        int queries() {
+            return queries.get();
+        }
+
+        @Around("execution(* com.example.payment.repository.PaymentRepository.findByTenantIdAndPaymentId(..))")
+        public Object hold(ProceedingJoinPoint call) throws Throwable {
+            queries.incrementAndGet();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!release.met() && System.nanoTime() - deadline < 0) {
+                Thread.sleep(1);
+            }
+            return call.proceed();
+        }
+    }
+
+    @FunctionalInterface
+    interface Condition {
+        boolean met();
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        HeldLookups heldLookups() {
+            return new HeldLookups();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.processor.config;
+
+import com.example.common.cache.TenantCacheSettings;
+import com.example.common.cache.TenantScopedCache;
+import com.example.common.cache.TenantSingleFlight;
+import com.example.common.metrics.TenantMetricTags;
+import com.example.processor.model.ProcessingRequest;
+import com.example.processor.model.ProcessingRequestResponse;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tenant-scoped read-through cache for processing-request lookups (holding immutable
+ * {@link ProcessingRequestResponse} snapshots, not entities), and the single-flight layers
+ * that collapse concurrent identical lookups.
+ * All are MeterBinders, so their counters are picked up by actuator metrics.
+ */
+@Configuration
+public class CacheConfig {
+    
+    @Bean
+    @ConfigurationProperties(prefix = "cache.processing-requests")
+    public TenantCacheSettings processingRequestCacheSettings() {
+        return new TenantCacheSettings();
+    }
+    
+    @Bean
+    public TenantScopedCache<String, ProcessingRequestResponse> processingRequestCache(
+            TenantCacheSettings processingRequestCacheSettings, TenantMetricTags tenantMetricTags) {
+        return new TenantScopedCache<>("processing-requests", processingRequestCacheSettings,
+                ProcessingRequestResponse::tenantId, tenantMetricTags);
+    }
+    
+    @Bean
+    public TenantSingleFlight<String, Optional<ProcessingRequestResponse>> processingRequestLookups() {
+        return new TenantSingleFlight<>("processing-requests");
+    }
+    
+    /** Keyed by query, e.g. {@code payment:<paymentId>} or {@code tenant}. */
+    @Bean
+    public TenantSingleFlight<String, List<ProcessingRequest>> processingRequestListLookups() {
+        return new TenantSingleFlight<>("processing-request-lists");
+    }
+}
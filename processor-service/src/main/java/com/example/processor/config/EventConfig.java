@@ -0,0 +1,27 @@
+package com.example.processor.config;
+
+import com.example.common.event.EventHubSettings;
+import com.example.common.event.StatusChangeEvent;
+import com.example.common.event.TenantEventHub;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hub that fans committed status changes out to server-sent event subscribers.
+ * The hub is a MeterBinder, so subscriber and drop counts are picked up by actuator metrics.
+ */
+@Configuration
+public class EventConfig {
+    
+    @Bean
+    @ConfigurationProperties(prefix = "events")
+    public EventHubSettings eventHubSettings() {
+        return new EventHubSettings();
+    }
+    
+    @Bean(destroyMethod = "close")
+    public TenantEventHub<StatusChangeEvent> statusEventHub(EventHubSettings eventHubSettings) {
+        return new TenantEventHub<>("processing-events", eventHubSettings, StatusChangeEvent::tenantId);
+    }
+}
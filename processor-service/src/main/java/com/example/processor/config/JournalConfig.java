@@ -0,0 +1,35 @@
+package com.example.processor.config;
+
+import com.example.common.journal.TransitionJournal;
+import com.example.common.journal.TransitionJournalEndpoint;
+import com.example.common.journal.TransitionJournalSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Append-only journal of committed status transitions, enabled with {@code journal.enabled}.
+ * The journal is a MeterBinder, so write and queue metrics are picked up by actuator metrics;
+ * a tenant's transitions are read back through the {@code transitionjournal} actuator endpoint.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "journal", name = "enabled", havingValue = "true")
+public class JournalConfig {
+    
+    @Bean
+    @ConfigurationProperties(prefix = "journal")
+    public TransitionJournalSettings transitionJournalSettings() {
+        return new TransitionJournalSettings();
+    }
+    
+    @Bean(destroyMethod = "close")
+    public TransitionJournal transitionJournal(TransitionJournalSettings transitionJournalSettings) {
+        return new TransitionJournal("processing-transitions", transitionJournalSettings);
+    }
+    
+    @Bean
+    public TransitionJournalEndpoint transitionJournalEndpoint(TransitionJournal transitionJournal) {
+        return new TransitionJournalEndpoint(transitionJournal);
+    }
+}
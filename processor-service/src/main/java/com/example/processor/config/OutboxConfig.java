@@ -0,0 +1,16 @@
+package com.example.processor.config;
+
+import com.example.processor.outbox.OutboxProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Payment status outbox configuration.
+ * Enables scheduling for the relay that drains the outbox to payment-service.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfig {
+}
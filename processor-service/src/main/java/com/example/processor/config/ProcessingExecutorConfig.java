@@ -0,0 +1,54 @@
+package com.example.processor.config;
+
+import com.example.common.metrics.TenantMetricTags;
+import com.example.processor.executor.ProcessingExecutorProperties;
+import com.example.processor.executor.TenantFairExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processing executor configuration.
+ * Replaces the shared ForkJoinPool common pool with a dedicated, tenant-fair worker pool.
+ * When {@code spring.threads.virtual.enabled} is set, jobs run on virtual threads instead.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(ProcessingExecutorProperties.class)
+public class ProcessingExecutorConfig {
+    
+    @Bean(destroyMethod = "shutdown")
+    public TenantFairExecutor processingExecutor(ProcessingExecutorProperties properties,
+                                                 MeterRegistry meterRegistry,
+                                                 TenantMetricTags tenantMetricTags,
+                                                 Environment environment) {
+        return new TenantFairExecutor(properties, processingWorkers(properties, environment),
+                meterRegistry, tenantMetricTags);
+    }
+    
+    private ExecutorService processingWorkers(ProcessingExecutorProperties properties, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Processing jobs will run on virtual threads");
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("processing-vt-", 0).factory());
+        }
+        // The fair executor never hands out more jobs than globalConcurrency,
+        // so the worker queue stays bounded even though it has no capacity limit.
+        return new ThreadPoolExecutor(
+                properties.getWorkerThreads(),
+                properties.getWorkerThreads(),
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("processing-"));
+    }
+}
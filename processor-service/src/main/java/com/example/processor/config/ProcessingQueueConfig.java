@@ -0,0 +1,14 @@
+package com.example.processor.config;
+
+import com.example.processor.queue.ProcessingQueueProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Durable processing work queue configuration.
+ * Requests to process are queued in the database and claimed by each node's poller.
+ */
+@Configuration
+@EnableConfigurationProperties(ProcessingQueueProperties.class)
+public class ProcessingQueueConfig {
+}
@@ -0,0 +1,31 @@
+package com.example.processor.config;
+
+import com.example.common.metrics.TenantMetricTags;
+import com.example.common.resilience.CircuitBreakerSettings;
+import com.example.common.resilience.TenantCircuitBreaker;
+import com.example.processor.retry.RetryProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Retries of failed processing requests and the per-tenant circuit breaker around the gateway.
+ * The breaker is a MeterBinder, so open breakers and shed calls show up in actuator metrics.
+ */
+@Configuration
+@EnableConfigurationProperties(RetryProperties.class)
+public class RetryConfig {
+    
+    @Bean
+    @ConfigurationProperties(prefix = "processing.circuit-breaker")
+    public CircuitBreakerSettings processingCircuitBreakerSettings() {
+        return new CircuitBreakerSettings();
+    }
+    
+    @Bean
+    public TenantCircuitBreaker processingCircuitBreaker(CircuitBreakerSettings processingCircuitBreakerSettings,
+                                                         TenantMetricTags tenantMetricTags) {
+        return new TenantCircuitBreaker("processing-gateway", processingCircuitBreakerSettings, tenantMetricTags);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.processor.config;
+
+import com.example.common.cache.TenantScopedCache;
+import com.example.common.shard.ShardSchemaInitializer;
+import com.example.common.shard.ShardingSettings;
+import com.example.common.shard.TenantRoutingDataSource;
+import com.example.common.shard.TenantShardAssignmentStore;
+import com.example.common.shard.TenantShardEndpoint;
+import com.example.common.shard.TenantShardInterceptor;
+import com.example.common.shard.TenantShardMigrator;
+import com.example.common.shard.TenantShardRouter;
+import com.example.processor.model.ProcessingRequest;
+import com.example.processor.model.ProcessingRequestResponse;
+import com.example.processor.service.ProcessingIngestionService;
+import com.example.processor.service.ProcessingService;
+import com.example.processor.service.ProcessingStateMachine;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tenant-sharded storage, enabled with {@code sharding.enabled}.
+ * 
+ * Replaces the single datasource with one connection pool per shard behind a routing datasource.
+ * Each tenant's processing requests live on the shard chosen by {@link TenantShardRouter}, and service calls
+ * are routed by their tenant before their transaction starts. Tenants are moved between shards
+ * through the {@code tenantshards} actuator endpoint.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+    
+    @Bean
+    @ConfigurationProperties(prefix = "sharding")
+    public ShardingSettings shardingSettings() {
+        return new ShardingSettings();
+    }
+    
+    @Bean
+    public TenantRoutingDataSource dataSource(ShardingSettings shardingSettings) {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shardingSettings.getShards().forEach((name, shard) -> shards.put(name, shardPool(name, shard)));
+        return new TenantRoutingDataSource(shards, shardingSettings.getDefaultShard());
+    }
+    
+    @Bean
+    public TenantShardRouter tenantShardRouter(ShardingSettings shardingSettings, TenantRoutingDataSource dataSource) {
+        DataSource defaultShard = dataSource.getResolvedDataSources().get(shardingSettings.getDefaultShard());
+        return new TenantShardRouter(shardingSettings, new TenantShardAssignmentStore(defaultShard));
+    }
+    
+    @Bean
+    public ShardSchemaInitializer shardSchemaInitializer(EntityManagerFactory entityManagerFactory,
+                                                         TenantShardRouter tenantShardRouter) {
+        return new ShardSchemaInitializer(entityManagerFactory, tenantShardRouter);
+    }
+    
+    @Bean
+    public TenantShardMigrator tenantShardMigrator(TenantShardRouter tenantShardRouter,
+                                                   EntityManagerFactory entityManagerFactory,
+                                                   ShardingSettings shardingSettings,
+                                                   TenantScopedCache<String, ProcessingRequestResponse> processingRequestCache) {
+        return new TenantShardMigrator(tenantShardRouter, entityManagerFactory, List.of(ProcessingRequest.class),
+                shardingSettings.getMigrationChunkSize(), processingRequestCache::invalidateTenant);
+    }
+    
+    @Bean
+    public TenantShardEndpoint tenantShardEndpoint(TenantShardRouter tenantShardRouter,
+                                                   TenantShardMigrator tenantShardMigrator) {
+        return new TenantShardEndpoint(tenantShardRouter, tenantShardMigrator);
+    }
+    
+    // Advisors are static so creating them does not instantiate this configuration early
+    @Bean
+    public static Advisor processingServiceShardAdvisor(ObjectProvider<TenantShardRouter> tenantShardRouter) {
+        return TenantShardInterceptor.advisor(ProcessingService.class, tenantShardRouter, true);
+    }
+    
+    @Bean
+    public static Advisor processingIngestionShardAdvisor(ObjectProvider<TenantShardRouter> tenantShardRouter) {
+        return TenantShardInterceptor.advisor(ProcessingIngestionService.class, tenantShardRouter, true);
+    }
+    
+    // Transitions also run from gateway callbacks, on behalf of work the service already admitted
+    @Bean
+    public static Advisor processingStateMachineShardAdvisor(ObjectProvider<TenantShardRouter> tenantShardRouter) {
+        return TenantShardInterceptor.advisor(ProcessingStateMachine.class, tenantShardRouter, false);
+    }
+    
+    private static DataSource shardPool(String name, ShardingSettings.Shard shard) {
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(shard.getUrl())
+                .username(shard.getUsername())
+                .password(shard.getPassword())
+                .build();
+        pool.setPoolName("shard-" + name);
+        pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+        return pool;
+    }
+}
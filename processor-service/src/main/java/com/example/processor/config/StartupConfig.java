@@ -0,0 +1,33 @@
+package com.example.processor.config;
+
+import com.example.common.schema.SchemaPresenceCheck;
+import com.example.processor.outbox.PaymentStatusRelay;
+import com.example.processor.queue.ProcessingWorkQueue;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Beans that are created at startup even with {@code spring.main.lazy-initialization} (fast profile).
+ * Nothing asks for the background workers, so if they were lazy the outbox relay would never be
+ * scheduled and the work queue would never start polling. The schema check
+ * is eager too, so a missing schema stops startup.
+ */
+@Configuration
+public class StartupConfig {
+    
+    @Bean
+    public static LazyInitializationExcludeFilter startupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(PaymentStatusRelay.class, ProcessingWorkQueue.class,
+                SchemaPresenceCheck.class);
+    }
+    
+    @Bean
+    public SchemaPresenceCheck schemaPresenceCheck(DataSource dataSource, Environment environment) {
+        return new SchemaPresenceCheck(dataSource, environment, List.of("processing_requests", "payment_status_outbox"));
+    }
+}
@@ -1,21 +1,51 @@
 package com.example.processor.config;
 
+import com.example.common.ratelimit.TenantRateLimitInterceptor;
+import com.example.common.ratelimit.TenantRateLimiter;
 import com.example.common.resolver.TenantIdArgumentResolver;
+import com.example.common.shard.TenantShardHandlerInterceptor;
+import com.example.common.shard.TenantShardRouter;
+import com.example.common.web.BinaryFormats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.List;
 
 /**
  * Web configuration for the processor service.
- * Registers custom argument resolvers and other web-related configurations.
+ * Registers custom argument resolvers, the tenant rate limit and shard routing interceptors,
+ * the CBOR and Smile message converters and other web-related configurations.
  */
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
     
+    private final TenantRateLimiter tenantRateLimiter;
+    private final ObjectProvider<TenantShardRouter> tenantShardRouter;
+    private final ObjectMapper objectMapper;
+    
     @Override
     public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
         resolvers.add(new TenantIdArgumentResolver());
     }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new TenantRateLimitInterceptor(tenantRateLimiter)).addPathPatterns("/api/**");
+        // Event streams stay open for a long time and never touch the database
+        tenantShardRouter.ifAvailable(router -> registry.addInterceptor(new TenantShardHandlerInterceptor(router))
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/processing/events"));
+    }
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        BinaryFormats.register(converters, objectMapper);
+    }
 }
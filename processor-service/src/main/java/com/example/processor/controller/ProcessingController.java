@@ -1,16 +1,36 @@
 package com.example.processor.controller;
 
+import com.example.common.annotation.RateLimited;
 import com.example.common.annotation.TenantId;
+import com.example.common.event.EventHubSettings;
+import com.example.common.event.SseEventSink;
+import com.example.common.event.StatusChangeEvent;
+import com.example.common.event.TenantEventHub;
+import com.example.common.pagination.CursorPage;
+import com.example.common.pagination.KeysetCursor;
+import com.example.common.ratelimit.EndpointClass;
+import com.example.common.resilience.TenantCircuitBreaker;
+import com.example.common.util.NdjsonWriter;
+import com.example.processor.executor.TenantQueueFullException;
+import com.example.processor.model.BatchIngestionSummary;
 import com.example.processor.model.ProcessingRequest;
+import com.example.processor.model.ProcessingRequestResponse;
+import com.example.processor.service.ProcessingIngestionService;
 import com.example.processor.service.ProcessingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -19,20 +39,62 @@ import java.util.concurrent.CompletableFuture;
 public class ProcessingController {
     
     private final ProcessingService processingService;
+    private final ProcessingIngestionService ingestionService;
+    private final ObjectMapper objectMapper;
+    private final TenantEventHub<StatusChangeEvent> statusEventHub;
+    private final EventHubSettings eventHubSettings;
+    private final TenantCircuitBreaker processingCircuitBreaker;
     
     @PostMapping("/payment/{paymentId}")
-    public ResponseEntity<ProcessingRequest> createProcessingRequest(
+    public ResponseEntity<ProcessingRequestResponse> createProcessingRequest(
             @TenantId String tenantId,
             @PathVariable String paymentId) {
         log.info("Creating processing request for payment: {} in tenant: {}", paymentId, tenantId);
         ProcessingRequest request = processingService.createProcessingRequest(tenantId, paymentId);
         log.info("Processing request created successfully: {} for payment: {} in tenant: {}", 
                    request.getRequestId(), paymentId, tenantId);
-        return new ResponseEntity<>(request, HttpStatus.CREATED);
+        return new ResponseEntity<>(ProcessingRequestResponse.from(request), HttpStatus.CREATED);
+    }
+    
+    /**
+     * Bulk variant of {@link #createProcessingRequest}: accepts a JSON array of payment IDs
+     * and answers with a summary instead of the created requests.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchIngestionSummary> createProcessingRequests(
+            @TenantId String tenantId,
+            InputStream body) {
+        log.info("Starting bulk processing request ingestion for tenant: {}", tenantId);
+        BatchIngestionSummary summary = ingestionService.ingest(tenantId, body);
+        if (summary.getError() != null) {
+            return ResponseEntity.badRequest().body(summary);
+        }
+        return new ResponseEntity<>(summary, HttpStatus.CREATED);
+    }
+    
+    /**
+     * Server-sent stream of request status changes for the tenant, optionally limited to one request.
+     * Replaces polling the request until its status changes.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStatusEvents(
+            @TenantId String tenantId,
+            @RequestParam(required = false) String requestId) {
+        try {
+            log.debug("Opening status event stream for tenant: {} requestId: {}", tenantId, requestId);
+            SseEmitter emitter = SseEventSink.subscribe(statusEventHub, tenantId,
+                    event -> "processing-request".equals(event.entityType())
+                            && (requestId == null || requestId.equals(event.entityId())),
+                    eventHubSettings.getSubscriptionTimeout());
+            return ResponseEntity.ok(emitter);
+        } catch (IllegalStateException e) {
+            log.warn("Rejected status event stream for tenant: {} - {}", tenantId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
     }
     
     @GetMapping("/{requestId}")
-    public ResponseEntity<ProcessingRequest> getProcessingRequest(
+    public ResponseEntity<ProcessingRequestResponse> getProcessingRequest(
             @TenantId String tenantId,
             @PathVariable String requestId) {
         log.debug("Retrieving processing request: {} for tenant: {}", requestId, tenantId);
@@ -48,35 +110,79 @@ public class ProcessingController {
     }
     
     @GetMapping("/payment/{paymentId}")
-    public ResponseEntity<List<ProcessingRequest>> getProcessingRequestsByPayment(
+    public ResponseEntity<List<ProcessingRequestResponse>> getProcessingRequestsByPayment(
             @TenantId String tenantId,
             @PathVariable String paymentId) {
         log.debug("Retrieving processing requests for payment: {} in tenant: {}", paymentId, tenantId);
         List<ProcessingRequest> requests = processingService.findByPaymentId(tenantId, paymentId);
         log.debug("Found {} processing requests for payment: {} in tenant: {}", 
                     requests.size(), paymentId, tenantId);
-        return ResponseEntity.ok(requests);
+        return ResponseEntity.ok(requests.stream().map(ProcessingRequestResponse::from).toList());
     }
     
     @GetMapping("/tenant")
-    public ResponseEntity<List<ProcessingRequest>> getAllProcessingRequestsForTenant(
+    public ResponseEntity<List<ProcessingRequestResponse>> getAllProcessingRequestsForTenant(
             @TenantId String tenantId) {
         log.debug("Retrieving all processing requests for tenant: {}", tenantId);
         List<ProcessingRequest> requests = processingService.findByTenantId(tenantId);
         log.debug("Found {} processing requests for tenant: {}", requests.size(), tenantId);
-        return ResponseEntity.ok(requests);
+        return ResponseEntity.ok(requests.stream().map(ProcessingRequestResponse::from).toList());
+    }
+    
+    @GetMapping("/tenant/page")
+    public ResponseEntity<CursorPage<ProcessingRequestResponse>> getProcessingRequestsPageForTenant(
+            @TenantId String tenantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+            log.debug("Retrieving processing request page for tenant: {} after: {}", tenantId, cursor);
+            return ResponseEntity.ok(processingService.findPageByTenantId(tenantId, after, CursorPage.clampLimit(limit))
+                    .map(ProcessingRequestResponse::from));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected processing request page for tenant: {} - {}", tenantId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping(value = "/tenant/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProcessingRequestsForTenant(@TenantId String tenantId) {
+        log.debug("Streaming all processing requests for tenant: {}", tenantId);
+        StreamingResponseBody body = out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                processingService.streamByTenantId(tenantId,
+                        request -> writer.write(ProcessingRequestResponse.from(request)));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
     
     @PostMapping("/{requestId}/process")
+    @RateLimited(EndpointClass.PROCESS)
     public ResponseEntity<String> processPayment(
             @TenantId String tenantId,
             @PathVariable String requestId) {
+        Duration breakerOpen = processingCircuitBreaker.remainingOpen(tenantId);
+        if (!breakerOpen.isZero()) {
+            log.warn("Rejected processing for request: {} in tenant: {} - circuit breaker open", requestId, tenantId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf((breakerOpen.toMillis() + 999) / 1000))
+                    .body("Processing is paused for tenant: " + tenantId + " after repeated gateway failures. Please retry later.");
+        }
         try {
-            log.info("Starting asynchronous processing for request: {} in tenant: {}", requestId, tenantId);
-            // Process asynchronously
-            CompletableFuture.runAsync(() -> processingService.processPayment(tenantId, requestId));
-            log.info("Asynchronous processing initiated for request: {} in tenant: {}", requestId, tenantId);
-            return ResponseEntity.ok("Processing started for request: " + requestId + " in tenant: " + tenantId);
+            log.info("Queueing processing for request: {} in tenant: {}", requestId, tenantId);
+            // Picked up from the durable work queue and run on the tenant-fair processing executor
+            processingService.enqueue(tenantId, requestId);
+            log.info("Processing queued for request: {} in tenant: {}", requestId, tenantId);
+            return ResponseEntity.ok("Processing queued for request: " + requestId + " in tenant: " + tenantId);
+        } catch (TenantQueueFullException e) {
+            log.warn("Rejected processing for request: {} in tenant: {} - queue full", requestId, tenantId);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                    .body("Processing queue is full for tenant: " + tenantId + ". Please retry later.");
+        } catch (IllegalStateException e) {
+            log.warn("Rejected processing for request: {} in tenant: {} - {}", requestId, tenantId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             log.error("Failed to start processing for request: {} in tenant: {} - {}", 
                         requestId, tenantId, e.getMessage());
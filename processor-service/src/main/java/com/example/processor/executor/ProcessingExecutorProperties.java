@@ -0,0 +1,77 @@
+package com.example.processor.executor;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration for the tenant-fair processing executor.
+ * Global limits apply to the whole node; tenant limits can be overridden per tenant ID.
+ */
+@Data
+@ConfigurationProperties(prefix = "processing.executor")
+public class ProcessingExecutorProperties {
+
+    /**
+     * Platform threads that start processing jobs. Jobs give their thread back while they wait
+     * on the gateway, so this can be much lower than the concurrency limits.
+     * Ignored when virtual threads are enabled.
+     */
+    private int workerThreads = 16;
+
+    /**
+     * Maximum number of processing jobs in flight at the same time across all tenants.
+     */
+    private int globalConcurrency = 256;
+
+    /**
+     * Maximum number of processing jobs in flight at the same time for a single tenant.
+     */
+    private int perTenantConcurrency = 32;
+
+    /**
+     * Maximum number of jobs waiting in a single tenant's queue before submissions are rejected.
+     */
+    private int perTenantQueueCapacity = 500;
+
+    /**
+     * Number of consecutive dispatches a tenant gets per round-robin turn.
+     */
+    private int defaultWeight = 1;
+
+    /**
+     * How long a claimed request waits in the processing queue before it is due again when its
+     * tenant's executor queue is full.
+     */
+    private Duration retryAfter = Duration.ofSeconds(5);
+
+    /**
+     * Per-tenant overrides, keyed by tenant ID.
+     */
+    private Map<String, TenantLimits> tenants = new HashMap<>();
+
+    public int concurrencyFor(String tenantId) {
+        TenantLimits limits = tenants.get(tenantId);
+        return limits != null && limits.getConcurrency() != null ? limits.getConcurrency() : perTenantConcurrency;
+    }
+
+    public int queueCapacityFor(String tenantId) {
+        TenantLimits limits = tenants.get(tenantId);
+        return limits != null && limits.getQueueCapacity() != null ? limits.getQueueCapacity() : perTenantQueueCapacity;
+    }
+
+    public int weightFor(String tenantId) {
+        TenantLimits limits = tenants.get(tenantId);
+        return limits != null && limits.getWeight() != null ? limits.getWeight() : defaultWeight;
+    }
+
+    @Data
+    public static class TenantLimits {
+        private Integer concurrency;
+        private Integer queueCapacity;
+        private Integer weight;
+    }
+}
@@ -0,0 +1,333 @@
+package com.example.processor.executor;
+
+import com.example.common.metrics.TenantMetricTags;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor that keeps one FIFO queue per tenant and dispatches between tenants
+ * in weighted round-robin order.
+ *
+ * A job is only handed to the worker pool when both the global and the tenant's concurrency
+ * limits allow it, so a single busy tenant can never occupy every worker. When a tenant's
+ * queue is full, submission fails fast with {@link TenantQueueFullException}.
+ *
+ * Asynchronous jobs ({@link #submitAsync(String, Supplier)}) keep their concurrency slot until
+ * the returned stage completes but give their worker thread back as soon as the stage is
+ * returned, so the limits bound in-flight work rather than threads.
+ *
+ * A tenant's queue is dropped as soon as it has nothing queued or running, so tenants that
+ * come and go do not accumulate.
+ */
+@Slf4j
+public class TenantFairExecutor {
+
+    private final ProcessingExecutorProperties properties;
+    private final ExecutorService workers;
+    private final MeterRegistry meterRegistry;
+    private final TenantMetricTags tenantTags;
+    private final Counter rejectedCounter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, TenantQueue> tenants = new HashMap<>();
+    private final Set<String> depthGauges = new HashSet<>();
+    private final Deque<TenantQueue> ready = new ArrayDeque<>();
+    private int active;
+    private int queued;
+    private boolean shutdown;
+
+    public TenantFairExecutor(ProcessingExecutorProperties properties,
+                              ExecutorService workers,
+                              MeterRegistry meterRegistry,
+                              TenantMetricTags tenantTags) {
+        this.properties = properties;
+        this.workers = workers;
+        this.meterRegistry = meterRegistry;
+        this.tenantTags = tenantTags;
+        this.rejectedCounter = Counter.builder("processing.executor.rejected")
+                .description("Processing jobs rejected because the tenant queue was full")
+                .register(meterRegistry);
+        Gauge.builder("processing.executor.queue.depth", this, TenantFairExecutor::getQueuedCount)
+                .description("Processing jobs waiting across all tenant queues")
+                .register(meterRegistry);
+        Gauge.builder("processing.executor.active", this, TenantFairExecutor::getActiveCount)
+                .description("Processing jobs currently in flight, including those awaiting an async stage")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a synchronous job for the given tenant and dispatches it as soon as capacity allows.
+     * The job's slot is freed when {@code run} returns, so it must not start work that outlives it;
+     * use {@link #submitAsync(String, Supplier)} for that.
+     *
+     * @throws TenantQueueFullException if the tenant already has the maximum number of queued jobs
+     * @throws RejectedExecutionException if the executor has been shut down
+     */
+    public void submit(String tenantId, Runnable job) {
+        submitAsync(tenantId, () -> {
+            job.run();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * Same as {@link #submitAsync(String, Supplier)}. Without this overload a lambda returning a
+     * stage, such as {@code submit(tenantId, () -> service.process(...))}, would compile against
+     * {@link #submit(String, Runnable)}, drop the stage and free the slot while the work is in flight.
+     */
+    public void submit(String tenantId, Supplier<? extends CompletionStage<?>> job) {
+        submitAsync(tenantId, job);
+    }
+
+    /**
+     * Queues an asynchronous job for the given tenant. The supplier runs on a worker thread;
+     * the job counts against the concurrency limits until the stage it returns completes.
+     *
+     * @throws TenantQueueFullException if the tenant already has the maximum number of queued jobs
+     * @throws RejectedExecutionException if the executor has been shut down
+     */
+    public void submitAsync(String tenantId, Supplier<? extends CompletionStage<?>> job) {
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("Processing executor has been shut down");
+            }
+            TenantQueue queue = tenants.computeIfAbsent(tenantId, this::newTenantQueue);
+            if (queue.pending.size() >= queue.capacity) {
+                rejectedCounter.increment();
+                throw new TenantQueueFullException(tenantId, properties.getRetryAfter());
+            }
+            queue.pending.addLast(new QueuedJob(job, System.nanoTime()));
+            queued++;
+            if (!queue.scheduled) {
+                queue.scheduled = true;
+                queue.credits = queue.weight;
+                ready.addLast(queue);
+            }
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueuedCount() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Jobs that can still be submitted before the global concurrency limit is reached,
+     * counting jobs already waiting in tenant queues.
+     */
+    public int getAvailableCapacity() {
+        lock.lock();
+        try {
+            return Math.max(0, properties.getGlobalConcurrency() - active - queued);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tenants whose queue is full, so their next submission would be rejected.
+     */
+    public Set<String> getFullTenants() {
+        lock.lock();
+        try {
+            Set<String> full = new HashSet<>();
+            tenants.forEach((tenantId, queue) -> {
+                if (queue.pending.size() >= queue.capacity) {
+                    full.add(tenantId);
+                }
+            });
+            return full;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveCount() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            if (queued > 0) {
+                log.warn("Shutting down processing executor with {} queued jobs", queued);
+            }
+        } finally {
+            lock.unlock();
+        }
+        workers.shutdown();
+    }
+
+    /**
+     * Hands queued jobs to the worker pool until either the global limit is reached or every
+     * ready tenant is at its own limit. Must be called with the lock held.
+     */
+    private void dispatch() {
+        int blocked = 0;
+        while (active < properties.getGlobalConcurrency() && !ready.isEmpty() && blocked < ready.size()) {
+            TenantQueue queue = ready.peekFirst();
+            if (queue.active >= queue.concurrency) {
+                rotate(queue);
+                blocked++;
+                continue;
+            }
+            blocked = 0;
+
+            QueuedJob job = queue.pending.pollFirst();
+            queued--;
+            queue.active++;
+            active++;
+            queue.credits--;
+
+            if (queue.pending.isEmpty()) {
+                ready.pollFirst();
+                queue.scheduled = false;
+            } else if (queue.credits <= 0) {
+                rotate(queue);
+            }
+
+            try {
+                workers.execute(() -> run(queue, job));
+            } catch (RejectedExecutionException e) {
+                // Put the job back at the head of its queue; the pool only rejects once it is shut down
+                queue.active--;
+                active--;
+                queue.credits++;
+                queue.pending.addFirst(job);
+                queued++;
+                if (!queue.scheduled) {
+                    queue.scheduled = true;
+                    ready.addFirst(queue);
+                }
+                log.warn("Worker pool rejected processing job for tenant {}, leaving it queued: {}",
+                        queue.tenantId, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void rotate(TenantQueue queue) {
+        ready.pollFirst();
+        queue.credits = queue.weight;
+        ready.addLast(queue);
+    }
+
+    private void run(TenantQueue queue, QueuedJob job) {
+        queue.queueWait.record(System.nanoTime() - job.enqueuedAt, TimeUnit.NANOSECONDS);
+        CompletionStage<?> stage;
+        try {
+            stage = job.task.get();
+        } catch (RuntimeException e) {
+            log.error("Processing job failed for tenant {}: {}", queue.tenantId, e.getMessage(), e);
+            release(queue);
+            return;
+        }
+        stage.whenComplete((result, error) -> {
+            if (error != null) {
+                log.error("Processing job failed for tenant {}: {}", queue.tenantId, error.getMessage(), error);
+            }
+            release(queue);
+        });
+    }
+
+    private void release(TenantQueue queue) {
+        lock.lock();
+        try {
+            queue.active--;
+            active--;
+            if (queue.active == 0 && queue.pending.isEmpty()) {
+                tenants.remove(queue.tenantId, queue);
+            }
+            if (!shutdown) {
+                dispatch();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private TenantQueue newTenantQueue(String tenantId) {
+        Timer queueWait = Timer.builder("processing.executor.queue.wait")
+                .description("Time a processing job spends queued before it starts")
+                .tag(TenantMetricTags.TAG, tenantTags.tagFor(tenantId))
+                .register(meterRegistry);
+        TenantQueue queue = new TenantQueue(tenantId,
+                properties.concurrencyFor(tenantId),
+                properties.queueCapacityFor(tenantId),
+                Math.max(1, properties.weightFor(tenantId)),
+                queueWait);
+        // Tenants folded into the overflow tag only show up in the total queue depth. The gauge
+        // outlives the queue, which is dropped whenever the tenant goes idle.
+        if (tenantTags.hasOwnTag(tenantId) && depthGauges.add(tenantId)) {
+            Gauge.builder("processing.executor.tenant.queue.depth", this, executor -> executor.depthOf(tenantId))
+                    .description("Processing jobs waiting in a single tenant's queue")
+                    .tag(TenantMetricTags.TAG, tenantId)
+                    .register(meterRegistry);
+        }
+        return queue;
+    }
+
+    private double depthOf(String tenantId) {
+        lock.lock();
+        try {
+            TenantQueue queue = tenants.get(tenantId);
+            return queue == null ? 0 : queue.pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record QueuedJob(Supplier<? extends CompletionStage<?>> task, long enqueuedAt) {
+    }
+
+    private static final class TenantQueue {
+        private final String tenantId;
+        private final int concurrency;
+        private final int capacity;
+        private final int weight;
+        private final Timer queueWait;
+        private final Deque<QueuedJob> pending = new ArrayDeque<>();
+        private int active;
+        private int credits;
+        private boolean scheduled;
+
+        private TenantQueue(String tenantId, int concurrency, int capacity, int weight, Timer queueWait) {
+            this.tenantId = tenantId;
+            this.concurrency = concurrency;
+            this.capacity = capacity;
+            this.weight = weight;
+            this.queueWait = queueWait;
+        }
+    }
+}
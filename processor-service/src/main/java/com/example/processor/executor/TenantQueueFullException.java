@@ -0,0 +1,23 @@
+package com.example.processor.executor;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a tenant's processing queue has reached its capacity: its queue in the executor, or
+ * its queued requests in the {@code processing_requests} table. Carries how long to wait before
+ * trying again, which is returned to the client as Retry-After.
+ */
+@Getter
+public class TenantQueueFullException extends RuntimeException {
+
+    private final String tenantId;
+    private final Duration retryAfter;
+
+    public TenantQueueFullException(String tenantId, Duration retryAfter) {
+        super("Processing queue is full for tenant: " + tenantId);
+        this.tenantId = tenantId;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.processor.gateway;
+
+/**
+ * Outcome of a gateway call. A declined payment carries the gateway's reason.
+ */
+public record GatewayResult(boolean approved, String declineReason) {
+    
+    public static GatewayResult success() {
+        return new GatewayResult(true, null);
+    }
+    
+    public static GatewayResult declined(String reason) {
+        return new GatewayResult(false, reason);
+    }
+}
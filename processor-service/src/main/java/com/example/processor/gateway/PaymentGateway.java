@@ -0,0 +1,24 @@
+package com.example.processor.gateway;
+
+import com.example.processor.model.ProcessingRequest;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * SPI for the external payment gateway used by processing.
+ * 
+ * Calls must not block the caller: implementations return immediately and complete the
+ * stage from their own callback threads once the gateway answers. The caller runs a short
+ * database transition when the stage completes, so no transaction or connection is held
+ * while the gateway call is outstanding.
+ */
+public interface PaymentGateway {
+    
+    /**
+     * Submits the payment referenced by the processing request to the gateway.
+     * 
+     * @return a stage completed with the gateway's answer, or completed exceptionally
+     *         if the gateway could not be reached
+     */
+    CompletionStage<GatewayResult> process(ProcessingRequest request);
+}
@@ -0,0 +1,24 @@
+package com.example.processor.gateway;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the local simulated gateway.
+ */
+@Data
+@ConfigurationProperties(prefix = "processing.gateway.simulated")
+public class SimulatedGatewayProperties {
+    
+    /**
+     * How long the simulated gateway takes to answer.
+     */
+    private Duration latency = Duration.ofSeconds(1);
+    
+    /**
+     * Fraction of calls (0.0 - 1.0) that are declined.
+     */
+    private double declineRate = 0.0;
+}
@@ -0,0 +1,55 @@
+package com.example.processor.gateway;
+
+import com.example.processor.model.ProcessingRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for the payment gateway.
+ * 
+ * Answers after the configured latency using a delayed executor, so a pending call costs a
+ * scheduled task rather than a sleeping thread. Answers are delivered on virtual threads.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(SimulatedGatewayProperties.class)
+@ConditionalOnProperty(name = "processing.gateway.type", havingValue = "simulated", matchIfMissing = true)
+public class SimulatedPaymentGateway implements PaymentGateway, DisposableBean {
+    
+    private final SimulatedGatewayProperties properties;
+    private final ExecutorService callbackExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("gateway-callback-", 0).factory());
+    
+    public SimulatedPaymentGateway(SimulatedGatewayProperties properties) {
+        this.properties = properties;
+    }
+    
+    @Override
+    public CompletionStage<GatewayResult> process(ProcessingRequest request) {
+        log.debug("Simulated gateway call for payment {} in tenant {}", request.getPaymentId(), request.getTenantId());
+        return CompletableFuture.supplyAsync(this::answer,
+                CompletableFuture.delayedExecutor(properties.getLatency().toMillis(), TimeUnit.MILLISECONDS, callbackExecutor));
+    }
+    
+    private GatewayResult answer() {
+        if (ThreadLocalRandom.current().nextDouble() < properties.getDeclineRate()) {
+            return GatewayResult.declined("Declined by simulated gateway");
+        }
+        return GatewayResult.success();
+    }
+    
+    @Override
+    public void destroy() {
+        callbackExecutor.shutdown();
+    }
+}
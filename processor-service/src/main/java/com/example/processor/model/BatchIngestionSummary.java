@@ -0,0 +1,38 @@
+package com.example.processor.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact result of a bulk processing-request ingestion.
+ * Reports counts instead of echoing every created request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchIngestionSummary {
+    
+    private String tenantId;
+    
+    /** Payment IDs read from the request body. */
+    private long received;
+    
+    /** Processing requests persisted. */
+    private long created;
+    
+    /** Blank payment IDs that were ignored. */
+    private long skipped;
+    
+    /** Number of JDBC batches (one transaction each) used to persist the requests. */
+    private int batches;
+    
+    private long durationMs;
+    
+    /** Set when the body could not be read to the end; counts cover what was persisted before the error. */
+    private String error;
+}
@@ -0,0 +1,70 @@
+package com.example.processor.model;
+
+import com.example.common.model.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pending payment status change for payment-service.
+ *
+ * Rows are written in the same transaction as the processing request transition that causes them
+ * and deleted by the relay once payment-service has accepted them. Rows whose delivery failed are held back
+ * until their {@code nextAttemptAt}, so they do not hold up other tenants' rows.
+ */
+@Entity
+@Table(name = "payment_status_outbox", indexes = {
+    @Index(name = "idx_outbox_next_attempt", columnList = "nextAttemptAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = false)
+public class PaymentStatusOutbox extends BaseEntity {
+    
+    public static final int VERSION_BITS = 21;
+    
+    @Column(nullable = false, length = 100)
+    private String tenantId;
+    
+    @Column(nullable = false)
+    private String paymentId;
+    
+    @Column(nullable = false)
+    private String requestId;
+    
+    @Column(nullable = false, length = 20)
+    private String paymentStatus;
+    
+    /**
+     * Orders the payment's updates: the creation millisecond in the processing request's time-ordered
+     * ID in the high bits and its {@code statusVersion} in the low {@value #VERSION_BITS} bits. A
+     * request's own transitions are ordered by its counter, not by a clock, and a request created in
+     * a later millisecond always wins. Zero for rows written before the column existed.
+     */
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long sequence;
+    
+    /**
+     * Failed deliveries of this row.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+    
+    /**
+     * When the row may be delivered again after a failed delivery; null if it is due now.
+     */
+    private LocalDateTime nextAttemptAt;
+}
@@ -1,5 +1,6 @@
 package com.example.processor.model;
 
+import com.example.common.id.UuidBinaryConverter;
 import com.example.common.model.BaseEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -9,12 +10,18 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "processing_requests", indexes = {
     @Index(name = "idx_processing_tenant_id", columnList = "tenantId"),
+    @Index(name = "idx_processing_tenant_request", columnList = "tenantId, requestId"),
     @Index(name = "idx_processing_tenant_payment", columnList = "tenantId, paymentId"),
-    @Index(name = "idx_processing_tenant_status", columnList = "tenantId, status")
+    @Index(name = "idx_processing_tenant_status", columnList = "tenantId, status"),
+    @Index(name = "idx_processing_tenant_created", columnList = "tenantId, createdAt, requestId"),
+    @Index(name = "idx_processing_next_attempt", columnList = "nextAttemptAt")
 })
 @Data
 @NoArgsConstructor
@@ -27,8 +34,10 @@ public class ProcessingRequest extends BaseEntity {
     @Column(nullable = false, length = 100)
     private String tenantId;
     
+    /** Time-ordered UUID, stored as 16 bytes. */
     @NotBlank
-    @Column(nullable = false)
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(nullable = false, length = 16)
     private String requestId;
     
     @NotBlank
@@ -44,6 +53,35 @@ public class ProcessingRequest extends BaseEntity {
     @Column(length = 1000)
     private String errorMessage;
     
+    /**
+     * Number of gateway calls started for this request. Claims that are released unstarted do not count.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+    
+    /**
+     * Status transitions made so far. Incremented by the same update that changes the status, so
+     * it orders a request's transitions without relying on any node's clock.
+     */
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private long statusVersion = 0;
+    
+    /**
+     * When a worker should next pick the request up: once it is queued, when a failed request is
+     * due to be retried, and, while a worker holds it, when that worker's lease expires.
+     * Null if nothing is left to do.
+     */
+    private LocalDateTime nextAttemptAt;
+    
+    /**
+     * Node currently holding the request, or null if no worker holds it.
+     */
+    @Column(length = 100)
+    private String leaseOwner;
+    
     public enum ProcessingStatus {
         PENDING, IN_PROGRESS, COMPLETED, FAILED
     }
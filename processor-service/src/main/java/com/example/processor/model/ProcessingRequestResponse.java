@@ -0,0 +1,26 @@
+package com.example.processor.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * API representation of a {@link ProcessingRequest}.
+ * Copied from the entity before serialization, so the serializer never calls entity accessors
+ * or the Lombok-generated methods, and internal fields such as the lease owner stay out of the API.
+ */
+public record ProcessingRequestResponse(Long id,
+                                        String tenantId,
+                                        String requestId,
+                                        String paymentId,
+                                        ProcessingRequest.ProcessingStatus status,
+                                        String errorMessage,
+                                        int attempts,
+                                        LocalDateTime nextAttemptAt,
+                                        LocalDateTime createdAt,
+                                        LocalDateTime updatedAt) {
+    
+    public static ProcessingRequestResponse from(ProcessingRequest request) {
+        return new ProcessingRequestResponse(request.getId(), request.getTenantId(), request.getRequestId(),
+                request.getPaymentId(), request.getStatus(), request.getErrorMessage(), request.getAttempts(),
+                request.getNextAttemptAt(), request.getCreatedAt(), request.getUpdatedAt());
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.processor.outbox;
+
+import com.example.common.event.PaymentStatusUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+/**
+ * Delivers status updates to payment-service's bulk status endpoint, one request per tenant.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "processing.outbox.transport", havingValue = "http", matchIfMissing = true)
+public class HttpPaymentStatusTransport implements PaymentStatusTransport {
+    
+    private final RestClient restClient;
+    
+    public HttpPaymentStatusTransport(OutboxProperties properties, RestClient.Builder restClientBuilder) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getTimeout());
+        requestFactory.setReadTimeout(properties.getTimeout());
+        this.restClient = restClientBuilder
+                .baseUrl(properties.getPaymentServiceUrl())
+                .requestFactory(requestFactory)
+                .build();
+    }
+    
+    @Override
+    public void deliver(String tenantId, List<PaymentStatusUpdate> updates) {
+        log.debug("Sending {} payment status updates for tenant {}", updates.size(), tenantId);
+        restClient.post()
+                .uri("/api/payments/status/bulk")
+                .header("X-Tenant-ID", tenantId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(updates)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
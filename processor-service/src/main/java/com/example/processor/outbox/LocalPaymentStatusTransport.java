@@ -0,0 +1,38 @@
+package com.example.processor.outbox;
+
+import com.example.common.event.PaymentStatusUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-JVM transport for tests and local runs without payment-service.
+ * 
+ * Keeps the latest update per payment, applying the same sequence check as payment-service,
+ * so repeated or reordered deliveries can be observed without a second service.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "processing.outbox.transport", havingValue = "local")
+public class LocalPaymentStatusTransport implements PaymentStatusTransport {
+    
+    private final Map<String, PaymentStatusUpdate> latest = new ConcurrentHashMap<>();
+    
+    @Override
+    public void deliver(String tenantId, List<PaymentStatusUpdate> updates) {
+        for (PaymentStatusUpdate update : updates) {
+            latest.merge(tenantId + ":" + update.paymentId(), update,
+                    (current, next) -> next.sequence() > current.sequence() ? next : current);
+        }
+        log.debug("Recorded {} payment status updates for tenant {}", updates.size(), tenantId);
+    }
+    
+    public Optional<PaymentStatusUpdate> findLatest(String tenantId, String paymentId) {
+        return Optional.ofNullable(latest.get(tenantId + ":" + paymentId));
+    }
+}
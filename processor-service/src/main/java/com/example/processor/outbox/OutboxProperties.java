@@ -0,0 +1,54 @@
+package com.example.processor.outbox;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for relaying payment status changes to payment-service.
+ */
+@Data
+@ConfigurationProperties(prefix = "processing.outbox")
+public class OutboxProperties {
+    
+    /**
+     * Pause between relay runs when the outbox has been drained.
+     */
+    private Duration pollInterval = Duration.ofMillis(500);
+    
+    /**
+     * Outbox rows read per relay round. Rows for the same payment are coalesced into one update.
+     */
+    private int batchSize = 500;
+    
+    /**
+     * Wait before a tenant's rows are offered again after their delivery failed; doubles with
+     * every further failure of the same rows.
+     */
+    private Duration retryBackoff = Duration.ofSeconds(1);
+    
+    /**
+     * Upper bound on the wait between delivery attempts of the same rows.
+     */
+    private Duration maxRetryBackoff = Duration.ofMinutes(1);
+    
+    /**
+     * Base URL of payment-service, used by the {@code http} transport.
+     */
+    private String paymentServiceUrl = "http://localhost:8081";
+    
+    /**
+     * Connect and read timeout for the {@code http} transport.
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+    
+    /**
+     * Wait before the next delivery of rows that have failed {@code attempts} times.
+     */
+    public Duration retryBackoffAfter(int attempts) {
+        double factor = Math.pow(2, Math.max(0, attempts - 1));
+        double nanos = Math.min(retryBackoff.toNanos() * factor, maxRetryBackoff.toNanos());
+        return Duration.ofNanos((long) nanos);
+    }
+}
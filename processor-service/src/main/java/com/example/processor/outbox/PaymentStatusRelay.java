@@ -0,0 +1,144 @@
+package com.example.processor.outbox;
+
+import com.example.common.event.PaymentStatusUpdate;
+import com.example.common.shard.ShardContext;
+import com.example.common.shard.TenantShardRouter;
+import com.example.processor.model.PaymentStatusOutbox;
+import com.example.processor.repository.PaymentStatusOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the payment status outbox to payment-service.
+ * 
+ * Each round reads due outbox rows, keeps only the update with the highest sequence per payment,
+ * and delivers the result per tenant through the {@link PaymentStatusTransport}. Rows are deleted
+ * only after their tenant's delivery succeeded, so a crash or failed call leads to redelivery,
+ * never loss. When a tenant's delivery fails, its rows are held back with exponential backoff
+ * ({@code retry-backoff} up to {@code max-retry-backoff}) so the following rounds go on with
+ * the other tenants. Rounds repeat until no due rows are left. With tenant shards, each shard's
+ * outbox is drained in turn.
+ */
+@Slf4j
+@Component
+public class PaymentStatusRelay {
+    
+    private final PaymentStatusOutboxRepository repository;
+    private final PaymentStatusTransport transport;
+    private final OutboxProperties properties;
+    private final ObjectProvider<TenantShardRouter> shardRouter;
+    private final Counter relayedCounter;
+    private final Counter coalescedCounter;
+    private final Counter failedCounter;
+    
+    public PaymentStatusRelay(PaymentStatusOutboxRepository repository,
+                              PaymentStatusTransport transport,
+                              OutboxProperties properties,
+                              ObjectProvider<TenantShardRouter> shardRouter,
+                              MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.transport = transport;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.relayedCounter = Counter.builder("processing.outbox.relayed")
+                .description("Payment status updates delivered to payment-service")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("processing.outbox.coalesced")
+                .description("Outbox rows superseded by a newer row for the same payment before delivery")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("processing.outbox.failed")
+                .description("Failed deliveries of a tenant's payment status updates")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${processing.outbox.poll-interval:500ms}")
+    public void relay() {
+        TenantShardRouter router = shardRouter.getIfAvailable();
+        if (router == null) {
+            drain();
+            return;
+        }
+        for (String shard : router.getShardNames()) {
+            ShardContext.runIn(shard, this::drain);
+        }
+    }
+    
+    private void drain() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == properties.getBatchSize());
+    }
+    
+    /**
+     * @return the number of outbox rows read, whether delivered or held back
+     */
+    private int relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PaymentStatusOutbox> rows = repository.findDue(now, Limit.of(properties.getBatchSize()));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        
+        // IDs come from pooled per-node allocations and do not follow commit order, so the update
+        // with the highest sequence wins rather than the last row read
+        Map<String, TenantBatch> batches = new LinkedHashMap<>();
+        for (PaymentStatusOutbox row : rows) {
+            TenantBatch batch = batches.computeIfAbsent(row.getTenantId(), key -> new TenantBatch());
+            batch.updates.merge(row.getPaymentId(), toUpdate(row),
+                    (current, update) -> update.sequence() > current.sequence() ? update : current);
+            batch.rowIds.add(row.getId());
+            batch.attempts = Math.max(batch.attempts, row.getAttempts());
+        }
+        
+        for (Map.Entry<String, TenantBatch> entry : batches.entrySet()) {
+            String tenantId = entry.getKey();
+            TenantBatch batch = entry.getValue();
+            try {
+                transport.deliver(tenantId, new ArrayList<>(batch.updates.values()));
+                repository.deleteAllByIdInBatch(batch.rowIds);
+                relayedCounter.increment(batch.updates.size());
+                coalescedCounter.increment(batch.rowIds.size() - batch.updates.size());
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                Duration backoff = properties.retryBackoffAfter(batch.attempts + 1);
+                log.warn("Could not relay {} payment status updates for tenant {}, retrying in {}: {}",
+                           batch.updates.size(), tenantId, backoff, e.getMessage());
+                repository.defer(batch.rowIds, now.plus(backoff));
+            }
+        }
+        
+        log.debug("Read {} outbox rows for {} tenants", rows.size(), batches.size());
+        return rows.size();
+    }
+    
+    // Rows written before the sequence column existed used their creation time in microseconds,
+    // which sorts below every sequence written since
+    private static PaymentStatusUpdate toUpdate(PaymentStatusOutbox row) {
+        Instant occurredAt = row.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant();
+        long sequence = row.getSequence() != 0 ? row.getSequence() : ChronoUnit.MICROS.between(Instant.EPOCH, occurredAt);
+        return new PaymentStatusUpdate(row.getTenantId(), row.getPaymentId(), row.getPaymentStatus(),
+                sequence, occurredAt);
+    }
+    
+    private static final class TenantBatch {
+        private final Map<String, PaymentStatusUpdate> updates = new LinkedHashMap<>();
+        private final List<Long> rowIds = new ArrayList<>();
+        private int attempts;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.processor.outbox;
+
+import com.example.common.event.PaymentStatusUpdate;
+
+import java.util.List;
+
+/**
+ * SPI for delivering relayed payment status changes to payment-service.
+ * 
+ * The relay only deletes outbox rows after {@link #deliver} returns, so delivery is at least once:
+ * implementations may see the same update again after a failure and rely on the receiver's
+ * sequence check to ignore it.
+ */
+public interface PaymentStatusTransport {
+    
+    /**
+     * Delivers one tenant's updates, at most one per payment.
+     * 
+     * @throws RuntimeException if the updates could not be delivered; they are retried on the next relay run
+     */
+    void deliver(String tenantId, List<PaymentStatusUpdate> updates);
+}
@@ -0,0 +1,50 @@
+package com.example.processor.queue;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the processing work queue, which is kept in the {@code processing_requests} table.
+ */
+@Data
+@ConfigurationProperties(prefix = "processing.queue")
+public class ProcessingQueueProperties {
+    
+    /**
+     * Name this node leases requests under. Must be unique among the nodes sharing a database and
+     * stable across restarts, so a restarted node can take its own leases back at once.
+     * Defaults to the host name and server port.
+     */
+    private String nodeId;
+    
+    /**
+     * Pause between polls when nothing signals new work.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+    
+    /**
+     * Maximum requests claimed per query.
+     */
+    private int batchSize = 100;
+    
+    /**
+     * How long a claimed request stays with this node. If the node has not completed, failed or
+     * released it by then, any node may claim it again, so this must exceed the time a request can
+     * spend queued in the executor plus the gateway call.
+     */
+    private Duration leaseDuration = Duration.ofMinutes(5);
+    
+    /**
+     * Maximum requests a tenant may have queued, counting retries and claimed requests that have
+     * not started yet. Further requests to queue are rejected with 429. Checked before queueing,
+     * so concurrent requests can overshoot it slightly.
+     */
+    private int maxQueuedPerTenant = 10000;
+    
+    /**
+     * Value returned in the Retry-After header when a tenant has {@code maxQueuedPerTenant} requests queued.
+     */
+    private Duration retryAfter = Duration.ofSeconds(5);
+}
@@ -0,0 +1,219 @@
+package com.example.processor.queue;
+
+import com.example.common.shard.TenantShardRouter;
+import com.example.processor.executor.TenantFairExecutor;
+import com.example.processor.executor.TenantQueueFullException;
+import com.example.processor.model.ProcessingRequest;
+import com.example.processor.service.ProcessingService;
+import com.example.processor.service.ProcessingStateMachine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Feeds due processing requests from the database to the tenant-fair processing executor.
+ * 
+ * The {@code processing_requests} table is the queue: a request is due once its {@code nextAttemptAt}
+ * has passed. A poller thread claims due requests in batches with {@code SELECT ... FOR UPDATE SKIP LOCKED}
+ * and leases them to this node, so several nodes can poll the same database without taking the same
+ * request. It claims no more than the executor can accept and polls again when woken by new work, when
+ * a job finishes after a poll stopped at the executor's capacity, or after {@code poll-interval}.
+ * Tenants whose executor queue is full are left out of the claim, so one tenant's backlog is not
+ * claimed and released over and over ahead of other tenants' requests.
+ * 
+ * Nothing is lost on restart: requests held by a node that stopped become due when their lease expires,
+ * and a node takes back its own leases as soon as it starts. A request whose lease expired during the
+ * gateway call is sent to the gateway again, so the gateway must tolerate repeated requests.
+ * Requests of a tenant migrating to another shard are neither claimed nor taken back until it has moved.
+ */
+@Slf4j
+@Component
+public class ProcessingWorkQueue implements DisposableBean {
+    
+    private final ProcessingQueueProperties properties;
+    private final ProcessingStateMachine stateMachine;
+    private final TenantFairExecutor processingExecutor;
+    // Resolved lazily: ProcessingService signals new work here
+    private final ObjectProvider<ProcessingService> processingService;
+    private final ObjectProvider<TenantShardRouter> shardRouter;
+    private final String nodeId;
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final Counter claimedCounter;
+    private final Counter recoveredCounter;
+    private volatile boolean saturated;
+    private volatile Thread poller;
+    
+    public ProcessingWorkQueue(ProcessingQueueProperties properties,
+                               ProcessingStateMachine stateMachine,
+                               TenantFairExecutor processingExecutor,
+                               ObjectProvider<ProcessingService> processingService,
+                               ObjectProvider<TenantShardRouter> shardRouter,
+                               MeterRegistry meterRegistry,
+                               Environment environment) {
+        this.properties = properties;
+        this.stateMachine = stateMachine;
+        this.processingExecutor = processingExecutor;
+        this.processingService = processingService;
+        this.shardRouter = shardRouter;
+        this.nodeId = StringUtils.isNotBlank(properties.getNodeId()) ? properties.getNodeId() : defaultNodeId(environment);
+        this.claimedCounter = Counter.builder("processing.queue.claimed")
+                .description("Processing requests claimed from the queue by this node")
+                .register(meterRegistry);
+        this.recoveredCounter = Counter.builder("processing.queue.recovered")
+                .description("Claimed processing requests whose previous lease had expired")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Takes back this node's leases from before a restart, then starts polling.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        forEachShard(excluded -> {
+            int expired = stateMachine.expireLeases(nodeId, excluded);
+            if (expired > 0) {
+                log.info("Recovered {} processing requests leased to {} before restart", expired, nodeId);
+            }
+        });
+        poller = Thread.ofPlatform().name("processing-queue-poller").daemon().start(this::run);
+        log.info("Processing queue polling as {}", nodeId);
+    }
+    
+    /**
+     * Polls as soon as possible instead of waiting for the next poll interval.
+     */
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    private void run() {
+        while (poller != null) {
+            try {
+                forEachShard(this::claimAndSubmit);
+            } catch (RuntimeException e) {
+                log.warn("Processing queue poll failed: {}", e.getMessage());
+            }
+            try {
+                wakeUps.tryAcquire(properties.getPollInterval().toNanos(), TimeUnit.NANOSECONDS);
+                wakeUps.drainPermits();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Runs the task on every shard, given the tenants it must leave alone because they are migrating.
+     */
+    private void forEachShard(Consumer<Set<String>> task) {
+        TenantShardRouter router = shardRouter.getIfAvailable();
+        if (router == null) {
+            task.accept(Set.of());
+            return;
+        }
+        for (String shard : router.getShardNames()) {
+            router.runInShard(shard, task);
+        }
+    }
+    
+    private void claimAndSubmit(Set<String> excluded) {
+        Set<String> skipped = new HashSet<>(excluded);
+        int limit;
+        int claimed;
+        do {
+            int capacity = processingExecutor.getAvailableCapacity();
+            saturated = capacity < properties.getBatchSize();
+            limit = Math.min(properties.getBatchSize(), capacity);
+            if (limit == 0) {
+                return;
+            }
+            skipped.addAll(processingExecutor.getFullTenants());
+            List<ProcessingRequest> requests = stateMachine.claim(nodeId, properties.getLeaseDuration(), limit, skipped);
+            for (ProcessingRequest request : requests) {
+                if (!submit(request)) {
+                    skipped.add(request.getTenantId());
+                }
+            }
+            claimed = requests.size();
+        } while (claimed == limit);
+    }
+    
+    /**
+     * @return false if the tenant's queue was full and the request was released
+     */
+    private boolean submit(ProcessingRequest request) {
+        claimedCounter.increment();
+        if (request.getStatus() == ProcessingRequest.ProcessingStatus.IN_PROGRESS) {
+            recoveredCounter.increment();
+        }
+        String tenantId = request.getTenantId();
+        try {
+            processingExecutor.submitAsync(tenantId, () -> {
+                try {
+                    return processingService.getObject().processPayment(tenantId, request, nodeId)
+                            .whenComplete((result, error) -> jobFinished());
+                } catch (RuntimeException e) {
+                    jobFinished();
+                    throw e;
+                }
+            });
+        } catch (TenantQueueFullException e) {
+            stateMachine.release(tenantId, request.getRequestId(), nodeId, LocalDateTime.now().plus(e.getRetryAfter()));
+            return false;
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the lease is taken back when this node starts again
+            log.debug("Processing request {} in tenant {} not submitted: {}", request.getRequestId(), tenantId, e.getMessage());
+        }
+        return true;
+    }
+    
+    // A poll that stopped at the executor's capacity resumes once a job frees a slot
+    private void jobFinished() {
+        if (saturated) {
+            wakeUp();
+        }
+    }
+    
+    private static String defaultNodeId(Environment environment) {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return host + ":" + environment.getProperty("server.port", "8080");
+    }
+    
+    @Override
+    public void destroy() {
+        Thread thread = poller;
+        poller = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
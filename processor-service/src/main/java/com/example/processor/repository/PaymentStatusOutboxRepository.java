@@ -0,0 +1,30 @@
+package com.example.processor.repository;
+
+import com.example.processor.model.PaymentStatusOutbox;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PaymentStatusOutboxRepository extends JpaRepository<PaymentStatusOutbox, Long> {
+    
+    // Pending rows that are not backing off after a failed delivery; relayed rows are deleted by ID
+    @Query("select o from PaymentStatusOutbox o where o.nextAttemptAt is null or o.nextAttemptAt <= :now " +
+           "order by o.id asc")
+    List<PaymentStatusOutbox> findDue(@Param("now") LocalDateTime now, Limit limit);
+    
+    // Holds rows back after a failed delivery
+    @Transactional
+    @Modifying
+    @Query("update PaymentStatusOutbox o set o.attempts = o.attempts + 1, o.nextAttemptAt = :nextAttemptAt " +
+           "where o.id in :ids")
+    int defer(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+}
@@ -1,11 +1,21 @@
 package com.example.processor.repository;
 
 import com.example.processor.model.ProcessingRequest;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProcessingRequestRepository extends JpaRepository<ProcessingRequest, Long> {
@@ -18,4 +28,96 @@ public interface ProcessingRequestRepository extends JpaRepository<ProcessingReq
     List<ProcessingRequest> findByTenantIdAndStatus(String tenantId, ProcessingRequest.ProcessingStatus status);
     
     List<ProcessingRequest> findByTenantId(String tenantId);
-}
\ No newline at end of file
+    
+    // Keyset pagination on (tenantId, createdAt, requestId): first page, then pages after a cursor
+    List<ProcessingRequest> findByTenantIdOrderByCreatedAtAscRequestIdAsc(String tenantId, Limit limit);
+    
+    @Query("select r from ProcessingRequest r where r.tenantId = :tenantId " +
+           "and (r.createdAt > :createdAt or (r.createdAt = :createdAt and r.requestId > :requestId)) " +
+           "order by r.createdAt asc, r.requestId asc")
+    List<ProcessingRequest> findByTenantIdAfter(@Param("tenantId") String tenantId,
+                                                @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("requestId") String requestId,
+                                                Limit limit);
+    
+    // Streaming variant: rows are fetched from the cursor in chunks and must be consumed inside a transaction
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ProcessingRequest> streamByTenantIdOrderByCreatedAtAscRequestIdAsc(String tenantId);
+    
+    // Due work, oldest first, of tenants other than the excluded ones (which must not be empty). Rows locked
+    // by another worker's claim are skipped rather than waited for, so concurrent workers each get their
+    // own rows. Must run inside the claiming transaction.
+    @Query(value = "select * from processing_requests where next_attempt_at <= :now and tenant_id not in (:excluded) " +
+                   "order by next_attempt_at fetch first :limit rows only for update skip locked",
+           nativeQuery = true)
+    List<ProcessingRequest> findDueForUpdate(@Param("now") LocalDateTime now,
+                                             @Param("excluded") Collection<String> excluded,
+                                             @Param("limit") int limit);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ProcessingRequest r set r.leaseOwner = :leaseOwner, r.nextAttemptAt = :leaseExpiresAt " +
+           "where r.id in :ids")
+    int lease(@Param("ids") List<Long> ids,
+              @Param("leaseOwner") String leaseOwner,
+              @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt);
+    
+    // Gives up a lease, only if it is still held by leaseOwner, and sets when the request is next due
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ProcessingRequest r set r.leaseOwner = null, r.nextAttemptAt = :nextAttemptAt " +
+           "where r.tenantId = :tenantId and r.requestId = :requestId and r.leaseOwner = :leaseOwner")
+    int release(@Param("tenantId") String tenantId,
+                @Param("requestId") String requestId,
+                @Param("leaseOwner") String leaseOwner,
+                @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+    
+    // Makes every lease held by leaseOwner due immediately, e.g. when that node restarts,
+    // except those of the excluded tenants (which must not be empty)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ProcessingRequest r set r.nextAttemptAt = :now " +
+           "where r.leaseOwner = :leaseOwner and r.tenantId not in :excluded")
+    int expireLeases(@Param("leaseOwner") String leaseOwner,
+                     @Param("excluded") Collection<String> excluded,
+                     @Param("now") LocalDateTime now);
+    
+    // Requests of the tenant in the given (pending) status that are queued, leased or waiting for a retry
+    @Query("select count(r) from ProcessingRequest r " +
+           "where r.tenantId = :tenantId and r.status = :status and r.nextAttemptAt is not null")
+    long countQueued(@Param("tenantId") String tenantId,
+                     @Param("status") ProcessingRequest.ProcessingStatus status);
+    
+    // Queues a request in the given (pending) status that is not queued yet
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ProcessingRequest r set r.nextAttemptAt = :now, r.updatedAt = :now " +
+           "where r.tenantId = :tenantId and r.requestId = :requestId " +
+           "and r.status = :status and r.nextAttemptAt is null")
+    int enqueue(@Param("tenantId") String tenantId,
+                @Param("requestId") String requestId,
+                @Param("status") ProcessingRequest.ProcessingStatus status,
+                @Param("now") LocalDateTime now);
+    
+    // Compare-and-set status transition: only applies when the request is still in the expected state.
+    // Adds the given number of gateway attempts and counts the transition in statusVersion.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ProcessingRequest r set r.status = :to, r.errorMessage = :errorMessage, r.updatedAt = :updatedAt, " +
+           "r.attempts = r.attempts + :attempts, r.statusVersion = r.statusVersion + 1 " +
+           "where r.tenantId = :tenantId and r.requestId = :requestId and r.status = :from")
+    int transition(@Param("tenantId") String tenantId,
+                   @Param("requestId") String requestId,
+                   @Param("from") ProcessingRequest.ProcessingStatus from,
+                   @Param("to") ProcessingRequest.ProcessingStatus to,
+                   @Param("errorMessage") String errorMessage,
+                   @Param("attempts") int attempts,
+                   @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Counts a repeated gateway attempt for an in-progress request, only if it is still leased to leaseOwner
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ProcessingRequest r set r.attempts = r.attempts + 1 " +
+           "where r.tenantId = :tenantId and r.requestId = :requestId and r.leaseOwner = :leaseOwner " +
+           "and r.status = com.example.processor.model.ProcessingRequest.ProcessingStatus.IN_PROGRESS")
+    int countAttempt(@Param("tenantId") String tenantId,
+                     @Param("requestId") String requestId,
+                     @Param("leaseOwner") String leaseOwner);
+}
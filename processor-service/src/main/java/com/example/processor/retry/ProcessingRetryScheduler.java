@@ -0,0 +1,79 @@
+package com.example.processor.retry;
+
+import com.example.common.scheduling.TimingWheel;
+import com.example.processor.queue.ProcessingWorkQueue;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides when failed processing requests are retried, with exponential backoff and jitter, and makes
+ * sure the work queue notices them on time.
+ * 
+ * A failed request stays in the database with its {@code nextAttemptAt}, which is all the
+ * {@link ProcessingWorkQueue} needs to retry it. This node also puts a wake-up for that time on a
+ * {@link TimingWheel}, so the retry starts within a tick rather than at the next poll, and thousands of
+ * pending retries cost one ticker thread. Wake-ups are lost on restart; the queue's polling covers them.
+ */
+@Slf4j
+@Component
+public class ProcessingRetryScheduler implements DisposableBean {
+    
+    private final RetryProperties properties;
+    private final ProcessingWorkQueue workQueue;
+    private final ExecutorService dispatcher =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("processing-retry-", 0).factory());
+    private final TimingWheel wheel;
+    
+    public ProcessingRetryScheduler(RetryProperties properties,
+                                    ProcessingWorkQueue workQueue,
+                                    MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.workQueue = workQueue;
+        this.wheel = new TimingWheel("processing-retry-wheel", properties.getTick(), properties.getWheelSize(), dispatcher);
+        Gauge.builder("processing.retry.pending", wheel, TimingWheel::getPendingCount)
+                .description("Retries and deferred starts this node is waiting for")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * When a request that has been attempted {@code attempts} times and failed should be tried again,
+     * or null if it has used up its attempts. The backoff uses equal jitter: half of it is fixed and
+     * half random, so retries of requests that failed together spread out.
+     */
+    public LocalDateTime nextAttemptAt(int attempts) {
+        if (!properties.isEnabled() || attempts >= properties.getMaxAttempts()) {
+            return null;
+        }
+        long backoff = properties.backoffAfter(attempts).toNanos();
+        long half = backoff / 2;
+        long delay = half + ThreadLocalRandom.current().nextLong(half + 1);
+        return LocalDateTime.now().plusNanos(delay);
+    }
+    
+    /**
+     * Wakes the work queue at {@code at}, when a request becomes due again.
+     */
+    public void wakeAt(LocalDateTime at) {
+        try {
+            wheel.schedule(workQueue::wakeUp, Duration.between(LocalDateTime.now(), at));
+        } catch (RejectedExecutionException e) {
+            log.debug("Retry wake-up not scheduled, shutting down");
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        wheel.close();
+        dispatcher.shutdown();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.processor.retry;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for retrying processing requests that failed because the gateway could not be reached
+ * or returned an error. Declined payments are final and never retried.
+ */
+@Data
+@ConfigurationProperties(prefix = "processing.retry")
+public class RetryProperties {
+    
+    private boolean enabled = true;
+    
+    /**
+     * Attempts per request, including the first one.
+     */
+    private int maxAttempts = 5;
+    
+    /**
+     * Backoff before the first retry; each later retry waits {@code multiplier} times longer.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(1);
+    
+    private double multiplier = 2.0;
+    
+    /**
+     * Upper bound on the backoff, before jitter.
+     */
+    private Duration maxBackoff = Duration.ofMinutes(5);
+    
+    /**
+     * Resolution of the retry timing wheel; retries fire up to one tick late.
+     */
+    private Duration tick = Duration.ofMillis(100);
+    
+    /**
+     * Buckets in the retry timing wheel. Retries due further out than tick * wheel-size
+     * wait extra turns of the wheel.
+     */
+    private int wheelSize = 512;
+    
+    /**
+     * Backoff before the retry that follows the given number of attempts, without jitter.
+     */
+    public Duration backoffAfter(int attempts) {
+        double factor = Math.pow(multiplier, Math.max(0, attempts - 1));
+        double nanos = Math.min(initialBackoff.toNanos() * factor, maxBackoff.toNanos());
+        return Duration.ofNanos((long) nanos);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.processor.service;
+
+import com.example.processor.model.BatchIngestionSummary;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a JSON array of payment IDs from a request body and persists processing requests
+ * in chunks of the configured JDBC batch size.
+ * 
+ * Only one chunk is held in memory at a time, and each chunk is written in its own short
+ * transaction, so no connection is held while the client is still sending the body.
+ */
+@Slf4j
+@Service
+public class ProcessingIngestionService {
+    
+    private final ProcessingService processingService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    
+    public ProcessingIngestionService(ProcessingService processingService,
+                                      ObjectMapper objectMapper,
+                                      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}") int chunkSize) {
+        this.processingService = processingService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * Reads payment IDs from {@code body}, which must contain a JSON array of strings.
+     * If the body is malformed part way through, the chunks persisted so far are kept
+     * and the summary carries the error; the partial chunk being read is discarded and
+     * not counted.
+     */
+    public BatchIngestionSummary ingest(String tenantId, InputStream body) {
+        long startNanos = System.nanoTime();
+        long received = 0;
+        long created = 0;
+        long skipped = 0;
+        // Counts for the chunk being read, added to the totals once it is persisted
+        long chunkReceived = 0;
+        long chunkSkipped = 0;
+        int batches = 0;
+        String error = null;
+        
+        List<String> chunk = new ArrayList<>(chunkSize);
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of payment IDs");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.VALUE_STRING) {
+                    throw new IllegalArgumentException("Expected a payment ID string but found " + token);
+                }
+                chunkReceived++;
+                String paymentId = parser.getText().trim();
+                if (paymentId.isEmpty()) {
+                    chunkSkipped++;
+                    continue;
+                }
+                chunk.add(paymentId);
+                if (chunk.size() == chunkSize) {
+                    created += processingService.createProcessingRequests(tenantId, chunk);
+                    batches++;
+                    chunk.clear();
+                    received += chunkReceived;
+                    skipped += chunkSkipped;
+                    chunkReceived = 0;
+                    chunkSkipped = 0;
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            error = e.getMessage();
+            chunk.clear();
+            chunkReceived = 0;
+            chunkSkipped = 0;
+            log.warn("Bulk ingestion for tenant {} stopped after {} payment IDs: {}", tenantId, received, error);
+        }
+        
+        if (!chunk.isEmpty()) {
+            created += processingService.createProcessingRequests(tenantId, chunk);
+            batches++;
+        }
+        received += chunkReceived;
+        skipped += chunkSkipped;
+        
+        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        log.info("Bulk ingested {} processing requests in {} batches for tenant {} in {} ms",
+                   created, batches, tenantId, durationMs);
+        
+        return BatchIngestionSummary.builder()
+                .tenantId(tenantId)
+                .received(received)
+                .created(created)
+                .skipped(skipped)
+                .batches(batches)
+                .durationMs(durationMs)
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.processor.service;
+
+import com.example.common.metrics.TenantMetricTags;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processing requests between the IN_PROGRESS transition and their final state: how many are
+ * in progress right now, and how long each spent there, by tenant and final status.
+ */
+@Component
+public class ProcessingMetrics {
+    
+    private final MeterRegistry meterRegistry;
+    private final TenantMetricTags tenantTags;
+    private final AtomicInteger inProgress = new AtomicInteger();
+    // Completed and failed timers by tenant tag, so finishing a request does not look up meters
+    private final Map<String, Timer[]> durations = new ConcurrentHashMap<>();
+    
+    public ProcessingMetrics(MeterRegistry meterRegistry, TenantMetricTags tenantTags) {
+        this.meterRegistry = meterRegistry;
+        this.tenantTags = tenantTags;
+        Gauge.builder("processing.in.progress", inProgress, AtomicInteger::get)
+                .description("Processing requests in progress, waiting for the gateway")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * @return the start time to pass to {@link #finished}
+     */
+    public long started() {
+        inProgress.incrementAndGet();
+        return System.nanoTime();
+    }
+    
+    public void finished(String tenantId, long startedAt, boolean completed) {
+        inProgress.decrementAndGet();
+        String tenantTag = tenantTags.tagFor(tenantId);
+        Timer[] timers = durations.get(tenantTag);
+        if (timers == null) {
+            timers = durations.computeIfAbsent(tenantTag, this::newDurations);
+        }
+        timers[completed ? 0 : 1].record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+    
+    private Timer[] newDurations(String tenantTag) {
+        return new Timer[]{duration(tenantTag, "completed"), duration(tenantTag, "failed")};
+    }
+    
+    private Timer duration(String tenantTag, String status) {
+        return Timer.builder("processing.in.progress.duration")
+                .description("Time a processing request spends IN_PROGRESS")
+                .tags(TenantMetricTags.TAG, tenantTag, "status", status)
+                .register(meterRegistry);
+    }
+}
@@ -1,17 +1,46 @@
 package com.example.processor.service;
 
+import com.example.common.cache.TenantScopedCache;
+import com.example.common.cache.TenantSingleFlight;
+import com.example.common.id.TimeOrderedIds;
+import com.example.common.pagination.CursorPage;
+import com.example.common.pagination.KeysetCursor;
+import com.example.common.resilience.TenantCircuitBreaker;
 import com.example.common.util.DateUtils;
+import com.example.processor.executor.TenantQueueFullException;
+import com.example.processor.gateway.GatewayResult;
+import com.example.processor.gateway.PaymentGateway;
 import com.example.processor.model.ProcessingRequest;
+import com.example.processor.model.ProcessingRequestResponse;
+import com.example.processor.model.ProcessingRequest.ProcessingStatus;
+import com.example.processor.queue.ProcessingQueueProperties;
+import com.example.processor.queue.ProcessingWorkQueue;
 import com.example.processor.repository.ProcessingRequestRepository;
+import com.example.processor.retry.ProcessingRetryScheduler;
+import com.example.processor.retry.RetryProperties;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.example.common.util.TransactionUtils.afterCommit;
 
 @Slf4j
 @Service
@@ -19,71 +48,246 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ProcessingService {
     
+    // Matches the errorMessage column length
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 1000;
+    
     private final ProcessingRequestRepository repository;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ProcessingStateMachine stateMachine;
+    private final PaymentGateway paymentGateway;
+    private final TenantScopedCache<String, ProcessingRequestResponse> processingRequestCache;
+    private final TenantSingleFlight<String, Optional<ProcessingRequestResponse>> processingRequestLookups;
+    private final TenantSingleFlight<String, List<ProcessingRequest>> processingRequestListLookups;
+    private final ProcessingMetrics processingMetrics;
+    private final TenantCircuitBreaker processingCircuitBreaker;
+    private final ProcessingRetryScheduler retryScheduler;
+    private final RetryProperties retryProperties;
+    private final ProcessingWorkQueue workQueue;
+    private final ProcessingQueueProperties queueProperties;
     
     public ProcessingRequest createProcessingRequest(String tenantId, String paymentId) {
         ProcessingRequest request = ProcessingRequest.builder()
                 .tenantId(tenantId)
-                .requestId(UUID.randomUUID().toString())
+                .requestId(TimeOrderedIds.newId())
                 .paymentId(paymentId)
                 .build();
         
         request.setCreatedAt(LocalDateTime.now());
         
         log.info("Creating processing request {} for payment {} in tenant {} at {}", 
-                   request.getRequestId(), paymentId, tenantId, DateUtils.formatNow());
+                   request.getRequestId(), paymentId, tenantId, DateUtils.lazyNow());
         
-        return repository.save(request);
+        ProcessingRequest saved = repository.save(request);
+        afterCommit(() -> processingRequestCache.put(tenantId, saved.getRequestId(), ProcessingRequestResponse.from(saved)));
+        return saved;
     }
     
-    public Optional<ProcessingRequest> findByRequestId(String tenantId, String requestId) {
-        return repository.findByTenantIdAndRequestId(tenantId, requestId);
+    /**
+     * Persists one chunk of a bulk ingestion in a single transaction.
+     * The chunk is written through an EntityManager of its own, flushed as JDBC batches and closed,
+     * so a long ingestion neither accumulates entities in the caller's (open-in-view) persistence
+     * context nor clears entities the caller still holds there.
+     *
+     * @return the number of processing requests created
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int createProcessingRequests(String tenantId, List<String> paymentIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ProcessingRequest> requests = new ArrayList<>(paymentIds.size());
+        for (String paymentId : paymentIds) {
+            ProcessingRequest request = ProcessingRequest.builder()
+                    .tenantId(tenantId)
+                    .requestId(TimeOrderedIds.newId())
+                    .paymentId(paymentId)
+                    .build();
+            request.setCreatedAt(now);
+            requests.add(request);
+        }
+        
+        EntityManager chunkManager = entityManagerFactory.createEntityManager();
+        EntityTransaction transaction = chunkManager.getTransaction();
+        try {
+            transaction.begin();
+            requests.forEach(chunkManager::persist);
+            transaction.commit();
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            chunkManager.close();
+        }
+        
+        log.debug("Persisted batch of {} processing requests in tenant {}", requests.size(), tenantId);
+        return requests.size();
     }
     
+    /**
+     * Served from the tenant-scoped cache when possible. Runs without a transaction of its own,
+     * so a cache hit never takes a database connection. Concurrent misses for the same request
+     * share one query.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<ProcessingRequestResponse> findByRequestId(String tenantId, String requestId) {
+        return processingRequestCache.get(tenantId, requestId, () -> processingRequestLookups.execute(tenantId, requestId,
+                () -> repository.findByTenantIdAndRequestId(tenantId, requestId).map(ProcessingRequestResponse::from)));
+    }
+    
+    /**
+     * Concurrent calls for the same payment share one query; the list must not be modified.
+     * Like the lookup below, runs without a transaction of its own, so callers waiting for a
+     * shared query hold no database connection.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<ProcessingRequest> findByPaymentId(String tenantId, String paymentId) {
-        return repository.findByTenantIdAndPaymentId(tenantId, paymentId);
+        return processingRequestListLookups.execute(tenantId, "payment:" + paymentId,
+                () -> repository.findByTenantIdAndPaymentId(tenantId, paymentId));
     }
     
+    /**
+     * Concurrent calls for the same tenant share one query; the list must not be modified.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<ProcessingRequest> findByTenantId(String tenantId) {
-        return repository.findByTenantId(tenantId);
+        return processingRequestListLookups.execute(tenantId, "tenant", () -> repository.findByTenantId(tenantId));
     }
     
-    public ProcessingRequest processPayment(String tenantId, String requestId) {
-        ProcessingRequest request = repository.findByTenantIdAndRequestId(tenantId, requestId)
-                .orElseThrow(() -> new RuntimeException("Processing request not found: " + requestId + " for tenant: " + tenantId));
-        
-        request.setStatus(ProcessingRequest.ProcessingStatus.IN_PROGRESS);
-        request.setUpdatedAt(LocalDateTime.now());
-        repository.save(request);
+    @Transactional(readOnly = true)
+    public CursorPage<ProcessingRequest> findPageByTenantId(String tenantId, KeysetCursor after, int limit) {
+        Limit fetch = Limit.of(limit + 1);
+        List<ProcessingRequest> rows = after == null
+                ? repository.findByTenantIdOrderByCreatedAtAscRequestIdAsc(tenantId, fetch)
+                : repository.findByTenantIdAfter(tenantId, after.createdAt(), after.id(), fetch);
+        return CursorPage.of(rows, limit, request -> new KeysetCursor(request.getCreatedAt(), request.getRequestId()));
+    }
+    
+    /**
+     * Streams every processing request of a tenant to {@code sink} in (createdAt, requestId) order.
+     * Each row is detached once written, so heap use stays flat regardless of tenant size.
+     */
+    @Transactional(readOnly = true)
+    public void streamByTenantId(String tenantId, Consumer<ProcessingRequest> sink) {
+        try (Stream<ProcessingRequest> requests = repository.streamByTenantIdOrderByCreatedAtAscRequestIdAsc(tenantId)) {
+            requests.forEach(request -> {
+                sink.accept(request);
+                entityManager.detach(request);
+            });
+        }
+    }
+    
+    /**
+     * Queues a pending request for processing. It is picked up by the {@link ProcessingWorkQueue} of
+     * whichever node claims it first, which on this node is right after the commit.
+     * 
+     * @throws IllegalStateException    if the request is not pending or is already queued
+     * @throws TenantQueueFullException if the tenant already has {@code processing.queue.max-queued-per-tenant}
+     *                                  requests queued
+     */
+    public void enqueue(String tenantId, String requestId) {
+        if (repository.countQueued(tenantId, ProcessingStatus.PENDING) >= queueProperties.getMaxQueuedPerTenant()) {
+            throw new TenantQueueFullException(tenantId, queueProperties.getRetryAfter());
+        }
+        int queued = repository.enqueue(tenantId, requestId, ProcessingStatus.PENDING, LocalDateTime.now());
+        if (queued == 0) {
+            ProcessingRequest request = repository.findByTenantIdAndRequestId(tenantId, requestId)
+                    .orElseThrow(() -> new RuntimeException("Processing request not found: " + requestId + " for tenant: " + tenantId));
+            throw new IllegalStateException("Processing request " + requestId + " for tenant " + tenantId +
+                    " cannot be queued: current status is " + request.getStatus() +
+                    (request.getNextAttemptAt() != null ? " and it is already queued" : ""));
+        }
+        afterCommit(() -> {
+            processingRequestCache.invalidate(tenantId, requestId);
+            workQueue.wakeUp();
+        });
+    }
+    
+    /**
+     * Runs a request claimed by {@code leaseOwner} through the state machine without holding a thread,
+     * transaction or connection while the gateway is working.
+     * 
+     * The request moves to IN_PROGRESS in its own short transaction, the gateway call is
+     * issued asynchronously, and the COMPLETED/FAILED transition runs in another short
+     * transaction when the gateway answers. A request that was already IN_PROGRESS when claimed
+     * belonged to a node that stopped; its gateway call is repeated. Attempts are counted as
+     * gateway calls start, so releasing a request costs it none.
+     * 
+     * A gateway error counts against the tenant's circuit breaker and schedules a retry with
+     * backoff until the request runs out of attempts; a decline is final. While the tenant's
+     * breaker is open the request is not started but released until the breaker lets calls through.
+     * 
+     * @return a stage completed with the request in its final state, or with the unchanged
+     *         request if it was released
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletionStage<ProcessingRequest> processPayment(String tenantId, ProcessingRequest claimed, String leaseOwner) {
+        String requestId = claimed.getRequestId();
+        ProcessingRequest request;
+        if (claimed.getStatus() == ProcessingStatus.IN_PROGRESS) {
+            // Attempts count gateway calls started; a request that keeps outliving its node's lease is given up
+            if (claimed.getAttempts() >= retryProperties.getMaxAttempts()) {
+                log.error("Abandoning processing request {} in tenant {} after {} attempts", requestId, tenantId, claimed.getAttempts());
+                return CompletableFuture.completedFuture(stateMachine.fail(tenantId, requestId,
+                        "Processing abandoned after " + claimed.getAttempts() + " attempts", null, leaseOwner));
+            }
+            request = stateMachine.resume(tenantId, requestId, leaseOwner);
+        } else {
+            if (!processingCircuitBreaker.tryAcquire(tenantId)) {
+                Duration delay = max(processingCircuitBreaker.remainingOpen(tenantId), retryProperties.getInitialBackoff());
+                LocalDateTime nextAttemptAt = LocalDateTime.now().plus(delay);
+                log.debug("Circuit breaker open for tenant {}, deferring processing request {} by {}", tenantId, requestId, delay);
+                stateMachine.release(tenantId, requestId, leaseOwner, nextAttemptAt);
+                retryScheduler.wakeAt(nextAttemptAt);
+                return CompletableFuture.completedFuture(claimed);
+            }
+            if (claimed.getStatus() == ProcessingStatus.FAILED) {
+                stateMachine.retry(tenantId, requestId);
+            }
+            request = stateMachine.start(tenantId, requestId);
+        }
+        long startedAt = processingMetrics.started();
         
+        CompletionStage<GatewayResult> gatewayCall;
         try {
-            // Simulate processing logic
-            Thread.sleep(1000); // Simulate processing time
-            
-            // Mark as completed
-            request.setStatus(ProcessingRequest.ProcessingStatus.COMPLETED);
-            request.setUpdatedAt(LocalDateTime.now());
-            
-            log.info("Completed processing request {} for payment {} in tenant {} at {}", 
-                       requestId, request.getPaymentId(), tenantId, DateUtils.formatNow());
-            
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            request.setStatus(ProcessingRequest.ProcessingStatus.FAILED);
-            request.setErrorMessage("Processing interrupted: " + e.getMessage());
-            request.setUpdatedAt(LocalDateTime.now());
-            
-            log.error("Failed processing request {} for payment {} in tenant {}: {}", 
-                        requestId, request.getPaymentId(), tenantId, e.getMessage());
-        } catch (Exception e) {
-            request.setStatus(ProcessingRequest.ProcessingStatus.FAILED);
-            request.setErrorMessage("Processing failed: " + e.getMessage());
-            request.setUpdatedAt(LocalDateTime.now());
-            
-            log.error("Failed processing request {} for payment {} in tenant {}: {}", 
-                        requestId, request.getPaymentId(), tenantId, e.getMessage());
+            gatewayCall = paymentGateway.process(request);
+        } catch (RuntimeException e) {
+            gatewayCall = CompletableFuture.failedFuture(e);
         }
         
-        return repository.save(request);
+        return gatewayCall.handle((result, error) -> {
+            processingMetrics.finished(tenantId, startedAt, error == null && result.approved());
+            if (error != null) {
+                processingCircuitBreaker.onFailure(tenantId);
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                LocalDateTime nextAttemptAt = retryScheduler.nextAttemptAt(request.getAttempts());
+                log.error("Failed processing request {} for payment {} in tenant {} (attempt {}, next attempt at {}): {}", 
+                            requestId, request.getPaymentId(), tenantId, request.getAttempts(), nextAttemptAt, cause.getMessage());
+                ProcessingRequest failed = stateMachine.fail(tenantId, requestId, 
+                        StringUtils.abbreviate("Processing failed: " + cause.getMessage(), MAX_ERROR_MESSAGE_LENGTH),
+                        nextAttemptAt, leaseOwner);
+                if (nextAttemptAt != null) {
+                    retryScheduler.wakeAt(nextAttemptAt);
+                }
+                return failed;
+            }
+            processingCircuitBreaker.onSuccess(tenantId);
+            if (!result.approved()) {
+                log.warn("Gateway declined processing request {} for payment {} in tenant {}: {}", 
+                           requestId, request.getPaymentId(), tenantId, result.declineReason());
+                return stateMachine.fail(tenantId, requestId, 
+                        StringUtils.abbreviate("Declined: " + result.declineReason(), MAX_ERROR_MESSAGE_LENGTH),
+                        null, leaseOwner);
+            }
+            
+            ProcessingRequest completed = stateMachine.complete(tenantId, requestId, leaseOwner);
+            log.info("Completed processing request {} for payment {} in tenant {} at {}", 
+                       requestId, request.getPaymentId(), tenantId, DateUtils.lazyNow());
+            return completed;
+        });
+    }
+    
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,211 @@
+package com.example.processor.service;
+
+import com.example.common.cache.TenantScopedCache;
+import com.example.common.event.StatusChangeEvent;
+import com.example.common.id.TimeOrderedIds;
+import com.example.processor.model.PaymentStatusOutbox;
+import com.example.processor.model.ProcessingRequest;
+import com.example.processor.model.ProcessingRequestResponse;
+import com.example.processor.model.ProcessingRequest.ProcessingStatus;
+import com.example.processor.repository.PaymentStatusOutboxRepository;
+import com.example.processor.repository.ProcessingRequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.example.common.util.TransactionUtils.afterCommit;
+
+/**
+ * Processing request lifecycle: PENDING -> IN_PROGRESS -> COMPLETED / FAILED, and FAILED -> PENDING
+ * when a failed request is retried.
+ * 
+ * Each transition is its own short transaction built around a conditional UPDATE,
+ * so concurrent attempts to move the same request cannot both succeed and no
+ * transaction stays open between transitions. The new state is written through to the
+ * request cache and published as a {@link StatusChangeEvent} once the transition has committed.
+ * 
+ * The matching payment status is recorded in the payment status outbox within the same
+ * transaction, so payment-service learns about every committed transition and nothing else.
+ * 
+ * Requests are worked through a lease: a worker {@link #claim claims} due requests and holds them
+ * until it completes or fails them, or releases them for later.
+ */
+@Slf4j
+@Component
+@Transactional
+@RequiredArgsConstructor
+public class ProcessingStateMachine {
+    
+    private final ProcessingRequestRepository repository;
+    private final PaymentStatusOutboxRepository outboxRepository;
+    private final TenantScopedCache<String, ProcessingRequestResponse> processingRequestCache;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * Moves a request to IN_PROGRESS right before its gateway call, counting the attempt.
+     */
+    public ProcessingRequest start(String tenantId, String requestId) {
+        return transition(tenantId, requestId, ProcessingStatus.PENDING, ProcessingStatus.IN_PROGRESS, null, 1);
+    }
+    
+    /**
+     * Counts another gateway attempt for a request that was already IN_PROGRESS when claimed,
+     * i.e. whose previous node stopped during the gateway call.
+     * 
+     * @throws IllegalStateException if {@code leaseOwner} no longer holds the request
+     */
+    public ProcessingRequest resume(String tenantId, String requestId, String leaseOwner) {
+        if (repository.countAttempt(tenantId, requestId, leaseOwner) == 0) {
+            throw new IllegalStateException("Processing request " + requestId + " for tenant " + tenantId +
+                    " is no longer leased to " + leaseOwner);
+        }
+        return repository.findByTenantIdAndRequestId(tenantId, requestId)
+                .orElseThrow(() -> new RuntimeException("Processing request not found: " + requestId + " for tenant: " + tenantId));
+    }
+    
+    /**
+     * Completes a request and gives up the lease on it.
+     * 
+     * @throws IllegalStateException if {@code leaseOwner} no longer holds the request
+     */
+    public ProcessingRequest complete(String tenantId, String requestId, String leaseOwner) {
+        requireLease(tenantId, requestId, leaseOwner, null);
+        return transition(tenantId, requestId, ProcessingStatus.IN_PROGRESS, ProcessingStatus.COMPLETED, null, 0);
+    }
+    
+    /**
+     * Fails a request and gives up the lease on it.
+     * 
+     * @param nextAttemptAt when the request is due to be retried, or null if it will not be
+     * @throws IllegalStateException if {@code leaseOwner} no longer holds the request
+     */
+    public ProcessingRequest fail(String tenantId, String requestId, String errorMessage,
+                                  LocalDateTime nextAttemptAt, String leaseOwner) {
+        requireLease(tenantId, requestId, leaseOwner, nextAttemptAt);
+        return transition(tenantId, requestId, ProcessingStatus.IN_PROGRESS, ProcessingStatus.FAILED,
+                errorMessage, 0);
+    }
+    
+    /**
+     * Puts a failed request back to PENDING so it can be started again.
+     */
+    public ProcessingRequest retry(String tenantId, String requestId) {
+        return transition(tenantId, requestId, ProcessingStatus.FAILED, ProcessingStatus.PENDING, null, 0);
+    }
+    
+    /**
+     * Leases up to {@code limit} due requests of the current shard to {@code leaseOwner}. Requests
+     * another worker is claiming at the same time are skipped. A claim is not an attempt: attempts are
+     * counted when the gateway call starts, so a request released unstarted uses none.
+     * Until the lease is given up, the request is due again when it expires, so the work of a
+     * worker that stops is picked up by another one.
+     * 
+     * @param excluded tenants whose requests are left alone, e.g. because they are migrating
+     * @return the claimed requests, in their state after the claim
+     */
+    public List<ProcessingRequest> claim(String leaseOwner, Duration leaseDuration, int limit, Set<String> excluded) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ProcessingRequest> due = repository.findDueForUpdate(now, orNone(excluded), limit);
+        if (due.isEmpty()) {
+            return due;
+        }
+        List<Long> ids = due.stream().map(ProcessingRequest::getId).toList();
+        repository.lease(ids, leaseOwner, now.plus(leaseDuration));
+        return repository.findAllById(ids);
+    }
+    
+    /**
+     * Gives up a lease without changing the request's status; the request is due again at {@code nextAttemptAt}.
+     * 
+     * @return false if {@code leaseOwner} no longer holds the request
+     */
+    public boolean release(String tenantId, String requestId, String leaseOwner, LocalDateTime nextAttemptAt) {
+        return repository.release(tenantId, requestId, leaseOwner, nextAttemptAt) > 0;
+    }
+    
+    /**
+     * Makes the leases {@code leaseOwner} holds on the current shard due now, for a node that restarted
+     * and is no longer working on them. Leases of the {@code excluded} tenants are left alone.
+     */
+    public int expireLeases(String leaseOwner, Set<String> excluded) {
+        return repository.expireLeases(leaseOwner, orNone(excluded), LocalDateTime.now());
+    }
+    
+    // "not in ()" is not valid SQL; no tenant has an empty ID, so this excludes none
+    private static Collection<String> orNone(Set<String> tenants) {
+        return tenants.isEmpty() ? List.of("") : tenants;
+    }
+    
+    private void requireLease(String tenantId, String requestId, String leaseOwner, LocalDateTime nextAttemptAt) {
+        if (!release(tenantId, requestId, leaseOwner, nextAttemptAt)) {
+            throw new IllegalStateException("Processing request " + requestId + " for tenant " + tenantId +
+                    " is no longer leased to " + leaseOwner);
+        }
+    }
+    
+    private ProcessingRequest transition(String tenantId, String requestId,
+                                         ProcessingStatus from, ProcessingStatus to, String errorMessage,
+                                         int attempts) {
+        int updated = repository.transition(tenantId, requestId, from, to, errorMessage, attempts, LocalDateTime.now());
+        ProcessingRequest request = repository.findByTenantIdAndRequestId(tenantId, requestId)
+                .orElseThrow(() -> new RuntimeException("Processing request not found: " + requestId + " for tenant: " + tenantId));
+        
+        if (updated == 0) {
+            throw new IllegalStateException("Processing request " + requestId + " for tenant " + tenantId +
+                    " cannot move from " + from + " to " + to + ": current status is " + request.getStatus());
+        }
+        
+        log.debug("Processing request {} in tenant {} moved from {} to {}", requestId, tenantId, from, to);
+        outboxRepository.save(PaymentStatusOutbox.builder()
+                .tenantId(tenantId)
+                .paymentId(request.getPaymentId())
+                .requestId(requestId)
+                .paymentStatus(paymentStatusFor(to))
+                .sequence(statusSequence(request))
+                .build());
+        ProcessingRequestResponse snapshot = ProcessingRequestResponse.from(request);
+        afterCommit(() -> processingRequestCache.put(tenantId, requestId, snapshot));
+        eventPublisher.publishEvent(new StatusChangeEvent(tenantId, "processing-request", requestId,
+                from.name(), to.name(), Instant.now()));
+        return request;
+    }
+    
+    // Later requests for the same payment win over earlier ones; within a request, later transitions win
+    private static long statusSequence(ProcessingRequest request) {
+        return createdMillis(request) << PaymentStatusOutbox.VERSION_BITS | request.getStatusVersion();
+    }
+    
+    // Creation time carried in the time-ordered request ID; createdAt, read as UTC, for older IDs
+    private static long createdMillis(ProcessingRequest request) {
+        try {
+            UUID id = UUID.fromString(request.getRequestId());
+            if (id.version() == 7) {
+                return TimeOrderedIds.timestampOf(id);
+            }
+        } catch (IllegalArgumentException e) {
+            // Not a UUID: an ID from before requestIds were time-ordered
+        }
+        return request.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+    
+    // Payment status names as defined by payment-service
+    private static String paymentStatusFor(ProcessingStatus status) {
+        return switch (status) {
+            case PENDING -> "PENDING";
+            case IN_PROGRESS -> "PROCESSING";
+            case COMPLETED -> "COMPLETED";
+            case FAILED -> "FAILED";
+        };
+    }
+}